@@ -0,0 +1,248 @@
+package com.demo.follow.db;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数据库迁移测试
+ * 逐个版本按导出的 schema（app/schemas）建库、执行一步迁移并与下一版本的 schema 比对；
+ * 再以预置的 follow_v1.db 为起点，验证升级后数据完整、索引生效、计数触发器正确维护、全文索引已建立
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test.db";
+    private static final String STEP_DB = "migration-step-test.db";
+    private static final String SORT_INDEX = "index_follow_isSpecial_followTime_uid_status";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+        context.deleteDatabase(STEP_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+        context.deleteDatabase(STEP_DB);
+    }
+
+    // ==================== 逐版本迁移 ====================
+
+    @Test
+    public void migrate1To2() throws IOException {
+        assertMigrates(AppDatabase.MIGRATION_1_2);
+    }
+
+    @Test
+    public void migrate2To3() throws IOException {
+        assertMigrates(AppDatabase.MIGRATION_2_3);
+    }
+
+    @Test
+    public void migrate3To4() throws IOException {
+        assertMigrates(AppDatabase.MIGRATION_3_4);
+    }
+
+    @Test
+    public void migrate4To5() throws IOException {
+        assertMigrates(AppDatabase.MIGRATION_4_5);
+    }
+
+    @Test
+    public void migrate5To6() throws IOException {
+        assertMigrates(AppDatabase.MIGRATION_5_6);
+    }
+
+    @Test
+    public void migrate1To6_keepsRows() throws IOException {
+        try (SupportSQLiteDatabase sql = helper.createDatabase(STEP_DB, 1)) {
+            sql.execSQL("INSERT INTO follow (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                    + " VALUES ('dy1', '小明', '', 0, NULL, 1, 1)");
+        }
+        try (SupportSQLiteDatabase sql = helper.runMigrationsAndValidate(STEP_DB, 6, true,
+                AppDatabase.MIGRATIONS)) {
+            assertEquals(1, count(sql, "SELECT COUNT(*) FROM follow WHERE douyinId = 'dy1'"));
+            assertEquals(1, count(sql, "SELECT followCount FROM follow_stats WHERE id = " + FollowStats.ROW_ID));
+            assertEquals(1, count(sql, "SELECT COUNT(*) FROM follow_fts WHERE follow_fts MATCH '\"dy1*\"'"));
+        }
+    }
+
+    /**
+     * 按迁移的起始版本建库，执行这一步迁移，并按目标版本的 schema 校验（包括不应残留的表）
+     */
+    private void assertMigrates(Migration migration) throws IOException {
+        helper.createDatabase(STEP_DB, migration.startVersion).close();
+        helper.runMigrationsAndValidate(STEP_DB, migration.endVersion, true, migration).close();
+    }
+
+    // ==================== 预置数据库 ====================
+
+    @Test
+    public void migrate1To2_keepsRowsAndUsesSortIndex() throws IOException {
+        int rowsBefore = createVersion1Database();
+
+        AppDatabase db = AppDatabase.configure(
+                Room.databaseBuilder(context, AppDatabase.class, TEST_DB)).build();
+        // 打开数据库时执行迁移并校验 schema，不一致会抛出异常
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+
+        assertEquals(rowsBefore, count(sql, "SELECT COUNT(*) FROM follow"));
+        assertEquals(1, count(sql, "SELECT COUNT(*) FROM sqlite_master"
+                + " WHERE type = 'index' AND name = '" + SORT_INDEX + "'"));
+        assertSortUsesIndex(sql);
+        assertStatsTrackFollowStatus(sql);
+        assertSearchIndexed(sql);
+        db.close();
+    }
+
+    @Test
+    public void createFromAsset_hasSortIndex() {
+        AppDatabase db = AppDatabase.configure(
+                Room.databaseBuilder(context, AppDatabase.class, TEST_DB)
+                        .createFromAsset("follow_v1.db")).build();
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+
+        assertTrue(count(sql, "SELECT COUNT(*) FROM follow") > 0);
+        assertSortUsesIndex(sql);
+        assertStatsTrackFollowStatus(sql);
+        assertSearchIndexed(sql);
+        db.close();
+    }
+
+    /**
+     * 复制预置数据库，并还原成版本 1 首次打开后的状态：
+     * Room 补建 douyinId 唯一索引并把 user_version 写为 1
+     * @return 预置数据的行数
+     */
+    private int createVersion1Database() throws IOException {
+        File file = context.getDatabasePath(TEST_DB);
+        file.getParentFile().mkdirs();
+        try (InputStream in = context.getAssets().open("follow_v1.db");
+             OutputStream out = new FileOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        try (SQLiteDatabase db = SQLiteDatabase.openDatabase(
+                file.getPath(), null, SQLiteDatabase.OPEN_READWRITE)) {
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_follow_douyinId`"
+                    + " ON `follow` (`douyinId`)");
+            db.setVersion(1);
+            try (Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM follow", null)) {
+                cursor.moveToFirst();
+                return cursor.getInt(0);
+            }
+        }
+    }
+
+    /**
+     * 列表排序和游标翻页都应命中复合索引，且不再需要临时 B 树排序
+     */
+    private void assertSortUsesIndex(SupportSQLiteDatabase sql) {
+        String listPlan = queryPlan(sql, "SELECT * FROM follow"
+                + " ORDER BY isSpecial DESC, followTime DESC, uid DESC LIMIT 50");
+        assertTrue(listPlan, listPlan.contains(SORT_INDEX));
+        assertFalse(listPlan, listPlan.contains("TEMP B-TREE"));
+
+        String seekPlan = queryPlan(sql, "SELECT * FROM follow WHERE isSpecial = 0"
+                + " AND followTime <= 0 AND (followTime < 0 OR uid < 0)"
+                + " ORDER BY followTime DESC, uid DESC LIMIT 50");
+        assertTrue(seekPlan, seekPlan.contains("SEARCH"));
+        assertTrue(seekPlan, seekPlan.contains(SORT_INDEX));
+        assertFalse(seekPlan, seekPlan.contains("TEMP B-TREE"));
+    }
+
+    /**
+     * 计数表与 follow 表一致，且只在关注状态变化或增删行时改变
+     */
+    private void assertStatsTrackFollowStatus(SupportSQLiteDatabase sql) {
+        String stats = "SELECT followCount FROM follow_stats WHERE id = " + FollowStats.ROW_ID;
+        String total = "SELECT totalCount FROM follow_stats WHERE id = " + FollowStats.ROW_ID;
+        int followed = count(sql, "SELECT COUNT(*) FROM follow WHERE status = 1");
+        int rows = count(sql, "SELECT COUNT(*) FROM follow");
+        assertEquals(followed, count(sql, stats));
+        assertEquals(rows, count(sql, total));
+
+        long uid = count(sql, "SELECT uid FROM follow WHERE status = 1 LIMIT 1");
+        sql.execSQL("UPDATE follow SET status = 0 WHERE uid = " + uid);
+        assertEquals(followed - 1, count(sql, stats));
+
+        // 状态未变化、只改备注时计数不变
+        sql.execSQL("UPDATE follow SET status = 0 WHERE uid = " + uid);
+        sql.execSQL("UPDATE follow SET remark = 'r' WHERE uid = " + uid);
+        assertEquals(followed - 1, count(sql, stats));
+
+        sql.execSQL("INSERT INTO follow (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                + " VALUES ('stats_test', 'n', '', 0, '', 0, 1)");
+        assertEquals(followed, count(sql, stats));
+        assertEquals(rows + 1, count(sql, total));
+
+        sql.execSQL("DELETE FROM follow WHERE status = 0");
+        assertEquals(followed, count(sql, stats));
+        assertEquals(rows, count(sql, total));
+    }
+
+    /**
+     * 预置数据都已进入全文索引（每个已索引文档在 docsize 影子表中有一行），可按抖音号前缀搜到
+     */
+    private void assertSearchIndexed(SupportSQLiteDatabase sql) {
+        assertEquals(count(sql, "SELECT COUNT(*) FROM follow"),
+                count(sql, "SELECT COUNT(*) FROM follow_fts_docsize"));
+        try (Cursor cursor = sql.query("SELECT douyinId FROM follow ORDER BY uid LIMIT 1")) {
+            cursor.moveToFirst();
+            String douyinId = cursor.getString(0);
+            assertEquals(1, count(sql, "SELECT COUNT(*) FROM follow_fts WHERE follow_fts MATCH '\"" + douyinId + "*\"'"));
+        }
+    }
+
+    private static String queryPlan(SupportSQLiteDatabase sql, String query) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = sql.query("EXPLAIN QUERY PLAN " + query)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static int count(SupportSQLiteDatabase sql, String query) {
+        try (Cursor cursor = sql.query(query)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
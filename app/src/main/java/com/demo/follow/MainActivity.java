@@ -1,9 +1,19 @@
 package com.demo.follow;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.FragmentManager;
+import com.demo.follow.db.DatabaseWarmup;
+import com.demo.follow.sync.FollowSyncEngine;
 import com.demo.follow.ui.RelationshipsFragment;
+import com.demo.follow.util.AvatarAtlas;
+import com.demo.follow.util.FollowMetrics;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 
 /**
  * 应用主 Activity
@@ -11,14 +21,50 @@ import com.demo.follow.ui.RelationshipsFragment;
  */
 public class MainActivity extends AppCompatActivity {
 
+    /**
+     * 初始显示的标签页位置（可选，默认第一个标签页），启动基准测试用它直接打开关注列表
+     */
+    public static final String EXTRA_TAB = "tab";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // 在布局加载的同时，后台打开并预热数据库、打开头像图集
+        DatabaseWarmup warmup = DatabaseWarmup.get(this);
+        warmup.start();
+        AvatarAtlas.preload(this);
+        // 数据库就绪后创建同步引擎（开始监听发件箱）并同步一次
+        warmup.isReady().observe(this, ready -> {
+            if (ready) {
+                FollowSyncEngine.get(this).start();
+            }
+        });
         setContentView(R.layout.activity_main);
 
         FragmentManager fragmentManager = getSupportFragmentManager();
         fragmentManager.beginTransaction()
-                .replace(R.id.container, new RelationshipsFragment())
+                .replace(R.id.container, RelationshipsFragment.newInstance(
+                        getIntent().getIntExtra(EXTRA_TAB, 0)))
                 .commit();
     }
-}
\ No newline at end of file
+
+    /**
+     * debug 包中导出热路径指标：
+     * adb shell dumpsys activity com.demo.follow/.MainActivity metrics [reset]
+     * 加上 reset 时输出后清空，便于只统计某一段操作
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd,
+                     @NonNull PrintWriter writer, @Nullable String[] args) {
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (debuggable && args != null && args.length > 0 && "metrics".equals(args[0])) {
+            FollowMetrics metrics = FollowMetrics.getInstance();
+            metrics.dump(writer);
+            if (args.length > 1 && "reset".equals(args[1])) {
+                metrics.reset();
+            }
+            return;
+        }
+        super.dump(prefix, fd, writer, args);
+    }
+}
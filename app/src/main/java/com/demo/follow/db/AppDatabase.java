@@ -1,20 +1,160 @@
 package com.demo.follow.db;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import android.content.Context;
+import com.demo.follow.BuildConfig;
+import com.demo.follow.util.AppExecutors;
 
-@Database(entities = {FollowUser.class}, version = 1, exportSchema = false)
+@Database(entities = {FollowUser.class, FollowStats.class, FollowFts.class, FollowPinyin.class,
+        FollowOutbox.class, SyncState.class},
+        version = 6, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
 
     public abstract FollowDao followDao();
 
+    public abstract SyncDao syncDao();
+
     private static volatile AppDatabase INSTANCE;
 
+    /**
+     * 版本 1 -> 2：新增与列表排序一致的复合索引
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_follow_isSpecial_followTime_uid_status`"
+                    + " ON `follow` (`isSpecial`, `followTime`, `uid`, `status`)");
+        }
+    };
+
+    /**
+     * 版本 2 -> 3：新增由触发器维护的关注计数表
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `follow_stats` (`id` INTEGER NOT NULL,"
+                    + " `followCount` INTEGER NOT NULL, `totalCount` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            FollowStats.install(db);
+        }
+    };
+
+    /**
+     * 版本 3 -> 4：新增全文索引表
+     * 建表和同步触发器与 Room 为 {@link FollowFts} 生成的语句一致，建好后按现有数据重建索引
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `follow_fts` USING FTS4("
+                    + "`nick` TEXT, `remark` TEXT, `douyinId` TEXT,"
+                    + " tokenize=unicode61, content=`follow`, prefix=`2,3`)");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_follow_fts_BEFORE_UPDATE"
+                    + " BEFORE UPDATE ON `follow` BEGIN DELETE FROM `follow_fts`"
+                    + " WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_follow_fts_BEFORE_DELETE"
+                    + " BEFORE DELETE ON `follow` BEGIN DELETE FROM `follow_fts`"
+                    + " WHERE `docid`=OLD.`rowid`; END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_follow_fts_AFTER_UPDATE"
+                    + " AFTER UPDATE ON `follow` BEGIN INSERT INTO `follow_fts`"
+                    + "(`docid`, `nick`, `remark`, `douyinId`)"
+                    + " VALUES (NEW.`rowid`, NEW.`nick`, NEW.`remark`, NEW.`douyinId`); END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_follow_fts_AFTER_INSERT"
+                    + " AFTER INSERT ON `follow` BEGIN INSERT INTO `follow_fts`"
+                    + "(`docid`, `nick`, `remark`, `douyinId`)"
+                    + " VALUES (NEW.`rowid`, NEW.`nick`, NEW.`remark`, NEW.`douyinId`); END");
+            FollowFts.rebuild(db);
+        }
+    };
+
+    /**
+     * 版本 4 -> 5：新增拼音搜索索引表（内容由应用在后台补建）
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `follow_pinyin` (`uid` INTEGER NOT NULL,"
+                    + " `source` INTEGER NOT NULL, `pinyin` TEXT NOT NULL, `initials` TEXT NOT NULL,"
+                    + " PRIMARY KEY(`uid`, `source`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_follow_pinyin_pinyin` ON `follow_pinyin` (`pinyin`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_follow_pinyin_initials` ON `follow_pinyin` (`initials`)");
+            FollowPinyin.install(db);
+        }
+    };
+
+    /**
+     * 版本 5 -> 6：新增同步用的发件箱表和同步状态表（都从空表开始，迁移前的修改不补记）
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `follow_outbox` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+                    + " `douyinId` TEXT NOT NULL, `field` INTEGER NOT NULL, `value` TEXT,"
+                    + " `changedAt` INTEGER NOT NULL, `attempts` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_follow_outbox_douyinId_field`"
+                    + " ON `follow_outbox` (`douyinId`, `field`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_state` (`id` INTEGER NOT NULL,"
+                    + " `cursor` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+        }
+    };
+
+    /**
+     * 全部迁移，按版本顺序排列
+     */
+    public static final Migration[] MIGRATIONS = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+            MIGRATION_5_6};
+
+    /**
+     * 写连接的页缓存大小（负数表示 KiB），足够容纳整张关注表和索引的热点页
+     * 只作用于写连接：WAL 下的读连接由系统连接池按需创建，没有逐连接的打开回调，保持 SQLite 默认的页缓存
+     */
+    private static final int PAGE_CACHE_KIB = 8 * 1024;
+
+    /**
+     * 数据库回调
+     * 建表时（从预置文件首次创建）补建 Room 不会生成的触发器，并为预置数据建立全文索引；
+     * 每次打开时调整写连接的参数（页缓存），写入和事务内的读取都走这个连接，事务外的查询走读连接，不受影响
+     */
+    private static final Callback CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            FollowStats.install(db);
+            FollowFts.rebuild(db);
+            FollowPinyin.install(db);
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            db.query("PRAGMA cache_size = -" + PAGE_CACHE_KIB).close();
+        }
+    };
+
+    /**
+     * 为构建器加上迁移和回调（正式实例与测试共用，保证 schema 和触发器一致）
+     * @param builder Room 构建器
+     * @return 同一个构建器
+     */
+    public static Builder<AppDatabase> configure(@NonNull Builder<AppDatabase> builder) {
+        return builder.addMigrations(MIGRATIONS)
+                .addCallback(CALLBACK);
+    }
+
+    /**
+     * 正式数据库的文件名和预置数据
+     * 预置数据由构建类型决定：正式包为 follow_v1.db，benchmark 包为合成的大数据集（见 app/build.gradle）
+     */
+    private static final String DATABASE_NAME = "follow.db";
+    private static final String ASSET_PATH = BuildConfig.FOLLOW_DB_ASSET;
+
     /**
      * 获取数据库单例
-     * 使用预置的 follow_v1.db 文件初始化
+     * 使用预置数据库文件初始化，显式开启 WAL，读写可并发
+     * 这里只创建实例，首次打开（拷贝、迁移、校验）由 {@link DatabaseWarmup} 在后台完成
      * @param context 应用上下文
      * @return 数据库实例
      */
@@ -22,12 +162,28 @@ public abstract class AppDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context, AppDatabase.class, "follow.db")
-                            .createFromAsset("follow_v1.db")
-                            .build();
+                    INSTANCE = builder(context, DATABASE_NAME, ASSET_PATH).build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+
+    /**
+     * 按正式配置创建构建器：从预置文件拷贝、迁移和回调、WAL，
+     * Room 的查询（LiveData、失效检查）在读取通道上执行，事务在写入通道上执行，两者互不阻塞
+     * 测试和基准测试用它打开合成数据集（assets/datasets，见 generateFollowDatasets 任务），与正式数据库走同一条路径
+     * @param context 上下文
+     * @param name 数据库文件名
+     * @param assetPath 预置数据库在 assets 中的路径
+     * @return Room 构建器
+     */
+    public static Builder<AppDatabase> builder(@NonNull Context context, @NonNull String name,
+                                               @NonNull String assetPath) {
+        return configure(Room.databaseBuilder(context, AppDatabase.class, name)
+                .createFromAsset(assetPath))
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(AppExecutors.getInstance().reads())
+                .setTransactionExecutor(AppExecutors.getInstance().diskIO());
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.follow.db;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import com.demo.follow.util.AppExecutors;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 数据库启动预热
+ * MainActivity 创建时在后台线程打开数据库：首次启动时拷贝预置文件、执行迁移和 schema 校验，
+ * 随后在写连接上预编译列表语句，并执行计数和第一页查询，把数据页读入系统文件缓存。
+ * 预编译的语句和 SQLite 页缓存属于单个连接：列表语句只缓存在写连接上，计数和第一页查询由连接池中的某个读连接执行，
+ * 其他读连接首次查询时仍需编译语句、从文件缓存读页，但不再有磁盘读取。
+ * 预热完成后 {@link #isReady()} 变为 true，列表页面再开始查询，首屏查询不再承担打开数据库的开销
+ *
+ * 耗时以 "StartupTiming" 标签输出到 logcat，时间起点为进程启动，便于对比优化前后的首行展示时间；
+ * 打开和预热两段同时输出 systrace 区段 db.open / db.prewarm，启动基准测试（:macrobenchmark）按区段统计
+ */
+public final class DatabaseWarmup {
+
+    private static final String TAG = "StartupTiming";
+
+    /**
+     * 预热时读取的行数，与分页列表首屏加载量相当
+     */
+    private static final int WARMUP_ROWS = 100;
+
+    /**
+     * systrace 区段名
+     */
+    public static final String TRACE_OPEN = "db.open";
+    public static final String TRACE_PREWARM = "db.prewarm";
+
+    private static volatile DatabaseWarmup instance;
+
+    /**
+     * 获取单例
+     * @param context 上下文
+     * @return 预热器
+     */
+    @NonNull
+    public static DatabaseWarmup get(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (DatabaseWarmup.class) {
+                if (instance == null) {
+                    instance = new DatabaseWarmup(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private final Context context;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean firstRowReported = new AtomicBoolean();
+    private final MutableLiveData<Boolean> ready = new MutableLiveData<>(false);
+
+    private DatabaseWarmup(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * 开始预热（重复调用只执行一次）
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        long scheduledAt = SystemClock.elapsedRealtime();
+        AppExecutors.getInstance().diskIO().execute(() -> warmUp(scheduledAt));
+    }
+
+    /**
+     * 数据库是否已打开并完成预热
+     * @return 就绪状态（LiveData，只会从 false 变为 true）
+     */
+    @NonNull
+    public LiveData<Boolean> isReady() {
+        return ready;
+    }
+
+    /**
+     * 列表首次拿到数据时调用，输出从进程启动到首行数据的耗时（只记录一次）
+     */
+    @MainThread
+    public void reportFirstRow() {
+        if (firstRowReported.compareAndSet(false, true)) {
+            Log.i(TAG, "first row at " + sinceProcessStart() + "ms since process start");
+        }
+    }
+
+    private void warmUp(long scheduledAt) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            AppDatabase db = AppDatabase.get(context);
+
+            // 首次打开：拷贝预置文件、迁移、校验 schema，并执行打开回调（页缓存设置）
+            Trace.beginSection(TRACE_OPEN);
+            SupportSQLiteDatabase sqlite;
+            try {
+                sqlite = db.getOpenHelper().getWritableDatabase();
+            } finally {
+                Trace.endSection();
+            }
+            long opened = SystemClock.elapsedRealtime();
+
+            // 在写连接上预编译全量列表语句，并实际执行计数和第一页查询，把表和索引的热点页读入文件缓存
+            Trace.beginSection(TRACE_PREWARM);
+            int count;
+            int rows;
+            try {
+                compile(sqlite, FollowDao.ALL_ROWS_QUERY);
+                FollowDao dao = db.followDao();
+                count = dao.countFollow();
+                rows = dao.getFirstFollowPage(WARMUP_ROWS).size();
+            } finally {
+                Trace.endSection();
+            }
+            long warmed = SystemClock.elapsedRealtime();
+
+            Log.i(TAG, "database ready: queued " + (start - scheduledAt) + "ms"
+                    + ", open " + (opened - start) + "ms"
+                    + ", prewarm " + (warmed - opened) + "ms"
+                    + " (" + count + " follows, " + rows + " rows)"
+                    + ", " + sinceProcessStart() + "ms since process start");
+        } catch (RuntimeException e) {
+            // 预热失败不影响功能，列表查询会在使用时再次打开数据库并暴露真正的错误
+            Log.w(TAG, "database warmup failed", e);
+        }
+        ready.postValue(true);
+    }
+
+    /**
+     * 预编译语句：语句会留在该连接（这里是写连接）的语句缓存中，之后在该连接上执行相同 SQL 的查询可直接复用
+     */
+    private static void compile(SupportSQLiteDatabase sqlite, String sql) {
+        try {
+            SupportSQLiteStatement statement = sqlite.compileStatement(sql);
+            statement.close();
+        } catch (Exception e) {
+            Log.w(TAG, "failed to precompile: " + sql, e);
+        }
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+}
@@ -1,13 +1,20 @@
 package com.demo.follow.db;
 
+import android.database.Cursor;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 关注用户数据访问对象
@@ -16,20 +23,254 @@ import java.util.List;
 @Dao
 public interface FollowDao {
 
+    /**
+     * 列表行模型 {@link FollowRow} 的列，即 follow 表的全部列
+     * 显式列出以便与 FollowRow 的构造参数一一对应（列表行可以还原为完整实体，见 {@link FollowRow#toUser()}）
+     */
+    String ROW_COLUMNS = "uid, douyinId, nick, remark, avatar, isSpecial, followTime, status";
+
+    /**
+     * 关注列表查询（全量列表）
+     */
+    String ALL_ROWS_QUERY = "SELECT " + ROW_COLUMNS
+            + " FROM follow ORDER BY isSpecial DESC, followTime DESC, uid DESC";
+
+    /**
+     * 关注列表查询（完整实体）
+     */
+    String ALL_FOLLOW_QUERY = "SELECT * FROM follow ORDER BY isSpecial DESC, followTime DESC, uid DESC";
+
+    /**
+     * 有效关注数查询（标题），读取触发器维护的计数，只依赖 follow_stats 表
+     */
+    String FOLLOW_COUNT_QUERY = "SELECT followCount FROM follow_stats WHERE id = " + FollowStats.ROW_ID;
+
     /**
      * 获取所有关注用户列表，按特别关注和时间排序
      * @return 关注用户列表（LiveData）
      */
-    @Query("SELECT * FROM follow ORDER BY isSpecial DESC, followTime DESC")
+    @Query(ALL_FOLLOW_QUERY)
     LiveData<List<FollowUser>> getAllFollow();
 
+    /**
+     * 同步获取所有关注用户（与 {@link #getAllFollow()} 相同的语句），需在后台线程调用
+     * @return 关注用户列表
+     */
+    @Query(ALL_FOLLOW_QUERY)
+    List<FollowUser> loadAllFollow();
+
+    /**
+     * 获取关注列表（不可变的行模型），排序与 {@link #getAllFollow()} 一致
+     * @return 列表行模型（LiveData）
+     */
+    @Query(ALL_ROWS_QUERY)
+    LiveData<List<FollowRow>> getAllFollowRows();
+
+    /**
+     * 同步获取关注列表行模型（与 {@link #getAllFollowRows()} 相同的语句），需在后台线程调用
+     * @return 列表行模型
+     */
+    @Query(ALL_ROWS_QUERY)
+    List<FollowRow> loadAllFollowRows();
+
+    // ==================== 全文搜索 ====================
+    // 在 follow_fts 上做前缀匹配，按 docid（即 uid）倒序取前几条：
+    // FTS4 可以直接按 docid 倒序遍历匹配结果，取够条数即停止，不需要对全部匹配行排序
+
+    /**
+     * 搜索关注用户（昵称、备注、抖音号）
+     * @param match MATCH 表达式，由 {@link FollowFts#matchQuery(String)} 生成
+     * @param limit 最多返回条数
+     * @return 列表行模型，uid 倒序
+     */
+    @Query("SELECT follow.uid, follow.douyinId, follow.nick, follow.remark, follow.avatar,"
+            + " follow.isSpecial, follow.followTime, follow.status"
+            + " FROM follow_fts JOIN follow ON follow.uid = follow_fts.docid"
+            + " WHERE follow_fts MATCH :match ORDER BY follow_fts.docid DESC LIMIT :limit")
+    List<FollowRow> searchFollowRows(String match, int limit);
+
+    // ==================== 拼音搜索 ====================
+    // follow_pinyin 的全拼和首字母列各有索引，前缀匹配写成 [lower, upper) 范围查询。
+    // 两列分别查询、各按自己的索引顺序取前 limit 行，SQLite 找到 limit 行即可停止，
+    // 不需要收集全部命中再排序；一两个字母的首字母前缀命中大量行时查询代价也不变
+
+    /**
+     * 按全拼前缀查找（按全拼顺序）
+     */
+    @Query("SELECT uid FROM follow_pinyin WHERE pinyin >= :lower AND pinyin < :upper ORDER BY pinyin LIMIT :limit")
+    List<Long> searchPinyinFullUids(String lower, String upper, int limit);
+
+    /**
+     * 按首字母前缀查找（按首字母顺序）
+     */
+    @Query("SELECT uid FROM follow_pinyin WHERE initials >= :lower AND initials < :upper ORDER BY initials LIMIT :limit")
+    List<Long> searchPinyinInitialsUids(String lower, String upper, int limit);
+
+    /**
+     * 按全拼或首字母前缀查找用户：先取全拼命中，不足 limit 条时用首字母命中补齐，去重
+     * @param lower 前缀（含）
+     * @param upper 前缀上界（不含），见 PinyinConverter.upperBound
+     * @param limit 最多返回条数
+     * @return uid 列表，全拼命中在前，各自按拼音顺序
+     */
+    default List<Long> searchPinyinUids(String lower, String upper, int limit) {
+        Set<Long> uids = new LinkedHashSet<>(searchPinyinFullUids(lower, upper, limit));
+        if (uids.size() < limit) {
+            for (Long uid : searchPinyinInitialsUids(lower, upper, limit)) {
+                if (uids.size() == limit) {
+                    break;
+                }
+                uids.add(uid);
+            }
+        }
+        return new ArrayList<>(uids);
+    }
+
+    /**
+     * 按 uid 批量读取列表行
+     * @param uids uid 列表（不超过 SQLite 变量上限）
+     * @return 列表行模型，uid 倒序
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE uid IN (:uids) ORDER BY uid DESC")
+    List<FollowRow> getFollowRowsByUids(List<Long> uids);
+
+    /**
+     * 写入一个用户的拼音索引行（替换同一来源的旧行）
+     * @param rows 拼音索引行
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertPinyin(List<FollowPinyin> rows);
+
+    /**
+     * 删除一个用户的拼音索引行
+     * @param uid 内部用户ID
+     */
+    @Query("DELETE FROM follow_pinyin WHERE uid = :uid")
+    void deletePinyin(long uid);
+
+    /**
+     * 查询尚未建立拼音索引的用户（每个用户至少有一行昵称拼音）
+     * @param limit 最多返回条数
+     * @return 用户列表
+     */
+    @Query("SELECT * FROM follow WHERE uid NOT IN (SELECT uid FROM follow_pinyin) LIMIT :limit")
+    List<FollowUser> getUsersWithoutPinyin(int limit);
+
+    // ==================== 游标翻页 ====================
+    // 排序键为 (isSpecial DESC, followTime DESC, uid DESC)，与复合索引一致。
+    // isSpecial 只有 0/1 两个取值，先在游标所在分组内按 (followTime, uid) 做范围查询，
+    // 不足一页时再从相邻分组的开头补齐，两段查询都是索引上的范围定位。
+
+    /**
+     * 获取列表第一页
+     * @param limit 条数
+     * @return 列表行模型
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow ORDER BY isSpecial DESC, followTime DESC, uid DESC LIMIT :limit")
+    List<FollowRow> getFirstFollowPage(int limit);
+
+    /**
+     * 同一分组内，排在游标之后的行
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE isSpecial = :isSpecial"
+            + " AND followTime <= :followTime AND (followTime < :followTime OR uid < :uid)"
+            + " ORDER BY followTime DESC, uid DESC LIMIT :limit")
+    List<FollowRow> getGroupPageAfter(boolean isSpecial, long followTime, long uid, int limit);
+
+    /**
+     * 排在某分组之后的分组（从开头取）
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE isSpecial < :isSpecial"
+            + " ORDER BY isSpecial DESC, followTime DESC, uid DESC LIMIT :limit")
+    List<FollowRow> getPageBelowGroup(boolean isSpecial, int limit);
+
+    /**
+     * 同一分组内，排在游标之前的行（按倒序返回，离游标最近的在前）
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE isSpecial = :isSpecial"
+            + " AND followTime >= :followTime AND (followTime > :followTime OR uid > :uid)"
+            + " ORDER BY followTime ASC, uid ASC LIMIT :limit")
+    List<FollowRow> getGroupPageBefore(boolean isSpecial, long followTime, long uid, int limit);
+
+    /**
+     * 排在某分组之前的分组（从末尾倒序取）
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE isSpecial > :isSpecial"
+            + " ORDER BY isSpecial ASC, followTime ASC, uid ASC LIMIT :limit")
+    List<FollowRow> getPageAboveGroup(boolean isSpecial, int limit);
+
+    /**
+     * 统计排在游标之前（含游标所在行）的行数，用于计算分页占位符数量
+     */
+    @Query("SELECT COUNT(*) FROM follow WHERE isSpecial > :isSpecial"
+            + " OR (isSpecial = :isSpecial AND (followTime > :followTime"
+            + " OR (followTime = :followTime AND uid >= :uid)))")
+    int countFollowUpTo(boolean isSpecial, long followTime, long uid);
+
+    /**
+     * 获取表中总行数（包含已取消关注的行，与列表条数一致），读取触发器维护的计数
+     */
+    @Query("SELECT totalCount FROM follow_stats WHERE id = " + FollowStats.ROW_ID)
+    int getTotalCount();
+
+    /**
+     * 获取排在游标之后的一页
+     * @param key 游标，为 null 时从第一行开始
+     * @param limit 条数
+     * @return 按列表顺序排列的行模型
+     */
+    @Transaction
+    default List<FollowRow> getFollowPageAfter(@Nullable FollowPageKey key, int limit) {
+        if (key == null) {
+            return getFirstFollowPage(limit);
+        }
+        List<FollowRow> page = new ArrayList<>(
+                getGroupPageAfter(key.isSpecial, key.followTime, key.uid, limit));
+        if (page.size() < limit && key.isSpecial) {
+            page.addAll(getPageBelowGroup(true, limit - page.size()));
+        }
+        return page;
+    }
+
+    /**
+     * 获取排在游标之前的一页
+     * @param key 游标
+     * @param limit 条数
+     * @return 按列表顺序排列的行模型
+     */
+    @Transaction
+    default List<FollowRow> getFollowPageBefore(FollowPageKey key, int limit) {
+        List<FollowRow> page = new ArrayList<>(
+                getGroupPageBefore(key.isSpecial, key.followTime, key.uid, limit));
+        if (page.size() < limit && !key.isSpecial) {
+            page.addAll(getPageAboveGroup(false, limit - page.size()));
+        }
+        Collections.reverse(page);
+        return page;
+    }
+
     /**
      * 获取有效关注用户数量
+     * 只在关注状态变化（或增删行）时重新查询，修改备注等写入不会触发
      * @return 关注用户数（LiveData）
      */
-    @Query("SELECT COUNT(*) FROM follow WHERE status = 1")
+    @Query(FOLLOW_COUNT_QUERY)
     LiveData<Integer> getFollowCount();
 
+    /**
+     * 同步获取有效关注用户数量（与 {@link #getFollowCount()} 相同的语句）
+     * @return 关注用户数
+     */
+    @Query(FOLLOW_COUNT_QUERY)
+    int countFollow();
+
+    /**
+     * 获取所有已取消关注用户的 uid
+     * @return uid 列表
+     */
+    @Query("SELECT uid FROM follow WHERE status = 0")
+    List<Long> getUnfollowedUids();
+
     /**
      * 删除已取消关注的用户
      */
@@ -73,6 +314,134 @@ public interface FollowDao {
     @Query("UPDATE follow SET status = 0 WHERE uid = :uid")
     void unfollow(long uid);
 
+    // ==================== 批量操作 ====================
+    // 多选操作和导入按 uid / 抖音号成批写入，每批一条 IN 语句或一次多行插入；
+    // IN 列表的参数个数受 SQLite 变量上限约束（旧版本为 999），调用方按 MAX_BATCH_PARAMS 分块
+
+    /**
+     * 一条语句中 IN 列表的最大参数个数
+     */
+    int MAX_BATCH_PARAMS = 500;
+
+    /**
+     * 批量取消关注（已取消的行不重复写入）
+     * @param uids uid 列表（不超过 {@link #MAX_BATCH_PARAMS}）
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET status = 0 WHERE uid IN (:uids) AND status != 0")
+    int unfollowByUids(List<Long> uids);
+
+    /**
+     * 批量设置特别关注状态（状态相同的行不重复写入）
+     * @param uids uid 列表（不超过 {@link #MAX_BATCH_PARAMS}）
+     * @param special 是否特别关注
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET isSpecial = :special WHERE uid IN (:uids) AND isSpecial != :special")
+    int setSpecialByUids(List<Long> uids, boolean special);
+
+    /**
+     * 按 uid 批量读取完整实体
+     * @param uids uid 列表（不超过 {@link #MAX_BATCH_PARAMS}）
+     * @return 用户列表
+     */
+    @Query("SELECT * FROM follow WHERE uid IN (:uids)")
+    List<FollowUser> getUsersByUids(List<Long> uids);
+
+    /**
+     * 批量插入用户，抖音号已存在的行跳过
+     * @param users 用户列表（uid 为 0，由数据库分配）
+     * @return 与参数一一对应的 uid，跳过的行为 -1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAllIgnoringExisting(List<FollowUser> users);
+
+    /**
+     * 用导入数据更新已存在的用户：导入数据中有的资料和关注时间以导入数据为准（缺少的保留原值），并恢复为已关注；
+     * 特别关注和备注是本地设置，保持不变
+     * @param douyinId 抖音号
+     * @param nick 昵称，null 表示导入数据中没有
+     * @param avatar 头像，null 表示导入数据中没有
+     * @param followTime 关注时间，null 表示导入数据中没有
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET nick = COALESCE(:nick, nick), avatar = COALESCE(:avatar, avatar),"
+            + " followTime = COALESCE(:followTime, followTime), status = 1"
+            + " WHERE douyinId = :douyinId")
+    int updateImported(String douyinId, @Nullable String nick, @Nullable String avatar, @Nullable Long followTime);
+
+    // ==================== 快照 ====================
+    // 导出按 uid 分批读取原始游标，不为每行创建实体；恢复时清空后按原 uid 批量插入，
+    // FTS、计数和拼音索引的删除由触发器同步
+
+    /**
+     * 按 uid 顺序读取排在某个 uid 之后的一批行（游标由调用方关闭）
+     * @param afterUid 上一批最后一行的 uid，第一批为 0
+     * @param limit 条数
+     * @return 游标，列为 {@link #ROW_COLUMNS}
+     */
+    @Query("SELECT " + ROW_COLUMNS + " FROM follow WHERE uid > :afterUid ORDER BY uid LIMIT :limit")
+    Cursor queryRowsAfterUid(long afterUid, int limit);
+
+    /**
+     * 删除所有用户
+     */
+    @Query("DELETE FROM follow")
+    void deleteAll();
+
+    /**
+     * 按给定的 uid 批量插入用户
+     * @param users 用户列表
+     */
+    @Insert(onConflict = OnConflictStrategy.ABORT)
+    void insertAll(List<FollowUser> users);
+
+    // ==================== 单语句原子操作（通过抖音号） ====================
+    // 直接在一条 UPDATE 中完成读-改-写，不需要先查出整行，
+    // 多线程写入时也不会出现丢失更新。返回受影响行数，0 表示用户不存在
+
+    /**
+     * 切换特别关注状态
+     * @param douyinId 抖音号
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET isSpecial = NOT isSpecial WHERE douyinId = :douyinId")
+    int toggleSpecialByDouyinId(String douyinId);
+
+    /**
+     * 切换关注状态（已关注 -> 已取消，已取消 -> 已关注）
+     * @param douyinId 抖音号
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET status = CASE status WHEN 1 THEN 0 ELSE 1 END WHERE douyinId = :douyinId")
+    int toggleFollowByDouyinId(String douyinId);
+
+    /**
+     * 设置关注状态
+     * @param douyinId 抖音号
+     * @param status 1 = 已关注，0 = 已取消
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET status = :status WHERE douyinId = :douyinId")
+    int setStatusByDouyinId(String douyinId, int status);
+
+    /**
+     * 取消关注
+     * @param douyinId 抖音号
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET status = 0 WHERE douyinId = :douyinId")
+    int unfollowByDouyinId(String douyinId);
+
+    /**
+     * 设置备注
+     * @param douyinId 抖音号
+     * @param remark 备注内容
+     * @return 受影响行数
+     */
+    @Query("UPDATE follow SET remark = :remark WHERE douyinId = :douyinId")
+    int setRemarkByDouyinId(String douyinId, String remark);
+
     /**
      * 根据抖音号查询用户
      * @param douyinId 抖音号
@@ -81,6 +450,22 @@ public interface FollowDao {
     @Query("SELECT * FROM follow WHERE douyinId = :douyinId")
     FollowUser getUserByDouyinId(String douyinId);
 
+    /**
+     * 根据 uid 查询用户
+     * @param uid 内部用户ID
+     * @return 用户对象
+     */
+    @Query("SELECT * FROM follow WHERE uid = :uid")
+    FollowUser getUserByUid(long uid);
+
+    /**
+     * 根据一组抖音号批量查询用户
+     * @param douyinIds 抖音号列表（不超过 SQLite 变量上限）
+     * @return 用户列表
+     */
+    @Query("SELECT * FROM follow WHERE douyinId IN (:douyinIds)")
+    List<FollowUser> getUsersByDouyinIds(List<String> douyinIds);
+
     /**
      * 根据抖音号查询用户（LiveData）
      * @param douyinId 抖音号
@@ -0,0 +1,62 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 关注用户全文索引
+ * 对应 FTS4 虚拟表 "follow_fts"，以 follow 表为外部内容表（只存索引，不重复存数据），
+ * 由 Room 生成的触发器随 follow 表的增删改同步。
+ * 使用 unicode61 分词（大小写不敏感），并为 2、3 字符前缀建立前缀索引，边输入边搜索时前缀查询不需要展开大量词项
+ */
+@Fts4(contentEntity = FollowUser.class,
+        tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        prefix = {2, 3})
+@Entity(tableName = "follow_fts")
+public class FollowFts {
+
+    public String nick;
+
+    public String remark;
+
+    public String douyinId;
+
+    /**
+     * 按 follow 表重建全文索引
+     * 预置数据库中的行早于同步触发器存在，建表和迁移后都需要重建一次
+     * @param db 数据库
+     */
+    static void rebuild(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO `follow_fts`(`follow_fts`) VALUES('rebuild')");
+    }
+
+    /**
+     * 把用户输入转换成 MATCH 前缀查询
+     * 按空白拆分成多个词，每个词作为带前缀通配的短语（"词*"），多个词之间为 AND；
+     * 去掉双引号，其余符号由分词器按分隔符处理，不会被当作查询语法
+     * @param input 用户输入
+     * @return MATCH 表达式，输入为空白时返回 null
+     */
+    @Nullable
+    public static String matchQuery(@Nullable String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String term : input.trim().split("\\s+")) {
+            String cleaned = term.replace("\"", "");
+            if (cleaned.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append('"').append(cleaned).append("*\"");
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+}
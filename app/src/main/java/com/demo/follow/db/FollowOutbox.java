@@ -0,0 +1,86 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 待同步的本地修改（发件箱）实体类
+ * 对应数据库中的 "follow_outbox" 表，每个用户的每个字段最多一行：
+ * 同一字段的多次修改在写入时合并（按 (douyinId, field) 唯一索引替换），只上传最后的值。
+ * 与修改本身在同一事务中写入，进程被杀也不会丢失；上传成功或被服务端拒绝后删除
+ */
+@Entity(tableName = "follow_outbox", indices = {
+        @Index(value = {"douyinId", "field"}, unique = true)
+})
+public class FollowOutbox {
+
+    /**
+     * 字段：特别关注，值为 "1" / "0"
+     */
+    public static final int FIELD_SPECIAL = 1;
+
+    /**
+     * 字段：备注，值为备注内容（可为 null）
+     */
+    public static final int FIELD_REMARK = 2;
+
+    /**
+     * 字段：关注状态，值为 "1" / "0"
+     */
+    public static final int FIELD_STATUS = 3;
+
+    /**
+     * 自增ID，替换后变化；上传完成时按 ID 删除，上传期间又被修改的行不会被误删
+     */
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @NonNull
+    public String douyinId;
+
+    /**
+     * 字段（FIELD_*）
+     */
+    public int field;
+
+    /**
+     * 修改后的值
+     */
+    @Nullable
+    public String value;
+
+    /**
+     * 修改时间（本地时钟，毫秒），服务端按字段比较修改时间解决冲突
+     */
+    public long changedAt;
+
+    /**
+     * 已尝试上传的次数
+     */
+    public int attempts;
+
+    public FollowOutbox() {
+        douyinId = "";
+    }
+
+    /**
+     * 创建一条待上传的修改
+     * @param douyinId 抖音号
+     * @param field 字段（FIELD_*）
+     * @param value 修改后的值
+     * @param changedAt 修改时间
+     * @return 实体（id 由数据库分配）
+     */
+    @NonNull
+    public static FollowOutbox of(@NonNull String douyinId, int field, @Nullable String value, long changedAt) {
+        FollowOutbox entry = new FollowOutbox();
+        entry.douyinId = douyinId;
+        entry.field = field;
+        entry.value = value;
+        entry.changedAt = changedAt;
+        return entry;
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 关注列表的游标（keyset）
+ * 由排序键 (isSpecial, followTime, uid) 唯一确定列表中的一个位置，
+ * 翻页时从游标处直接在索引上定位，翻到多深的位置代价都和第一页相同
+ */
+public final class FollowPageKey {
+
+    public final boolean isSpecial;
+    public final long followTime;
+    public final long uid;
+
+    public FollowPageKey(boolean isSpecial, long followTime, long uid) {
+        this.isSpecial = isSpecial;
+        this.followTime = followTime;
+        this.uid = uid;
+    }
+
+    /**
+     * 以某一行的位置作为游标
+     * @param row 列表中的一行
+     * @return 该行对应的游标
+     */
+    @NonNull
+    public static FollowPageKey of(@NonNull FollowRow row) {
+        return new FollowPageKey(row.isSpecial, row.followTime, row.uid);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FollowPageKey)) {
+            return false;
+        }
+        FollowPageKey other = (FollowPageKey) o;
+        return isSpecial == other.isSpecial
+                && followTime == other.followTime
+                && uid == other.uid;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = isSpecial ? 1 : 0;
+        result = 31 * result + Long.hashCode(followTime);
+        result = 31 * result + Long.hashCode(uid);
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "FollowPageKey(" + isSpecial + ", " + followTime + ", " + uid + ")";
+    }
+}
@@ -0,0 +1,69 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 拼音搜索索引实体类
+ * 对应数据库中的 "follow_pinyin" 表，每个用户的昵称和备注各一行，保存全拼和首字母
+ * 两列都建有索引，前缀查询转换成索引上的范围查询，不随行数线性增长
+ * 由仓库的写入路径增量维护；follow 表删除行时由触发器同步删除
+ */
+@Entity(tableName = "follow_pinyin",
+        primaryKeys = {"uid", "source"},
+        indices = {
+                @Index(value = {"pinyin"}),
+                @Index(value = {"initials"})
+        })
+public class FollowPinyin {
+
+    /**
+     * 拼音来源：昵称
+     */
+    public static final int SOURCE_NICK = 0;
+
+    /**
+     * 拼音来源：备注
+     */
+    public static final int SOURCE_REMARK = 1;
+
+    /**
+     * 对应 follow 表的 uid
+     */
+    public long uid;
+
+    /**
+     * 拼音来源（SOURCE_NICK / SOURCE_REMARK）
+     */
+    public int source;
+
+    /**
+     * 全拼
+     */
+    @NonNull
+    public String pinyin;
+
+    /**
+     * 首字母
+     */
+    @NonNull
+    public String initials;
+
+    public FollowPinyin(long uid, int source, @NonNull String pinyin, @NonNull String initials) {
+        this.uid = uid;
+        this.source = source;
+        this.pinyin = pinyin;
+        this.initials = initials;
+    }
+
+    /**
+     * 创建删除同步触发器，在建表和迁移时调用，可重复执行
+     * @param db 数据库
+     */
+    static void install(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `follow_pinyin_after_delete` AFTER DELETE ON `follow`"
+                + " BEGIN DELETE FROM `follow_pinyin` WHERE `uid` = OLD.`uid`; END");
+    }
+}
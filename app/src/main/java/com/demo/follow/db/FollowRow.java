@@ -0,0 +1,122 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Ignore;
+
+import java.util.Comparator;
+
+/**
+ * 关注列表行模型（不可变）
+ * 包含 follow 表的全部列，可以还原为完整实体；字段均为 final，不实现 Parcelable；
+ * 显示名称在构造时计算一次，Room 在查询线程上创建对象，因此不占用主线程
+ */
+public final class FollowRow {
+
+    /**
+     * 未设置备注时输入框中可能残留的提示文字，不作为备注显示
+     */
+    private static final String REMARK_HINT = "设置备注";
+    private static final String REMARK_INPUT_HINT = "请输入备注";
+
+    /**
+     * 列表排序，与 {@link FollowDao#ALL_ROWS_QUERY} 的 ORDER BY 一致：
+     * 特别关注在前，同组内按关注时间倒序，再按 uid 倒序
+     */
+    public static final Comparator<FollowRow> LIST_ORDER = (a, b) -> {
+        if (a.isSpecial != b.isSpecial) {
+            return a.isSpecial ? -1 : 1;
+        }
+        if (a.followTime != b.followTime) {
+            return Long.compare(b.followTime, a.followTime);
+        }
+        return Long.compare(b.uid, a.uid);
+    };
+
+    public final long uid;
+
+    @NonNull
+    public final String douyinId;
+
+    public final String nick;
+
+    @Nullable
+    public final String remark;
+
+    public final String avatar;
+
+    public final boolean isSpecial;
+
+    public final long followTime;
+
+    public final int status;
+
+    /**
+     * 显示名称（备注优先，否则为昵称）
+     */
+    @Ignore
+    public final String displayName;
+
+    public FollowRow(long uid, @NonNull String douyinId, String nick, @Nullable String remark,
+                     String avatar, boolean isSpecial, long followTime, int status) {
+        this.uid = uid;
+        this.douyinId = douyinId;
+        this.nick = nick;
+        this.remark = remark;
+        this.avatar = avatar;
+        this.isSpecial = isSpecial;
+        this.followTime = followTime;
+        this.status = status;
+        this.displayName = displayName(nick, remark);
+    }
+
+    /**
+     * 由完整实体生成行模型
+     * @param user 关注用户实体
+     * @return 行模型
+     */
+    @NonNull
+    public static FollowRow from(@NonNull FollowUser user) {
+        return new FollowRow(user.uid, user.douyinId, user.nick, user.remark,
+                user.avatar, user.isSpecial, user.followTime, user.status);
+    }
+
+    /**
+     * 转换为完整实体（列表行包含实体的全部列）
+     * @return 新的实体对象
+     */
+    @NonNull
+    public FollowUser toUser() {
+        FollowUser user = new FollowUser();
+        user.uid = uid;
+        user.douyinId = douyinId;
+        user.nick = nick;
+        user.remark = remark;
+        user.avatar = avatar;
+        user.isSpecial = isSpecial;
+        user.followTime = followTime;
+        user.status = status;
+        return user;
+    }
+
+    /**
+     * 是否设置了有效备注（排除空串和提示文字）
+     * @param remark 备注内容
+     * @return 有效备注返回 true
+     */
+    public static boolean hasRemark(@Nullable String remark) {
+        return remark != null && !remark.isEmpty()
+                && !REMARK_HINT.equals(remark)
+                && !REMARK_INPUT_HINT.equals(remark);
+    }
+
+    /**
+     * 计算显示名称（优先使用备注）
+     * @param nick 昵称
+     * @param remark 备注
+     * @return 显示名称
+     */
+    public static String displayName(String nick, @Nullable String remark) {
+        return hasRemark(remark) ? remark : nick;
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.follow.db;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 关注统计实体类
+ * 对应数据库中的 "follow_stats" 表，只有 id = 0 一行
+ * 计数由 follow 表上的触发器在同一事务内维护：插入、删除和关注状态变化时更新，
+ * 修改备注、特别关注等不改变计数的写入不会触碰这张表，
+ * 因此观察计数的查询只在计数真正变化时重新执行，且每次只读一行
+ */
+@Entity(tableName = "follow_stats")
+public class FollowStats {
+
+    /**
+     * 唯一一行的主键
+     */
+    public static final int ROW_ID = 0;
+
+    @PrimaryKey
+    public int id;
+
+    /**
+     * 有效关注数（status = 1 的行数）
+     */
+    public int followCount;
+
+    /**
+     * follow 表总行数（含已取消关注、尚未清理的行）
+     */
+    public int totalCount;
+
+    /**
+     * 创建维护计数的触发器，并按当前 follow 表重新计算计数
+     * 在建表（首次从预置文件创建）和迁移时调用，可重复执行
+     * @param db 数据库
+     */
+    static void install(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `follow_stats_after_insert` AFTER INSERT ON `follow`"
+                + " BEGIN UPDATE `follow_stats`"
+                + " SET `totalCount` = `totalCount` + 1,"
+                + " `followCount` = `followCount` + (NEW.`status` = 1)"
+                + " WHERE `id` = " + ROW_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `follow_stats_after_delete` AFTER DELETE ON `follow`"
+                + " BEGIN UPDATE `follow_stats`"
+                + " SET `totalCount` = `totalCount` - 1,"
+                + " `followCount` = `followCount` - (OLD.`status` = 1)"
+                + " WHERE `id` = " + ROW_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `follow_stats_after_status_update`"
+                + " AFTER UPDATE OF `status` ON `follow`"
+                + " WHEN (OLD.`status` = 1) != (NEW.`status` = 1)"
+                + " BEGIN UPDATE `follow_stats`"
+                + " SET `followCount` = `followCount` + (NEW.`status` = 1) - (OLD.`status` = 1)"
+                + " WHERE `id` = " + ROW_ID + "; END");
+        db.execSQL("INSERT OR REPLACE INTO `follow_stats` (`id`, `followCount`, `totalCount`)"
+                + " SELECT " + ROW_ID + ", COUNT(CASE WHEN `status` = 1 THEN 1 END), COUNT(*)"
+                + " FROM `follow`");
+    }
+}
@@ -14,8 +14,13 @@ import androidx.room.PrimaryKey;
  * 对应数据库中的 "follow" 表
  * uid: 内部自增主键
  * douyinId: 抖音号，唯一标识
+ * 复合索引 (isSpecial, followTime, uid, status) 与列表排序一致，
+ * 排序和游标翻页都直接走索引，不再全表扫描 + 临时 B 树排序
  */
-@Entity(tableName = "follow", indices = {@Index(value = {"douyinId"}, unique = true)})
+@Entity(tableName = "follow", indices = {
+        @Index(value = {"douyinId"}, unique = true),
+        @Index(value = {"isSpecial", "followTime", "uid", "status"})
+})
 public class FollowUser implements Parcelable {
 
     /**
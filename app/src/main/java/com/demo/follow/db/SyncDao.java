@@ -0,0 +1,125 @@
+package com.demo.follow.db;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 同步数据访问对象
+ * 发件箱（本地待上传的修改）、同步游标，以及应用服务端数据时按字段写入 follow 表的语句
+ */
+@Dao
+public interface SyncDao {
+
+    // ==================== 发件箱 ====================
+
+    /**
+     * 记录本地修改，同一用户同一字段的旧记录被替换
+     * @param entries 修改
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertOutbox(List<FollowOutbox> entries);
+
+    /**
+     * 按写入顺序读取一批待上传的修改
+     * @param limit 条数
+     * @return 修改列表
+     */
+    @Query("SELECT * FROM follow_outbox ORDER BY id LIMIT :limit")
+    List<FollowOutbox> loadOutbox(int limit);
+
+    /**
+     * 查询一组用户的待上传修改（应用服务端数据时，这些字段以本地为准）
+     * @param douyinIds 抖音号列表（不超过 {@link FollowDao#MAX_BATCH_PARAMS}）
+     * @return 修改列表
+     */
+    @Query("SELECT * FROM follow_outbox WHERE douyinId IN (:douyinIds)")
+    List<FollowOutbox> getOutboxFor(List<String> douyinIds);
+
+    /**
+     * 查询一条修改是否仍在发件箱中（上传期间同一字段又被修改时，旧行已被替换）
+     * @param id 修改 ID
+     * @return 存在返回 1，否则 0
+     */
+    @Query("SELECT COUNT(*) FROM follow_outbox WHERE id = :id")
+    int hasOutbox(long id);
+
+    /**
+     * 删除已上传（或被拒绝）的修改；上传期间被替换的行 ID 已变化，不会被删除
+     * @param ids ID 列表（不超过 {@link FollowDao#MAX_BATCH_PARAMS}）
+     */
+    @Query("DELETE FROM follow_outbox WHERE id IN (:ids)")
+    void deleteOutbox(List<Long> ids);
+
+    /**
+     * 记录一次失败的上传尝试
+     * @param ids ID 列表（不超过 {@link FollowDao#MAX_BATCH_PARAMS}）
+     */
+    @Query("UPDATE follow_outbox SET attempts = attempts + 1 WHERE id IN (:ids)")
+    void incrementAttempts(List<Long> ids);
+
+    /**
+     * 删除尝试次数达到上限的修改
+     * @param ids ID 列表（不超过 {@link FollowDao#MAX_BATCH_PARAMS}）
+     * @param maxAttempts 尝试次数上限
+     * @return 删除的行数
+     */
+    @Query("DELETE FROM follow_outbox WHERE id IN (:ids) AND attempts >= :maxAttempts")
+    int deleteExhausted(List<Long> ids, int maxAttempts);
+
+    /**
+     * 待上传的修改数
+     * @return 行数
+     */
+    @Query("SELECT COUNT(*) FROM follow_outbox")
+    int countOutbox();
+
+    // ==================== 游标 ====================
+
+    /**
+     * 读取同步游标
+     * @return 游标，从未同步时为 null
+     */
+    @Query("SELECT cursor FROM sync_state WHERE id = " + SyncState.ROW_ID)
+    Long getCursor();
+
+    /**
+     * 保存同步游标
+     * @param state 状态（id 为 {@link SyncState#ROW_ID}）
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveState(SyncState state);
+
+    @Query("DELETE FROM follow_outbox")
+    void clearOutbox();
+
+    @Query("DELETE FROM sync_state")
+    void clearState();
+
+    /**
+     * 丢弃发件箱并把游标退回 0：本地数据被整体替换（恢复快照）后，
+     * 旧的待上传修改和游标都不再对应当前数据，下次同步从头拉取
+     * 需在替换数据的事务中调用
+     */
+    default void resetSync() {
+        clearOutbox();
+        clearState();
+    }
+
+    // ==================== 应用服务端数据 ====================
+
+    /**
+     * 更新资料字段（服务端为准）
+     */
+    @Query("UPDATE follow SET nick = :nick, avatar = :avatar, followTime = :followTime WHERE douyinId = :douyinId")
+    int updateProfile(String douyinId, String nick, String avatar, long followTime);
+
+    /**
+     * 设置特别关注状态
+     */
+    @Query("UPDATE follow SET isSpecial = :special WHERE douyinId = :douyinId")
+    int setSpecialByDouyinId(String douyinId, boolean special);
+}
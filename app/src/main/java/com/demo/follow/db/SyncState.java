@@ -0,0 +1,26 @@
+package com.demo.follow.db;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 同步状态实体类
+ * 对应数据库中的 "sync_state" 表，只有 id = 0 一行，记录已拉取到的服务端版本号（增量拉取的游标）；
+ * 与拉取到的数据在同一事务中写入，游标总是与本地数据一致
+ */
+@Entity(tableName = "sync_state")
+public class SyncState {
+
+    /**
+     * 唯一一行的主键
+     */
+    public static final int ROW_ID = 0;
+
+    @PrimaryKey
+    public int id;
+
+    /**
+     * 已拉取到的服务端版本号，0 表示从未同步
+     */
+    public long cursor;
+}
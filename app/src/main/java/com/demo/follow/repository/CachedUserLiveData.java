@@ -0,0 +1,118 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import com.demo.follow.db.FollowUser;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 单个用户的 LiveData
+ * 激活时优先从 FollowUserCache 取值，其次使用调用方给出的已加载数据（列表快照），都没有才在后台查询数据库；
+ * 之后按 uid 在 {@link FollowInvalidationBus} 上监听该用户所在的行，只在这一行失效时更新（先取缓存，未命中再读库），
+ * 不随 follow 表的每次写入重新查询；用户不存在时没有可监听的行，只在重新激活时读库
+ */
+class CachedUserLiveData extends LiveData<FollowUser> {
+
+    /**
+     * 缓存未命中时的加载方法（在后台线程调用，负责回填缓存）
+     */
+    interface Loader {
+        FollowUser load(String douyinId);
+    }
+
+    private static final long NO_UID = -1;
+
+    private final String douyinId;
+    @Nullable
+    private final FollowUser loaded;
+    private final FollowUserCache cache;
+    private final FollowInvalidationBus bus;
+    private final Executor executor;
+    private final Loader loader;
+
+    private final FollowInvalidationBus.RowListener listener = this::onRowInvalidated;
+
+    /**
+     * 正在监听的行（只在主线程访问）
+     */
+    private long watchedUid = NO_UID;
+
+    /**
+     * 列表快照是否已经用过
+     */
+    private boolean seeded;
+
+    CachedUserLiveData(@NonNull String douyinId, @Nullable FollowUser loaded, @NonNull FollowUserCache cache,
+                       @NonNull FollowInvalidationBus bus, @NonNull Executor executor,
+                       @NonNull Loader loader) {
+        this.douyinId = douyinId;
+        this.loaded = loaded;
+        this.cache = cache;
+        this.bus = bus;
+        this.executor = executor;
+        this.loader = loader;
+    }
+
+    @Override
+    protected void onActive() {
+        FollowUser cached = cache.getByDouyinId(douyinId);
+        if (cached != null) {
+            setValue(cached);
+        } else if (loaded != null && !seeded) {
+            // 首次激活直接使用列表快照；之后重新激活时期间的变更可能已错过，仍然读库
+            seeded = true;
+            setValue(loaded);
+        } else {
+            watch(getValue());
+            reload();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        watch(null);
+    }
+
+    @Override
+    protected void setValue(FollowUser value) {
+        super.setValue(value);
+        if (hasActiveObservers()) {
+            watch(value);
+        }
+    }
+
+    /**
+     * 切换监听的行（用户的 uid 在拿到数据后才知道）
+     */
+    private void watch(@Nullable FollowUser user) {
+        long uid = user == null ? NO_UID : user.uid;
+        if (uid == watchedUid) {
+            return;
+        }
+        if (watchedUid != NO_UID) {
+            bus.removeRowListener(watchedUid, listener);
+        }
+        watchedUid = uid;
+        if (uid != NO_UID) {
+            bus.addRowListener(uid, listener);
+        }
+    }
+
+    private void reload() {
+        executor.execute(() -> postValue(loader.load(douyinId)));
+    }
+
+    /**
+     * 行失效：写入方已经在发出通知前更新了缓存，命中时直接使用；未命中（行被删除或缓存被清空）时读库
+     */
+    private void onRowInvalidated(long uid) {
+        FollowUser cached = cache.getByDouyinId(douyinId);
+        if (cached != null) {
+            setValue(cached);
+        } else {
+            reload();
+        }
+    }
+}
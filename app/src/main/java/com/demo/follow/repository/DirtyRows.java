@@ -0,0 +1,90 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 一次失效通知涉及的行
+ * 要么是一组 uid（已排序、去重），要么是“全部行”（变更无法逐行描述，例如批量清理）
+ */
+public final class DirtyRows {
+
+    private static final DirtyRows ALL = new DirtyRows(new long[0], true);
+
+    private final long[] uids;
+    private final boolean all;
+
+    private DirtyRows(long[] uids, boolean all) {
+        this.uids = uids;
+        this.all = all;
+    }
+
+    /**
+     * 全部行失效
+     * @return 实例
+     */
+    @NonNull
+    public static DirtyRows all() {
+        return ALL;
+    }
+
+    /**
+     * 一组行失效
+     * @param uids uid 数组（可以有重复，会被排序，调用后不应再修改）
+     * @param size 有效长度
+     * @return 实例
+     */
+    @NonNull
+    static DirtyRows of(@NonNull long[] uids, int size) {
+        long[] sorted = Arrays.copyOf(uids, size);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return new DirtyRows(unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique), false);
+    }
+
+    /**
+     * 是否全部行失效（此时 {@link #uids()} 为空）
+     * @return 全部失效返回 true
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * 行是否失效
+     * @param uid 行 uid
+     * @return 失效返回 true
+     */
+    public boolean contains(long uid) {
+        return all || Arrays.binarySearch(uids, uid) >= 0;
+    }
+
+    /**
+     * 失效的 uid（升序），全部失效时为空
+     * @return uid 数组的副本
+     */
+    @NonNull
+    public long[] uids() {
+        return uids.clone();
+    }
+
+    /**
+     * 失效的行数，全部失效时为 0
+     * @return 行数
+     */
+    public int size() {
+        return uids.length;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return all ? "DirtyRows{all}" : "DirtyRows" + Arrays.toString(uids);
+    }
+}
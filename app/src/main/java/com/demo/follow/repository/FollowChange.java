@@ -0,0 +1,67 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.demo.follow.db.FollowUser;
+
+/**
+ * 单行变更事件
+ * 由 FollowRepository 在写入完成后发出，列表可以直接据此局部刷新，无需全量比对
+ */
+public final class FollowChange {
+
+    /**
+     * 变更类型
+     */
+    public enum Type {
+        /** 新增一行 */
+        INSERT,
+        /** 内容变化，排序位置不变 */
+        UPDATE,
+        /** 排序键变化（如特别关注），行需要移动 */
+        MOVE,
+        /** 删除一行 */
+        REMOVE,
+        /** 变更过多或无法逐行描述，需要全量刷新 */
+        RESET
+    }
+
+    public final Type type;
+
+    /**
+     * 变更行的 uid（RESET 时无意义）
+     */
+    public final long uid;
+
+    /**
+     * 变更后的行数据（REMOVE / RESET 时为 null）
+     */
+    @Nullable
+    public final FollowUser user;
+
+    private FollowChange(@NonNull Type type, long uid, @Nullable FollowUser user) {
+        this.type = type;
+        this.uid = uid;
+        this.user = user;
+    }
+
+    public static FollowChange insert(@NonNull FollowUser user) {
+        return new FollowChange(Type.INSERT, user.uid, user);
+    }
+
+    public static FollowChange update(@NonNull FollowUser user) {
+        return new FollowChange(Type.UPDATE, user.uid, user);
+    }
+
+    public static FollowChange move(@NonNull FollowUser user) {
+        return new FollowChange(Type.MOVE, user.uid, user);
+    }
+
+    public static FollowChange remove(long uid) {
+        return new FollowChange(Type.REMOVE, uid, null);
+    }
+
+    public static FollowChange reset() {
+        return new FollowChange(Type.RESET, 0, null);
+    }
+}
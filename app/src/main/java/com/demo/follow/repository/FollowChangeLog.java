@@ -0,0 +1,91 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import com.demo.follow.util.AppExecutors;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 关注数据的行级变更日志
+ * 所有 FollowRepository 实例共享同一份日志，任一页面的写入都会通知到所有监听者
+ * 事件在主线程按写入顺序分发
+ */
+public final class FollowChangeLog {
+
+    /**
+     * 变更监听接口
+     */
+    public interface Listener {
+        void onChange(@NonNull FollowChange change);
+    }
+
+    private static final FollowChangeLog INSTANCE = new FollowChangeLog();
+
+    public static FollowChangeLog getInstance() {
+        return INSTANCE;
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private FollowChangeLog() {
+        // 单例模式
+    }
+
+    /**
+     * 在生命周期内监听变更，生命周期销毁时自动移除
+     * @param owner 生命周期持有者
+     * @param listener 监听者
+     */
+    @MainThread
+    public void observe(@NonNull LifecycleOwner owner, @NonNull Listener listener) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            return;
+        }
+        listeners.add(listener);
+        owner.getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                listeners.remove(listener);
+            }
+        });
+    }
+
+    /**
+     * 注册监听者，需要调用方自行移除
+     * @param listener 监听者
+     */
+    @MainThread
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除监听者
+     * @param listener 监听者
+     */
+    @MainThread
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 发布变更（可在任意线程调用），事件会切换到主线程分发
+     * @param changes 同一次写入产生的变更
+     */
+    void publish(@NonNull List<FollowChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        AppExecutors.getInstance().mainThread().execute(() -> {
+            for (FollowChange change : changes) {
+                for (Listener listener : listeners) {
+                    listener.onChange(change);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,337 @@
+package com.demo.follow.repository;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowUser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 关注列表导入（例如从服务端导出的完整关注列表同步）
+ * 边解析边写入：每解析满 {@link #BATCH} 行写入一批，内存中最多保留一批，与文件大小无关；
+ * 全部批次在同一个事务中完成，解析失败时整体回滚，不会留下导入了一半的数据。
+ * 抖音号已存在的行更新导入数据中有的资料和关注时间（缺少的列保留原值）并恢复为已关注，特别关注和备注保留本地设置。
+ * 导入只合并行，不替换整张表，因此同步的发件箱和游标保持不变：未上传的本地修改照常上传，增量拉取从原游标继续
+ *
+ * 支持两种格式：
+ * - JSON：对象数组，例如 [{"douyinId":"a1","nick":"小明","avatar":"...","followTime":1700000000000}]
+ * - CSV：首行为列名（douyinId 必须有，其余可选），字段可以用双引号包住，引号内的 "" 表示一个双引号，不支持跨行字段
+ * 可选列：nick、avatar、followTime、isSpecial、remark（后两者只对新插入的行生效）
+ */
+public final class FollowImporter {
+
+    /**
+     * 文件格式
+     */
+    public enum Format {
+        JSON,
+        CSV
+    }
+
+    /**
+     * 打开待导入的数据（在写入线程上调用，例如 ContentResolver.openInputStream）
+     */
+    public interface Source {
+        @NonNull
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * 导入结果
+     */
+    public static final class Result {
+        /** 新插入的行数 */
+        public final int inserted;
+        /** 已存在并更新的行数 */
+        public final int updated;
+        /** 缺少抖音号而跳过的行数 */
+        public final int skipped;
+        /** 导入失败的原因，成功时为 null（失败时不写入任何数据） */
+        @Nullable
+        public final Exception error;
+
+        Result(int inserted, int updated, int skipped, @Nullable Exception error) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.skipped = skipped;
+            this.error = error;
+        }
+
+        static Result failed(@NonNull Exception error) {
+            return new Result(0, 0, 0, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Result{inserted=" + inserted + ", updated=" + updated + ", skipped=" + skipped
+                    + (error == null ? "" : ", error=" + error) + "}";
+        }
+    }
+
+    /**
+     * 每批写入的行数（不超过 {@link FollowDao#MAX_BATCH_PARAMS}，回读时作为 IN 参数）
+     */
+    static final int BATCH = FollowDao.MAX_BATCH_PARAMS;
+
+    /**
+     * 解析时表示导入数据中没有关注时间（新插入的行按 0 写入，已存在的行保留原值）
+     */
+    private static final long NO_FOLLOW_TIME = Long.MIN_VALUE;
+
+    private final AppDatabase db;
+    private final FollowDao dao;
+    private final FollowPinyinIndex pinyinIndex;
+
+    /** 当前批次，写入后清空复用 */
+    private final List<FollowUser> batch = new ArrayList<>(BATCH);
+
+    private int inserted;
+    private int updated;
+    private int skipped;
+
+    FollowImporter(@NonNull AppDatabase db) {
+        this.db = db;
+        this.dao = db.followDao();
+        this.pinyinIndex = new FollowPinyinIndex(dao);
+    }
+
+    /**
+     * 在一个事务中导入全部数据，需在写入线程调用
+     * @param in 输入（UTF-8），由调用方关闭
+     * @param format 文件格式
+     * @return 导入结果
+     * @throws IOException 读取或解析失败（事务已回滚）
+     */
+    @WorkerThread
+    @NonNull
+    Result importFrom(@NonNull InputStream in, @NonNull Format format) throws IOException {
+        inserted = 0;
+        updated = 0;
+        skipped = 0;
+        batch.clear();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            db.runInTransaction(() -> {
+                try {
+                    if (format == Format.JSON) {
+                        readJson(reader);
+                    } else {
+                        readCsv(reader);
+                    }
+                } catch (IOException e) {
+                    // 抛出异常使事务回滚，在外层还原为 IOException
+                    throw new UncheckedIOException(e);
+                }
+                flushBatch();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            batch.clear();
+        }
+        return new Result(inserted, updated, skipped, null);
+    }
+
+    // ==================== 解析 ====================
+
+    private void readJson(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            FollowUser user = new FollowUser();
+            user.followTime = NO_FOLLOW_TIME;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "douyinId":
+                        user.douyinId = reader.nextString();
+                        break;
+                    case "nick":
+                        user.nick = reader.nextString();
+                        break;
+                    case "avatar":
+                        user.avatar = reader.nextString();
+                        break;
+                    case "followTime":
+                        user.followTime = reader.nextLong();
+                        break;
+                    case "isSpecial":
+                        user.isSpecial = reader.nextBoolean();
+                        break;
+                    case "remark":
+                        user.remark = reader.nextString();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+            add(user);
+        }
+        reader.endArray();
+    }
+
+    private void readCsv(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> columns = splitCsvLine(header);
+        int douyinId = columns.indexOf("douyinId");
+        if (douyinId < 0) {
+            throw new IOException("CSV header has no douyinId column: " + header);
+        }
+        int nick = columns.indexOf("nick");
+        int avatar = columns.indexOf("avatar");
+        int followTime = columns.indexOf("followTime");
+        int isSpecial = columns.indexOf("isSpecial");
+        int remark = columns.indexOf("remark");
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            FollowUser user = new FollowUser();
+            user.followTime = NO_FOLLOW_TIME;
+            user.douyinId = field(fields, douyinId);
+            user.nick = field(fields, nick);
+            user.avatar = field(fields, avatar);
+            user.remark = field(fields, remark);
+            String special = field(fields, isSpecial);
+            user.isSpecial = "1".equals(special) || "true".equalsIgnoreCase(special);
+            String time = field(fields, followTime);
+            if (time != null) {
+                try {
+                    user.followTime = Long.parseLong(time.trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad followTime on line " + lineNumber + ": " + time, e);
+                }
+            }
+            add(user);
+        }
+    }
+
+    @Nullable
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 拆分一行 CSV（逗号分隔，双引号包住的字段中可以有逗号，"" 表示一个双引号）
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0, length = line.length(); i < length; i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ==================== 写入 ====================
+
+    private void add(FollowUser user) {
+        if (user.douyinId == null || user.douyinId.isEmpty()) {
+            skipped++;
+            return;
+        }
+        batch.add(user);
+        if (batch.size() == BATCH) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * 写入当前批次：一次多行插入，已存在的行逐行更新（同一事务内复用同一条预编译语句），
+     * 然后更新这些行的拼音索引
+     */
+    private void flushBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Long[] followTimes = new Long[batch.size()];
+        for (int i = 0; i < followTimes.length; i++) {
+            FollowUser user = batch.get(i);
+            if (user.followTime == NO_FOLLOW_TIME) {
+                user.followTime = 0;
+            } else {
+                followTimes[i] = user.followTime;
+            }
+        }
+        long[] uids = dao.insertAllIgnoringExisting(batch);
+        List<String> existing = new ArrayList<>();
+        for (int i = 0; i < uids.length; i++) {
+            FollowUser user = batch.get(i);
+            if (uids[i] >= 0) {
+                user.uid = uids[i];
+                pinyinIndex.index(user);
+                inserted++;
+            } else if (dao.updateImported(user.douyinId, user.nick, user.avatar, followTimes[i]) > 0) {
+                existing.add(user.douyinId);
+                updated++;
+            }
+        }
+        if (!existing.isEmpty()) {
+            for (FollowUser user : dao.getUsersByDouyinIds(existing)) {
+                pinyinIndex.index(user);
+            }
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,212 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import com.demo.follow.util.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 行级失效通知
+ * Room 的 InvalidationTracker 以表为单位，任何一行写入都会让所有观察 follow 表的查询重新执行；
+ * 这里由仓库的写入方法在提交后报告受影响的 uid，观察者只在自己关心的行变化时重新查询：
+ * - 单行观察者按 uid 注册，只收到该行的通知
+ * - 批量观察者收到每批失效的 uid 集合（{@link DirtyRows}）；全量列表只关心其中的“全部失效”，
+ *   单行变更由 {@link FollowChangeLog} 直接应用（见 {@link FollowRowsLiveData}）
+ * 同一帧内多次写入的失效会合并为一次分发；通知在主线程分发，晚于同一次写入的 {@link FollowChangeLog} 事件
+ */
+public final class FollowInvalidationBus {
+
+    /**
+     * 单行失效监听
+     */
+    public interface RowListener {
+        void onRowInvalidated(long uid);
+    }
+
+    /**
+     * 批量失效监听
+     */
+    public interface DirtyListener {
+        void onRowsInvalidated(@NonNull DirtyRows rows);
+    }
+
+    private static final FollowInvalidationBus INSTANCE = new FollowInvalidationBus();
+
+    public static FollowInvalidationBus getInstance() {
+        return INSTANCE;
+    }
+
+    private final Object lock = new Object();
+    private long[] pending = new long[16];
+    private int pendingSize;
+    private boolean pendingAll;
+    private boolean dispatchScheduled;
+
+    /**
+     * 已分发的失效批次数（只在主线程修改），观察者据此判断非活跃期间是否错过了通知
+     */
+    private volatile long version;
+
+    /**
+     * 已分发的全部失效次数（只在主线程修改）
+     */
+    private volatile long resetVersion;
+
+    /**
+     * 按 uid 注册的单行监听（只在主线程访问）
+     */
+    private final Map<Long, List<RowListener>> rowListeners = new HashMap<>();
+    private final List<DirtyListener> dirtyListeners = new CopyOnWriteArrayList<>();
+
+    private FollowInvalidationBus() {
+        // 单例模式
+    }
+
+    // ==================== 报告失效 ====================
+
+    /**
+     * 报告一组行失效（可在任意线程调用，写入事务提交后调用）
+     * @param uids 受影响的 uid
+     */
+    void invalidate(@NonNull Collection<Long> uids) {
+        if (uids.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            if (!pendingAll) {
+                if (pendingSize + uids.size() > pending.length) {
+                    pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingSize + uids.size()));
+                }
+                for (long uid : uids) {
+                    pending[pendingSize++] = uid;
+                }
+            }
+            scheduleLocked();
+        }
+    }
+
+    /**
+     * 报告全部行失效（变更无法逐行描述时）
+     */
+    void invalidateAll() {
+        synchronized (lock) {
+            pendingAll = true;
+            pendingSize = 0;
+            scheduleLocked();
+        }
+    }
+
+    /**
+     * 已分发的失效批次数
+     * 在主线程读取时，小于等于该值的批次都已经通知到当时注册的监听者
+     * @return 版本号
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 已分发的全部失效次数
+     * 全量列表在非活跃期间只需关心是否错过了全部失效，单行变更已由变更日志应用
+     * @return 全部失效版本号
+     */
+    public long resetVersion() {
+        return resetVersion;
+    }
+
+    private void scheduleLocked() {
+        if (!dispatchScheduled) {
+            dispatchScheduled = true;
+            AppExecutors.getInstance().mainThread().execute(this::dispatch);
+        }
+    }
+
+    @MainThread
+    private void dispatch() {
+        DirtyRows rows;
+        synchronized (lock) {
+            rows = pendingAll ? DirtyRows.all() : DirtyRows.of(pending, pendingSize);
+            pendingAll = false;
+            pendingSize = 0;
+            dispatchScheduled = false;
+        }
+        version++;
+        if (rows.isAll()) {
+            resetVersion++;
+        }
+        for (DirtyListener listener : dirtyListeners) {
+            listener.onRowsInvalidated(rows);
+        }
+        if (rows.isAll()) {
+            for (Map.Entry<Long, List<RowListener>> entry : new ArrayList<>(rowListeners.entrySet())) {
+                notifyRow(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (long uid : rows.uids()) {
+                List<RowListener> listeners = rowListeners.get(uid);
+                if (listeners != null) {
+                    notifyRow(uid, listeners);
+                }
+            }
+        }
+    }
+
+    private static void notifyRow(long uid, List<RowListener> listeners) {
+        for (RowListener listener : new ArrayList<>(listeners)) {
+            listener.onRowInvalidated(uid);
+        }
+    }
+
+    // ==================== 注册监听 ====================
+
+    /**
+     * 监听单行，需要调用方自行移除
+     * @param uid 行 uid
+     * @param listener 监听者
+     */
+    @MainThread
+    public void addRowListener(long uid, @NonNull RowListener listener) {
+        List<RowListener> listeners = rowListeners.get(uid);
+        if (listeners == null) {
+            listeners = new ArrayList<>(1);
+            rowListeners.put(uid, listeners);
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除单行监听
+     * @param uid 行 uid
+     * @param listener 监听者
+     */
+    @MainThread
+    public void removeRowListener(long uid, @NonNull RowListener listener) {
+        List<RowListener> listeners = rowListeners.get(uid);
+        if (listeners != null && listeners.remove(listener) && listeners.isEmpty()) {
+            rowListeners.remove(uid);
+        }
+    }
+
+    /**
+     * 监听批量失效，需要调用方自行移除
+     * @param listener 监听者
+     */
+    public void addDirtyListener(@NonNull DirtyListener listener) {
+        dirtyListeners.add(listener);
+    }
+
+    /**
+     * 移除批量失效监听
+     * @param listener 监听者
+     */
+    public void removeDirtyListener(@NonNull DirtyListener listener) {
+        dirtyListeners.remove(listener);
+    }
+}
@@ -0,0 +1,132 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowPageKey;
+import com.demo.follow.db.FollowRow;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+
+/**
+ * 基于游标（keyset）的关注列表分页数据源
+ * 每页都从上一页边界行的排序键处在复合索引上定位，不使用 OFFSET，
+ * 滚动到列表深处时每页的查询代价与第一页相同
+ * follow 表变化时自动失效，由 Pager 重新创建数据源
+ */
+class FollowKeysetPagingSource extends ListenableFuturePagingSource<FollowPageKey, FollowRow> {
+
+    private final AppDatabase db;
+    private final FollowDao dao;
+    private final Executor executor;
+
+    /**
+     * 表变化监听，在首次加载时（后台线程）注册，数据源失效时移除
+     */
+    private final InvalidationTracker.Observer observer;
+    private final AtomicBoolean observerRegistered = new AtomicBoolean(false);
+
+    FollowKeysetPagingSource(@NonNull AppDatabase db, @NonNull Executor executor) {
+        this.db = db;
+        this.dao = db.followDao();
+        this.executor = executor;
+        this.observer = new InvalidationTracker.Observer("follow") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        registerInvalidatedCallback(() -> {
+            if (observerRegistered.get()) {
+                db.getInvalidationTracker().removeObserver(observer);
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<FollowPageKey, FollowRow>> loadFuture(
+            @NonNull LoadParams<FollowPageKey> params) {
+        return Futures.submit(() -> loadPage(params), executor);
+    }
+
+    private LoadResult<FollowPageKey, FollowRow> loadPage(LoadParams<FollowPageKey> params) {
+        if (observerRegistered.compareAndSet(false, true)) {
+            db.getInvalidationTracker().addObserver(observer);
+        }
+
+        FollowPageKey key = params.getKey();
+        int limit = params.getLoadSize();
+
+        if (params instanceof LoadParams.Prepend) {
+            List<FollowRow> page = dao.getFollowPageBefore(key, limit);
+            return new LoadResult.Page<>(page,
+                    page.size() < limit ? null : firstKey(page),
+                    page.isEmpty() ? null : lastKey(page));
+        }
+
+        if (params instanceof LoadParams.Append) {
+            List<FollowRow> page = dao.getFollowPageAfter(key, limit);
+            return new LoadResult.Page<>(page,
+                    page.isEmpty() ? null : firstKey(page),
+                    page.size() < limit ? null : lastKey(page));
+        }
+
+        // 刷新：同一事务内读取数据页和前后行数，保证占位符数量与数据一致
+        return db.runInTransaction(() -> {
+            FollowPageKey start = key;
+            List<FollowRow> page = dao.getFollowPageAfter(start, limit);
+            if (start != null && page.isEmpty()) {
+                // 游标之后已无数据（例如尾部的行被删除），退回到从头加载
+                start = null;
+                page = dao.getFollowPageAfter(null, limit);
+            }
+            int itemsBefore = start == null
+                    ? 0
+                    : dao.countFollowUpTo(start.isSpecial, start.followTime, start.uid);
+            int itemsAfter = Math.max(0, dao.getTotalCount() - itemsBefore - page.size());
+            return new LoadResult.Page<>(page,
+                    start == null ? null : firstKey(page),
+                    page.size() < limit ? null : lastKey(page),
+                    itemsBefore, itemsAfter);
+        });
+    }
+
+    /**
+     * 失效后从锚点附近重新加载：取首屏范围起点的前一行作为游标
+     */
+    @Nullable
+    @Override
+    public FollowPageKey getRefreshKey(@NonNull PagingState<FollowPageKey, FollowRow> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) {
+            return null;
+        }
+        int start = anchor - state.getConfig().initialLoadSize / 2;
+        if (start <= 0) {
+            return null;
+        }
+        FollowRow before = state.closestItemToPosition(start - 1);
+        return before == null ? null : FollowPageKey.of(before);
+    }
+
+    private static FollowPageKey firstKey(List<FollowRow> page) {
+        return FollowPageKey.of(page.get(0));
+    }
+
+    private static FollowPageKey lastKey(List<FollowRow> page) {
+        return FollowPageKey.of(page.get(page.size() - 1));
+    }
+}
@@ -0,0 +1,125 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowPinyin;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.util.AppExecutors;
+import com.demo.follow.util.LaneExecutor;
+import com.demo.follow.util.PinyinConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 拼音搜索索引的维护和查询
+ * 写入路径在同一事务中调用 {@link #index(FollowUser)} 增量更新；
+ * 预置数据和升级前已有的行由 {@link #backfill(AppDatabase, AppExecutors)} 在后台分批补建
+ */
+final class FollowPinyinIndex {
+
+    /**
+     * 补建时每个事务处理的行数
+     */
+    private static final int BACKFILL_BATCH = 500;
+
+    private static final AtomicBoolean backfillStarted = new AtomicBoolean();
+
+    private final FollowDao dao;
+
+    FollowPinyinIndex(@NonNull FollowDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * 重新计算一个用户的拼音索引行，需在写事务中调用
+     * @param user 写入后的用户
+     */
+    @WorkerThread
+    void index(@NonNull FollowUser user) {
+        dao.deletePinyin(user.uid);
+        dao.upsertPinyin(rowsFor(user));
+    }
+
+    /**
+     * 为一批新插入的用户建立拼音索引（这些用户还没有索引行），需在写事务中调用
+     * @param users 新插入的用户
+     */
+    @WorkerThread
+    void indexNew(@NonNull List<FollowUser> users) {
+        List<FollowPinyin> rows = new ArrayList<>(users.size() * 2);
+        for (FollowUser user : users) {
+            rows.addAll(rowsFor(user));
+        }
+        dao.upsertPinyin(rows);
+    }
+
+    /**
+     * 按拼音前缀查找用户
+     * @param input 用户输入
+     * @param limit 最多返回条数
+     * @return uid 列表（全拼命中在前，按拼音顺序），输入不是字母数字时返回空列表
+     */
+    @WorkerThread
+    @NonNull
+    List<Long> search(String input, int limit) {
+        String prefix = PinyinConverter.normalizeQuery(input);
+        if (prefix == null) {
+            return Collections.emptyList();
+        }
+        return dao.searchPinyinUids(prefix, PinyinConverter.upperBound(prefix), limit);
+    }
+
+    /**
+     * 在后台补建缺失的拼音索引（每个进程只执行一次）
+     * 在写入通道上分批执行，每批一个短事务，不会长时间阻塞用户的写操作
+     * @param db 数据库
+     * @param executors 线程执行器
+     */
+    static void backfill(@NonNull AppDatabase db, @NonNull AppExecutors executors) {
+        if (backfillStarted.compareAndSet(false, true)) {
+            scheduleBackfillBatch(db, executors);
+        }
+    }
+
+    /**
+     * 补建一批，还有剩余时重新排队，让期间到达的写操作先执行
+     */
+    private static void scheduleBackfillBatch(AppDatabase db, AppExecutors executors) {
+        FollowDao dao = db.followDao();
+        executors.diskIO().execute(() -> {
+            int indexed = db.runInTransaction(() -> {
+                List<FollowUser> users = dao.getUsersWithoutPinyin(BACKFILL_BATCH);
+                List<FollowPinyin> rows = new ArrayList<>(users.size() * 2);
+                for (FollowUser user : users) {
+                    rows.addAll(rowsFor(user));
+                }
+                dao.upsertPinyin(rows);
+                return users.size();
+            });
+            if (indexed == BACKFILL_BATCH) {
+                scheduleBackfillBatch(db, executors);
+            }
+        }, LaneExecutor.Priority.BACKGROUND);
+    }
+
+    /**
+     * 一个用户的索引行：昵称总有一行（空昵称也写入，标记为已建索引），有效备注再加一行
+     */
+    @NonNull
+    private static List<FollowPinyin> rowsFor(@NonNull FollowUser user) {
+        List<FollowPinyin> rows = new ArrayList<>(2);
+        PinyinConverter.Pinyin nick = PinyinConverter.convert(user.nick);
+        rows.add(new FollowPinyin(user.uid, FollowPinyin.SOURCE_NICK, nick.full, nick.initials));
+        if (FollowRow.hasRemark(user.remark)) {
+            PinyinConverter.Pinyin remark = PinyinConverter.convert(user.remark);
+            rows.add(new FollowPinyin(user.uid, FollowPinyin.SOURCE_REMARK, remark.full, remark.initials));
+        }
+        return rows;
+    }
+}
@@ -1,45 +1,207 @@
 package com.demo.follow.repository;
 
 import android.content.Context;
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowPageKey;
+import com.demo.follow.db.FollowRow;
 import com.demo.follow.db.FollowUser;
 import com.demo.follow.db.AppDatabase;
 import com.demo.follow.util.AppExecutors;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 数据管理层
  * 统一处理关注相关的数据操作和线程调度
+ * 应用内只有一个实例（{@link #get(Context)}），各页面共享同一组查询：
+ * 列表和计数的查询各只有一个，结果分发给所有订阅者（见 {@link SharedQuery}）。
+ * 写入方法提交后向 {@link FollowInvalidationBus} 报告受影响的 uid：全量列表只在全部失效时重新查询（见 {@link FollowRowsLiveData}），
+ * 单个用户只在自己的行失效时更新
  */
 public class FollowRepository {
+
+    /**
+     * 分页参数：每页条数、预取距离、首次加载条数、内存中最多保留的条数
+     * 内存中只保留可见窗口 + 预取范围，超出 MAX_SIZE 的页会被丢弃并以占位符代替
+     */
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 50;
+    private static final int INITIAL_LOAD_SIZE = 100;
+    private static final int MAX_SIZE = 300;
+
+    /**
+     * 单次清理超过该行数时不再逐行发事件，改为通知列表全量刷新
+     */
+    static final int MAX_ROW_CHANGES = 100;
+
+    private final AppDatabase db;
     private final FollowDao dao;
     private final AppExecutors executors;
+    private final FollowChangeLog changeLog;
+    private final FollowInvalidationBus bus;
+    private final FollowWriteQueue writeQueue;
+    private final FollowUserCache cache;
+    private final FollowSyncStore syncStore;
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
 
-    public FollowRepository(Context context) {
-        dao = AppDatabase.get(context).followDao();
+    /**
+     * 共享的查询，只在主线程访问；没有任何观察者时下次订阅换成新实例，
+     * 新的订阅者不会先收到断开期间已经过期的旧结果
+     */
+    @Nullable
+    private SharedQuery<List<FollowRow>> allRows;
+    @Nullable
+    private SharedQuery<Integer> count;
+
+    private static volatile FollowRepository INSTANCE;
+
+    /**
+     * 获取仓库单例
+     * @param context 上下文
+     * @return 仓库实例
+     */
+    public static FollowRepository get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (FollowRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new FollowRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private FollowRepository(Context context) {
+        db = AppDatabase.get(context);
+        dao = db.followDao();
         executors = AppExecutors.getInstance();
+        changeLog = FollowChangeLog.getInstance();
+        bus = FollowInvalidationBus.getInstance();
+        writeQueue = FollowWriteQueue.get(context);
+        cache = FollowUserCache.get(db);
+        syncStore = FollowSyncStore.get(db);
+        FollowPinyinIndex.backfill(db, executors);
     }
 
     // ==================== 公共查询方法 ====================
 
-    public LiveData<List<FollowUser>> getAll() {
-        return dao.getAllFollow();
+    /**
+     * 获取关注列表（不可变的行模型）
+     * 所有订阅者共享同一个列表，只在首次订阅和全部失效时全量查询；单行变更通过 {@link #observeChanges} 获取
+     * @return 列表（LiveData）
+     */
+    @MainThread
+    public LiveData<List<FollowRow>> getAll() {
+        if (allRows == null || !allRows.hasObservers()) {
+            allRows = new SharedQuery<>(() -> new FollowRowsLiveData(dao, bus, executors.reads()));
+        }
+        return allRows;
+    }
+
+    /**
+     * 获取分页的关注列表
+     * 开启占位符，列表总长度固定，滚动条和跳转位置与全量列表一致
+     * 数据源按游标翻页，在读取通道上执行
+     * @param lifecycle 缓存分页数据的生命周期（配置变更时复用已加载的页）
+     * @return 分页数据流
+     */
+    public LiveData<PagingData<FollowRow>> getPaged(Lifecycle lifecycle) {
+        PagingConfig config = new PagingConfig(
+                PAGE_SIZE, PREFETCH_DISTANCE, true, INITIAL_LOAD_SIZE, MAX_SIZE);
+        Pager<FollowPageKey, FollowRow> pager = new Pager<>(config,
+                () -> new FollowKeysetPagingSource(db, executors.reads()));
+        return PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), lifecycle);
     }
 
+    /**
+     * 获取关注数，所有订阅者共享同一个查询
+     * @return 关注数（LiveData）
+     */
+    @MainThread
     public LiveData<Integer> getCount() {
-        return dao.getFollowCount();
+        if (count == null || !count.hasObservers()) {
+            count = new SharedQuery<>(dao::getFollowCount);
+        }
+        return count;
     }
 
+    /**
+     * 创建一个搜索会话（昵称、备注、抖音号前缀匹配，以及昵称、备注的全拼和首字母前缀匹配）
+     * 每个搜索框使用一个会话，页面销毁时调用 {@link FollowSearch#cancel()}
+     * @return 搜索会话
+     */
+    public FollowSearch openSearch() {
+        return new FollowSearch(dao, new FollowPinyinIndex(dao), executors);
+    }
+
+    /**
+     * 观察单个用户
+     * 优先从内存缓存返回，之后只在该用户的行失效时更新
+     * @param douyinId 抖音号
+     * @return 用户对象（LiveData），用户不存在或被删除时为 null
+     */
     public LiveData<FollowUser> getUserByDouyinIdLive(String douyinId) {
-        return dao.getUserByDouyinIdLive(douyinId);
+        return getUserByDouyinIdLive(douyinId, null);
+    }
+
+    /**
+     * 观察单个用户，以列表中已加载的行作为初始值
+     * 缓存未命中时直接使用该行，不再查询数据库；之后同样只在该用户的行失效时更新
+     * @param douyinId 抖音号
+     * @param loaded 列表中已加载的该用户数据，没有时为 null
+     * @return 用户对象（LiveData），用户不存在或被删除时为 null
+     */
+    public LiveData<FollowUser> getUserByDouyinIdLive(String douyinId, @Nullable FollowUser loaded) {
+        return new CachedUserLiveData(douyinId, loaded, cache, bus,
+                executors.reads(), this::loadUser);
+    }
+
+    /**
+     * 读库并回填缓存
+     */
+    private FollowUser loadUser(String douyinId) {
+        FollowUser user = dao.getUserByDouyinId(douyinId);
+        if (user != null) {
+            cache.put(user);
+        }
+        return user;
+    }
+
+    /**
+     * 监听行级变更（在生命周期内有效）
+     * 仓库的每次写入都会发出对应的变更事件，列表据此局部刷新
+     * @param owner 生命周期持有者
+     * @param listener 监听者
+     */
+    public void observeChanges(LifecycleOwner owner, FollowChangeLog.Listener listener) {
+        changeLog.observe(owner, listener);
     }
 
     // ==================== 私有执行方法 ====================
 
     /**
-     * 在 IO 线程中执行数据库操作
+     * 在写入通道中执行数据库写操作（串行，保证顺序）
      */
     private void execute(Runnable action) {
         executors.diskIO().execute(action);
@@ -48,7 +210,44 @@ public class FollowRepository {
     // ==================== 数据操作方法 ====================
 
     public void refreshData() {
-        execute(() -> dao.deleteUnfollowedUsers());
+        // 先写入合并窗口内的操作，保证清理看到的是最新状态
+        writeQueue.flush();
+        long submittedAt = System.nanoTime();
+        execute(() -> {
+            metrics.recordNanos(Metric.REFRESH_WAIT, System.nanoTime() - submittedAt);
+            FollowUserCache.OwnWrite ownWrite = cache.beginOwnWrite();
+            boolean committed = false;
+            long start = metrics.begin(Metric.REFRESH_SQL);
+            List<Long> removed;
+            try {
+                removed = db.runInTransaction(() -> {
+                    List<Long> uids = dao.getUnfollowedUids();
+                    if (!uids.isEmpty()) {
+                        dao.deleteUnfollowedUsers();
+                        ownWrite.mark();
+                    }
+                    return uids;
+                });
+                committed = true;
+            } finally {
+                ownWrite.finish(committed);
+                metrics.end(Metric.REFRESH_SQL, start);
+            }
+            for (long uid : removed) {
+                cache.remove(uid);
+            }
+            if (removed.size() > MAX_ROW_CHANGES) {
+                changeLog.publish(Collections.singletonList(FollowChange.reset()));
+                bus.invalidateAll();
+                return;
+            }
+            List<FollowChange> changes = new ArrayList<>(removed.size());
+            for (long uid : removed) {
+                changes.add(FollowChange.remove(uid));
+            }
+            changeLog.publish(changes);
+            bus.invalidate(removed);
+        });
     }
 
     /**
@@ -56,12 +255,7 @@ public class FollowRepository {
      * @param douyinId 抖音号
      */
     public void unfollowByDouyinId(String douyinId) {
-        execute(() -> {
-            FollowUser user = dao.getUserByDouyinId(douyinId);
-            if (user != null) {
-                dao.unfollow(user.uid);
-            }
-        });
+        writeQueue.unfollow(douyinId);
     }
 
     /**
@@ -70,12 +264,7 @@ public class FollowRepository {
      * @param remark 备注内容
      */
     public void updateRemark(String douyinId, String remark) {
-        execute(() -> {
-            FollowUser user = dao.getUserByDouyinId(douyinId);
-            if (user != null) {
-                dao.setRemark(user.uid, remark);
-            }
-        });
+        writeQueue.setRemark(douyinId, remark);
     }
 
     /**
@@ -83,12 +272,7 @@ public class FollowRepository {
      * @param douyinId 抖音号
      */
     public void toggleSpecial(String douyinId) {
-        execute(() -> {
-            FollowUser user = dao.getUserByDouyinId(douyinId);
-            if (user != null) {
-                dao.setSpecial(user.uid, !user.isSpecial);
-            }
-        });
+        writeQueue.toggleSpecial(douyinId);
     }
 
     /**
@@ -96,18 +280,246 @@ public class FollowRepository {
      * @param douyinId 抖音号
      */
     public void toggleFollow(String douyinId) {
+        writeQueue.toggleFollow(douyinId);
+    }
+
+    // ==================== 批量操作 ====================
+
+    /**
+     * 批量取消关注（多选操作），所有行在一个事务中按 uid 分块写入
+     * @param uids 要取消关注的 uid
+     */
+    public void unfollowAll(Collection<Long> uids) {
+        applyBulk(new ArrayList<>(uids), false, FollowOutbox.FIELD_STATUS, chunk -> dao.unfollowByUids(chunk));
+    }
+
+    /**
+     * 批量设置特别关注状态（多选操作），所有行在一个事务中按 uid 分块写入
+     * @param uids 要设置的 uid
+     * @param special 是否特别关注
+     */
+    public void setSpecialAll(Collection<Long> uids, boolean special) {
+        applyBulk(new ArrayList<>(uids), true, FollowOutbox.FIELD_SPECIAL,
+                chunk -> dao.setSpecialByUids(chunk, special));
+    }
+
+    /**
+     * 按 uid 分块执行的批量写入
+     */
+    private interface BulkUpdate {
+        /**
+         * @return 受影响行数
+         */
+        int apply(List<Long> chunk);
+    }
+
+    /**
+     * 在写入通道上执行批量写入：每块一条 IN 语句，全部在一个事务中，
+     * 然后分块读回写入后的行，在同一事务中记入同步发件箱，回填缓存并发出变更事件
+     * @param uids uid 列表
+     * @param moved 写入是否改变排序（需要移动行）
+     * @param syncField 写入的字段（FollowOutbox.FIELD_*）
+     * @param update 对一块 uid 执行的写入
+     */
+    private void applyBulk(List<Long> uids, boolean moved, int syncField, BulkUpdate update) {
+        if (uids.isEmpty()) {
+            return;
+        }
+        // 先写入合并窗口内的单行操作，保证顺序
+        writeQueue.flush();
+        long submittedAt = System.nanoTime();
         execute(() -> {
-            FollowUser user = dao.getUserByDouyinId(douyinId);
-            if (user == null) {
+            metrics.recordNanos(Metric.BULK_WAIT, System.nanoTime() - submittedAt);
+            metrics.recordValue(Metric.BULK_SIZE, uids.size());
+            FollowUserCache.OwnWrite ownWrite = cache.beginOwnWrite();
+            boolean committed = false;
+            long start = metrics.begin(Metric.BULK_SQL);
+            List<FollowUser> users;
+            try {
+                users = db.runInTransaction(() -> {
+                    List<FollowUser> result = new ArrayList<>(uids.size());
+                    int affected = 0;
+                    for (List<Long> chunk : chunks(uids)) {
+                        affected += update.apply(chunk);
+                    }
+                    if (affected > 0) {
+                        ownWrite.mark();
+                    }
+                    for (List<Long> chunk : chunks(uids)) {
+                        result.addAll(dao.getUsersByUids(chunk));
+                    }
+                    long now = System.currentTimeMillis();
+                    List<FollowOutbox> outbox = new ArrayList<>(result.size());
+                    for (FollowUser user : result) {
+                        outbox.add(FollowSyncStore.entry(user, syncField, now));
+                    }
+                    syncStore.record(outbox);
+                    return result;
+                });
+                committed = true;
+            } finally {
+                ownWrite.finish(committed);
+                metrics.end(Metric.BULK_SQL, start);
+            }
+            syncStore.notifyRecorded();
+            for (FollowUser user : users) {
+                cache.put(user);
+            }
+            if (users.size() > MAX_ROW_CHANGES) {
+                changeLog.publish(Collections.singletonList(FollowChange.reset()));
+                bus.invalidateAll();
                 return;
             }
+            List<FollowChange> changes = new ArrayList<>(users.size());
+            for (FollowUser user : users) {
+                changes.add(moved ? FollowChange.move(user) : FollowChange.update(user));
+            }
+            changeLog.publish(changes);
+            bus.invalidate(uids);
+        });
+    }
+
+    /**
+     * 按 SQLite 变量上限把 uid 列表分块（子列表视图，不复制）
+     */
+    private static List<List<Long>> chunks(List<Long> uids) {
+        List<List<Long>> chunks = new ArrayList<>(uids.size() / FollowDao.MAX_BATCH_PARAMS + 1);
+        for (int from = 0; from < uids.size(); from += FollowDao.MAX_BATCH_PARAMS) {
+            chunks.add(uids.subList(from, Math.min(uids.size(), from + FollowDao.MAX_BATCH_PARAMS)));
+        }
+        return chunks;
+    }
+
+    /**
+     * 导入关注列表（JSON 或 CSV，格式见 {@link FollowImporter}）
+     * 在写入通道上边读边写，全部数据在一个事务中；完成后列表整体刷新
+     * @param source 打开输入的方法，在写入线程上调用，读完后由仓库关闭
+     * @param format 文件格式
+     * @return 导入结果（LiveData），完成或失败时发出一次
+     */
+    public LiveData<FollowImporter.Result> importFollows(FollowImporter.Source source,
+                                                         FollowImporter.Format format) {
+        MutableLiveData<FollowImporter.Result> result = new MutableLiveData<>();
+        writeQueue.flush();
+        execute(() -> {
+            long start = metrics.begin(Metric.IMPORT_SQL);
+            FollowImporter.Result imported;
+            try (InputStream in = source.open()) {
+                imported = new FollowImporter(db).importFrom(in, format);
+            } catch (Exception e) {
+                imported = FollowImporter.Result.failed(e);
+            } finally {
+                metrics.end(Metric.IMPORT_SQL, start);
+            }
+            if (imported.isSuccess()) {
+                metrics.recordValue(Metric.IMPORT_ROWS, imported.inserted + imported.updated);
+                // 导入可能改动任意多行，缓存和列表都整体重建
+                cache.clear();
+                changeLog.publish(Collections.singletonList(FollowChange.reset()));
+                bus.invalidateAll();
+            }
+            result.postValue(imported);
+        });
+        return result;
+    }
+
+    // ==================== 快照 ====================
 
-            if (user.status == 1) {
-                dao.unfollow(user.uid);
-            } else {
-                user.status = 1;
-                dao.insert(user);
+    /**
+     * 恢复快照时每次插入的行数
+     */
+    private static final int RESTORE_BATCH = FollowDao.MAX_BATCH_PARAMS;
+
+    /**
+     * 导出整个关注列表到二进制快照（格式见 {@link FollowSnapshot}）
+     * 在写入通道上执行，导出期间的写操作排在其后，快照是某一时刻的完整状态
+     * @param file 目标文件，已存在时覆盖
+     * @return 导出结果（LiveData），完成或失败时发出一次
+     */
+    public LiveData<FollowSnapshot.Result> exportSnapshot(File file) {
+        MutableLiveData<FollowSnapshot.Result> result = new MutableLiveData<>();
+        writeQueue.flush();
+        execute(() -> {
+            FollowSnapshot.Result exported;
+            try {
+                exported = new FollowSnapshotWriter(dao).write(file);
+            } catch (Exception e) {
+                exported = FollowSnapshot.Result.failed(e);
             }
+            result.postValue(exported);
         });
+        return result;
+    }
+
+    /**
+     * 用快照替换当前的关注列表（保留快照中的 uid）
+     * 清空和写入在同一个事务中，快照损坏时整体回滚，原数据不受影响；完成后列表整体刷新。
+     * 同步的发件箱和游标在同一事务中重置，下次同步从头拉取
+     * @param file 快照文件
+     * @return 恢复结果（LiveData），完成或失败时发出一次
+     */
+    public LiveData<FollowSnapshot.Result> restoreSnapshot(File file) {
+        MutableLiveData<FollowSnapshot.Result> result = new MutableLiveData<>();
+        writeQueue.flush();
+        execute(() -> {
+            FollowSnapshot.Result restored;
+            try {
+                long rows = restore(db, file);
+                restored = new FollowSnapshot.Result(rows, file.length(), null);
+                cache.clear();
+                changeLog.publish(Collections.singletonList(FollowChange.reset()));
+                bus.invalidateAll();
+            } catch (Exception e) {
+                restored = FollowSnapshot.Result.failed(e);
+            }
+            result.postValue(restored);
+        });
+        return result;
+    }
+
+    /**
+     * 在一个事务中清空 follow 表并按批插入快照中的行，同时建立拼音索引，并重置同步的发件箱和游标
+     * 解析错误以 UncheckedIOException 抛出使事务回滚，在外层还原
+     * @return 恢复的行数
+     */
+    @VisibleForTesting
+    static long restore(AppDatabase db, File file) throws IOException {
+        FollowDao dao = db.followDao();
+        FollowSnapshotReader reader = new FollowSnapshotReader(file);
+        FollowPinyinIndex pinyinIndex = new FollowPinyinIndex(dao);
+        try {
+            return db.runInTransaction(() -> {
+                dao.deleteAll();
+                List<FollowUser> batch = new ArrayList<>(RESTORE_BATCH);
+                long rows;
+                try {
+                    rows = reader.read(user -> {
+                        batch.add(user);
+                        if (batch.size() == RESTORE_BATCH) {
+                            dao.insertAll(batch);
+                            pinyinIndex.indexNew(batch);
+                            batch.clear();
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (!batch.isEmpty()) {
+                    dao.insertAll(batch);
+                    pinyinIndex.indexNew(batch);
+                }
+                db.syncDao().resetSync();
+                return rows;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 立即写入合并窗口内尚未落盘的操作（页面停止时调用）
+     */
+    public void flush() {
+        writeQueue.flush();
     }
 }
\ No newline at end of file
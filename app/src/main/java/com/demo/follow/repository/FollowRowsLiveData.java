@@ -0,0 +1,71 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.util.SerialExecutor;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 全量关注列表
+ * 只在首次激活和全部失效时整表查询，单行写入不读库也不复制列表：
+ * 行级变更由 {@link FollowChangeLog} 直接应用到列表上（见 FollowAdapter#applyChange），
+ * 这里只订阅 {@link FollowInvalidationBus} 中无法逐行描述的“全部失效”。
+ * 因此发出的每个值都是需要整体替换的完整列表。
+ * 没有活跃观察者时不接收通知，重新激活时若期间有过全部失效则重新查询一次
+ */
+final class FollowRowsLiveData extends LiveData<List<FollowRow>> {
+
+    private final FollowDao dao;
+    private final FollowInvalidationBus bus;
+
+    /**
+     * 加载按提交顺序执行，后提交的查询结果总是最后发出
+     */
+    private final Executor executor;
+
+    private final FollowInvalidationBus.DirtyListener listener = this::onRowsInvalidated;
+
+    /**
+     * 上次停止接收通知时总线的全部失效版本（只在主线程访问），-1 表示尚未加载
+     */
+    private long syncedResetVersion = -1;
+
+    FollowRowsLiveData(@NonNull FollowDao dao, @NonNull FollowInvalidationBus bus,
+                       @NonNull Executor reads) {
+        this.dao = dao;
+        this.bus = bus;
+        this.executor = new SerialExecutor(reads);
+    }
+
+    @Override
+    protected void onActive() {
+        bus.addDirtyListener(listener);
+        if (syncedResetVersion != bus.resetVersion()) {
+            executor.execute(this::loadAll);
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        bus.removeDirtyListener(listener);
+        syncedResetVersion = bus.resetVersion();
+    }
+
+    private void onRowsInvalidated(@NonNull DirtyRows dirty) {
+        // 单行失效已经通过变更日志应用到列表上
+        if (dirty.isAll()) {
+            executor.execute(this::loadAll);
+        }
+    }
+
+    @WorkerThread
+    private void loadAll() {
+        postValue(Collections.unmodifiableList(dao.loadAllFollowRows()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowFts;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.util.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 边输入边搜索
+ * 同时查询全文索引（昵称、备注、抖音号前缀）和拼音索引（全拼、首字母前缀），合并后按 uid 倒序排列
+ * （最近插入本地的在前；导入和同步的行不一定按关注时间插入，因此不等同于最近关注）；
+ * 每次输入通过 {@link #setQuery(String)} 提交，停止输入一小段时间后才查询；
+ * 新的输入到达时，尚未开始的查询直接取消，已在执行的查询结果作废，只有最新一次输入的结果会发布
+ */
+public final class FollowSearch {
+
+    /**
+     * 输入防抖时间
+     */
+    private static final long DEBOUNCE_MS = 150;
+
+    /**
+     * 最多返回条数
+     */
+    private static final int MAX_RESULTS = 50;
+
+    private final FollowDao dao;
+    private final FollowPinyinIndex pinyinIndex;
+    private final AppExecutors executors;
+    private final MutableLiveData<List<FollowRow>> results = new MutableLiveData<>(Collections.emptyList());
+
+    /**
+     * 最新一次输入的序号，查询完成时与之比较，过期的结果直接丢弃
+     */
+    private volatile int generation;
+
+    /**
+     * 等待防抖的查询
+     */
+    @Nullable
+    private ScheduledFuture<?> pending;
+
+    FollowSearch(@NonNull FollowDao dao, @NonNull FollowPinyinIndex pinyinIndex,
+                 @NonNull AppExecutors executors) {
+        this.dao = dao;
+        this.pinyinIndex = pinyinIndex;
+        this.executors = executors;
+    }
+
+    /**
+     * 搜索结果（最新一次输入对应的结果，uid 倒序）
+     * @return 搜索结果（LiveData）
+     */
+    @NonNull
+    public LiveData<List<FollowRow>> getResults() {
+        return results;
+    }
+
+    /**
+     * 提交新的输入
+     * @param input 搜索框内容，空白时清空结果
+     */
+    @MainThread
+    public void setQuery(@Nullable String input) {
+        int current = ++generation;
+        cancelPending();
+
+        String match = FollowFts.matchQuery(input);
+        if (match == null) {
+            results.setValue(Collections.emptyList());
+            return;
+        }
+        pending = executors.scheduler().schedule(
+                () -> executors.reads().execute(() -> run(current, input, match)),
+                DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 取消等待中的查询并作废正在执行的查询（页面销毁时调用）
+     */
+    @MainThread
+    public void cancel() {
+        generation++;
+        cancelPending();
+    }
+
+    /**
+     * 合并全文搜索结果和拼音命中的 uid，按 uid 倒序取前 MAX_RESULTS 条
+     */
+    private List<FollowRow> merge(List<FollowRow> textRows, List<Long> pinyinUids) {
+        Set<Long> seen = new HashSet<>();
+        for (FollowRow row : textRows) {
+            seen.add(row.uid);
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long uid : pinyinUids) {
+            if (!seen.contains(uid)) {
+                missing.add(uid);
+            }
+        }
+        if (missing.isEmpty()) {
+            return textRows;
+        }
+        List<FollowRow> rows = new ArrayList<>(textRows);
+        rows.addAll(dao.getFollowRowsByUids(missing));
+        Collections.sort(rows, (a, b) -> Long.compare(b.uid, a.uid));
+        return rows.size() > MAX_RESULTS ? new ArrayList<>(rows.subList(0, MAX_RESULTS)) : rows;
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void run(int current, String input, String match) {
+        // 排队期间又有新的输入，跳过
+        if (current != generation) {
+            return;
+        }
+        List<FollowRow> rows = merge(dao.searchFollowRows(match, MAX_RESULTS),
+                pinyinIndex.search(input, MAX_RESULTS));
+        executors.mainThread().execute(() -> {
+            if (current == generation) {
+                results.setValue(rows);
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.demo.follow.repository;
+
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * 关注列表的二进制快照（备份、迁移到其他设备）
+ * Parcelable 不是稳定的持久化格式，这里定义一个带版本号的紧凑格式，按块流式读写，内存占用与行数无关：
+ * 导出时按 uid 顺序分批查询，每 {@link #ROWS_PER_BLOCK} 行编码成一块写出；导入时逐块映射文件、校验后解码。
+ *
+ * 文件格式（多字节定长整数均为大端）：
+ * <pre>
+ * 文件头（8 字节）：magic "FSNP"，版本号（1 字节），保留（3 字节，为 0）
+ * 数据块（重复）：
+ *   块头（16 字节）：payload 字节数、行数、字符串数、payload 的 CRC32
+ *   payload：
+ *     字符串表：每项为 varint 字节数 + UTF-8 字节，块内去重
+ *     逐行：
+ *       varint uid 增量（相对块内上一行，第一行为 uid 本身）
+ *       varint 抖音号的字符串序号
+ *       varint 昵称、头像、备注的字符串序号 + 1（0 表示 null）
+ *       1 字节标记（bit0：特别关注）
+ *       varint 关注状态
+ *       varint zigzag(关注时间 - 块内上一行的关注时间)
+ * 结束块：payload 字节数 0，行数为总行数，字符串数 0，CRC 0
+ * </pre>
+ * 字符串表按块建立而不是全局建立，保证内存占用有上限；头像路径等重复值在块内仍只存一次
+ */
+public final class FollowSnapshot {
+
+    static final int MAGIC = 0x46534E50; // "FSNP"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    static final int BLOCK_HEADER_BYTES = 16;
+
+    /**
+     * 每块的行数，也是导出时每次查询的行数
+     */
+    static final int ROWS_PER_BLOCK = 4096;
+
+    /**
+     * 行标记：特别关注
+     */
+    static final int FLAG_SPECIAL = 1;
+
+    private FollowSnapshot() {
+    }
+
+    /**
+     * 导出或导入的结果
+     */
+    public static final class Result {
+        /** 导出或导入的行数 */
+        public final long rows;
+        /** 快照文件字节数 */
+        public final long bytes;
+        /** 失败原因，成功时为 null（导入失败时数据库保持原样） */
+        @Nullable
+        public final Exception error;
+
+        Result(long rows, long bytes, @Nullable Exception error) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.error = error;
+        }
+
+        static Result failed(@NonNull Exception error) {
+            return new Result(0, 0, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Result{rows=" + rows + ", bytes=" + bytes
+                    + (error == null ? "" : ", error=" + error) + "}";
+        }
+    }
+
+    /**
+     * 快照文件损坏（校验和不符、被截断、序号越界）或版本不受支持
+     */
+    public static final class CorruptSnapshotException extends IOException {
+        CorruptSnapshotException(@NonNull String message) {
+            super(message);
+        }
+    }
+
+    // ==================== 编码工具 ====================
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 计算缓冲区 [position, limit) 的 CRC32，不改变缓冲区位置
+     * API 26 以下没有 CRC32.update(ByteBuffer)，直接内存需要经由临时数组分段计算
+     * @param buffer 数据
+     * @param scratch 临时数组
+     * @return CRC32
+     */
+    static int crc32(@NonNull ByteBuffer buffer, @NonNull byte[] scratch) {
+        CRC32 crc = new CRC32();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            crc.update(buffer.duplicate());
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            while (source.hasRemaining()) {
+                int length = Math.min(scratch.length, source.remaining());
+                source.get(scratch, 0, length);
+                crc.update(scratch, 0, length);
+            }
+        }
+        return (int) crc.getValue();
+    }
+}
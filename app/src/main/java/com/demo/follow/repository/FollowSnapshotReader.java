@@ -0,0 +1,180 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.repository.FollowSnapshot.CorruptSnapshotException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 快照读取（格式见 {@link FollowSnapshot}）
+ * 逐块把文件区间只读映射到内存，直接在映射上校验 CRC 和解码，不经过 read() 拷贝到堆缓冲区；
+ * 同一时刻只映射一块，字符串表也只保留当前块的，内存占用与快照大小无关
+ */
+final class FollowSnapshotReader {
+
+    /**
+     * 逐行接收解码结果
+     */
+    interface RowConsumer {
+        void accept(@NonNull FollowUser user) throws IOException;
+    }
+
+    private final File file;
+
+    /** 当前块的字符串表，按块复用 */
+    private String[] strings = new String[256];
+    private byte[] scratch = new byte[8 * 1024];
+
+    FollowSnapshotReader(@NonNull File file) {
+        this.file = file;
+    }
+
+    /**
+     * 读取全部行；任意一块校验失败即抛出异常，调用方应在同一事务中写入以便整体回滚
+     * @param consumer 行接收者
+     * @return 行数
+     * @throws CorruptSnapshotException 文件损坏或版本不受支持
+     */
+    @WorkerThread
+    long read(@NonNull RowConsumer consumer) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            long position = readFileHeader(channel, size);
+            long total = 0;
+            while (true) {
+                if (position + FollowSnapshot.BLOCK_HEADER_BYTES > size) {
+                    throw new CorruptSnapshotException("Truncated block header at " + position);
+                }
+                ByteBuffer header = map(channel, position, FollowSnapshot.BLOCK_HEADER_BYTES);
+                int length = header.getInt();
+                int rows = header.getInt();
+                int stringCount = header.getInt();
+                int crc = header.getInt();
+                position += FollowSnapshot.BLOCK_HEADER_BYTES;
+                if (length == 0) {
+                    if (rows != total) {
+                        throw new CorruptSnapshotException("Expected " + rows + " rows, read " + total);
+                    }
+                    return total;
+                }
+                // 每个字符串和每行至少占一个字节，计数超过块长度说明块头已损坏，在分配字符串表之前拒绝
+                if (length < 0 || rows < 0 || stringCount < 0 || position + length > size
+                        || rows > length || stringCount > length) {
+                    throw new CorruptSnapshotException("Bad block at " + (position - FollowSnapshot.BLOCK_HEADER_BYTES));
+                }
+                ByteBuffer payload = map(channel, position, length);
+                if (FollowSnapshot.crc32(payload, scratch) != crc) {
+                    throw new CorruptSnapshotException("Checksum mismatch in block at "
+                            + (position - FollowSnapshot.BLOCK_HEADER_BYTES));
+                }
+                try {
+                    decodeBlock(payload, rows, stringCount, consumer);
+                } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                    throw new CorruptSnapshotException("Malformed block at "
+                            + (position - FollowSnapshot.BLOCK_HEADER_BYTES));
+                }
+                position += length;
+                total += rows;
+            }
+        }
+    }
+
+    private static long readFileHeader(FileChannel channel, long size) throws IOException {
+        if (size < FollowSnapshot.FILE_HEADER_BYTES) {
+            throw new CorruptSnapshotException("Not a follow snapshot");
+        }
+        ByteBuffer header = map(channel, 0, FollowSnapshot.FILE_HEADER_BYTES);
+        if (header.getInt() != FollowSnapshot.MAGIC) {
+            throw new CorruptSnapshotException("Not a follow snapshot");
+        }
+        int version = header.get() & 0xFF;
+        if (version > FollowSnapshot.VERSION) {
+            throw new CorruptSnapshotException("Unsupported snapshot version " + version);
+        }
+        return FollowSnapshot.FILE_HEADER_BYTES;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    // ==================== 解码 ====================
+
+    private void decodeBlock(ByteBuffer payload, int rows, int stringCount, RowConsumer consumer)
+            throws IOException {
+        if (strings.length < stringCount) {
+            strings = new String[Math.max(stringCount, strings.length * 2)];
+        }
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = readString(payload);
+        }
+        long uid = 0;
+        long followTime = 0;
+        for (int i = 0; i < rows; i++) {
+            FollowUser user = new FollowUser();
+            uid += readVarint(payload);
+            user.uid = uid;
+            user.douyinId = string(readVarint(payload), stringCount);
+            user.nick = nullableString(readVarint(payload), stringCount);
+            user.avatar = nullableString(readVarint(payload), stringCount);
+            user.remark = nullableString(readVarint(payload), stringCount);
+            user.isSpecial = (payload.get() & FollowSnapshot.FLAG_SPECIAL) != 0;
+            user.status = (int) readVarint(payload);
+            followTime += FollowSnapshot.unzigzag(readVarint(payload));
+            user.followTime = followTime;
+            consumer.accept(user);
+        }
+        if (payload.hasRemaining()) {
+            throw new CorruptSnapshotException(payload.remaining() + " trailing bytes in block");
+        }
+        // 不再引用上一块的字符串
+        Arrays.fill(strings, 0, stringCount, null);
+    }
+
+    private String string(long id, int stringCount) throws CorruptSnapshotException {
+        if (id < 0 || id >= stringCount) {
+            throw new CorruptSnapshotException("String index " + id + " out of range");
+        }
+        return strings[(int) id];
+    }
+
+    private String nullableString(long idPlusOne, int stringCount) throws CorruptSnapshotException {
+        return idPlusOne == 0 ? null : string(idPlusOne - 1, stringCount);
+    }
+
+    private String readString(ByteBuffer payload) throws CorruptSnapshotException {
+        long length = readVarint(payload);
+        if (length < 0 || length > payload.remaining()) {
+            throw new CorruptSnapshotException("String length " + length + " out of range");
+        }
+        int n = (int) length;
+        if (scratch.length < n) {
+            scratch = new byte[Math.max(n, scratch.length * 2)];
+        }
+        payload.get(scratch, 0, n);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarint(ByteBuffer payload) throws CorruptSnapshotException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = payload.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CorruptSnapshotException("Varint too long");
+    }
+}
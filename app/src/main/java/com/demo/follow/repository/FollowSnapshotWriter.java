@@ -0,0 +1,233 @@
+package com.demo.follow.repository;
+
+import android.database.Cursor;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.db.FollowDao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 快照导出（格式见 {@link FollowSnapshot}）
+ * 每次查询一块的行，直接从游标编码到复用的缓冲区，再用 FileChannel 的聚集写一次写出块头和 payload；
+ * 先写到临时文件，全部完成后再改名，中途失败不会留下不完整的快照
+ */
+final class FollowSnapshotWriter {
+
+    private final FollowDao dao;
+
+    /** 块内的字符串表和行数据，每块结束后清空复用 */
+    private final ByteSink strings = new ByteSink(64 * 1024);
+    private final ByteSink rows = new ByteSink(64 * 1024);
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final ByteBuffer header = ByteBuffer.allocate(FollowSnapshot.BLOCK_HEADER_BYTES);
+    private final CRC32 crc = new CRC32();
+
+    /** 当前块最后一行的 uid（下一次查询的游标） */
+    private long lastUid;
+
+    FollowSnapshotWriter(@NonNull FollowDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * 导出整张 follow 表，需在写入线程调用（期间没有其他写入，各批查询看到的是同一状态）
+     * @param file 目标文件，已存在时覆盖
+     * @return 导出结果
+     */
+    @WorkerThread
+    @NonNull
+    FollowSnapshot.Result write(@NonNull File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        long total = 0;
+        try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            out.setLength(0);
+            FileChannel channel = out.getChannel();
+            ByteBuffer fileHeader = ByteBuffer.allocate(FollowSnapshot.FILE_HEADER_BYTES);
+            fileHeader.putInt(FollowSnapshot.MAGIC).put((byte) FollowSnapshot.VERSION).put(new byte[3]).flip();
+            writeFully(channel, fileHeader);
+
+            long afterUid = 0;
+            int count;
+            do {
+                try (Cursor cursor = dao.queryRowsAfterUid(afterUid, FollowSnapshot.ROWS_PER_BLOCK)) {
+                    count = encodeBlock(cursor);
+                    if (count > 0) {
+                        afterUid = lastUid;
+                        writeBlock(channel, count);
+                        total += count;
+                    }
+                }
+            } while (count == FollowSnapshot.ROWS_PER_BLOCK);
+
+            // 结束块
+            header.clear();
+            header.putInt(0).putInt((int) total).putInt(0).putInt(0).flip();
+            writeFully(channel, header);
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+        return new FollowSnapshot.Result(total, file.length(), null);
+    }
+
+    // ==================== 编码 ====================
+
+    /**
+     * 把游标中的一块行编码到 strings / rows
+     * @return 行数
+     */
+    private int encodeBlock(Cursor cursor) {
+        strings.clear();
+        rows.clear();
+        stringIds.clear();
+        int uidColumn = cursor.getColumnIndexOrThrow("uid");
+        int douyinIdColumn = cursor.getColumnIndexOrThrow("douyinId");
+        int nickColumn = cursor.getColumnIndexOrThrow("nick");
+        int avatarColumn = cursor.getColumnIndexOrThrow("avatar");
+        int remarkColumn = cursor.getColumnIndexOrThrow("remark");
+        int specialColumn = cursor.getColumnIndexOrThrow("isSpecial");
+        int statusColumn = cursor.getColumnIndexOrThrow("status");
+        int followTimeColumn = cursor.getColumnIndexOrThrow("followTime");
+
+        int count = 0;
+        long previousUid = 0;
+        long previousTime = 0;
+        while (cursor.moveToNext()) {
+            long uid = cursor.getLong(uidColumn);
+            long followTime = cursor.getLong(followTimeColumn);
+            rows.putVarint(uid - previousUid);
+            rows.putVarint(stringId(cursor.getString(douyinIdColumn)));
+            rows.putVarint(nullableStringId(cursor, nickColumn));
+            rows.putVarint(nullableStringId(cursor, avatarColumn));
+            rows.putVarint(nullableStringId(cursor, remarkColumn));
+            rows.put(cursor.getInt(specialColumn) != 0 ? FollowSnapshot.FLAG_SPECIAL : 0);
+            rows.putVarint(cursor.getInt(statusColumn));
+            rows.putVarint(FollowSnapshot.zigzag(followTime - previousTime));
+            previousUid = uid;
+            previousTime = followTime;
+            count++;
+        }
+        lastUid = previousUid;
+        return count;
+    }
+
+    /**
+     * 可为 null 的字符串：序号 + 1，null 为 0
+     */
+    private int nullableStringId(Cursor cursor, int column) {
+        return cursor.isNull(column) ? 0 : stringId(cursor.getString(column)) + 1;
+    }
+
+    /**
+     * 块内去重的字符串序号，第一次出现时追加到字符串表
+     */
+    private int stringId(@Nullable String value) {
+        String key = value == null ? "" : value;
+        Integer id = stringIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        int newId = stringIds.size();
+        stringIds.put(key, newId);
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        strings.putVarint(bytes.length);
+        strings.put(bytes);
+        return newId;
+    }
+
+    /**
+     * 写出块头、字符串表和行数据（聚集写，payload 不再复制到同一缓冲区）
+     */
+    private void writeBlock(FileChannel channel, int count) throws IOException {
+        ByteBuffer stringBytes = strings.buffer();
+        ByteBuffer rowBytes = rows.buffer();
+        crc.reset();
+        crc.update(stringBytes.array(), 0, stringBytes.limit());
+        crc.update(rowBytes.array(), 0, rowBytes.limit());
+        header.clear();
+        header.putInt(stringBytes.remaining() + rowBytes.remaining())
+                .putInt(count)
+                .putInt(stringIds.size())
+                .putInt((int) crc.getValue())
+                .flip();
+        ByteBuffer[] buffers = {header, stringBytes, rowBytes};
+        long remaining = header.remaining() + (long) stringBytes.remaining() + rowBytes.remaining();
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 可增长的字节缓冲区，按块复用
+     */
+    private static final class ByteSink {
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void put(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void put(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        /**
+         * 无符号 LEB128 变长整数，每字节 7 位，最高位表示后面还有字节
+         */
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, size + extra)];
+                System.arraycopy(bytes, 0, grown, 0, size);
+                bytes = grown;
+            }
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.SyncDao;
+import com.demo.follow.db.SyncState;
+import com.demo.follow.util.AppExecutors;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 同步的本地数据部分（网络部分见 com.demo.follow.sync）
+ * 本地修改（特别关注、备注、关注状态）与修改本身在同一事务中记入发件箱，同一字段只保留最后的值；
+ * 服务端数据按字段合并：昵称、头像、关注时间以服务端为准，特别关注、备注、关注状态在本地有待上传的修改时保留本地值，
+ * 等上传结果决定（服务端拒绝时再写入服务端的值）。
+ *
+ * 写入通道是串行的，不区分优先级：同步的写入按 {@link #APPLY_BATCH} 行拆成多个短事务依次投递，
+ * 用户操作最多等待一批，不会被一次大同步挡住。写入完成后与仓库的其他写操作一样回填缓存、发出变更事件并报告失效的行
+ */
+public final class FollowSyncStore {
+
+    /**
+     * 应用服务端数据时每个事务的行数
+     */
+    static final int APPLY_BATCH = 200;
+
+    private static volatile FollowSyncStore INSTANCE;
+
+    /**
+     * 获取同步存储单例
+     * @param db 数据库
+     * @return 实例
+     */
+    public static FollowSyncStore get(@NonNull AppDatabase db) {
+        if (INSTANCE == null) {
+            synchronized (FollowSyncStore.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new FollowSyncStore(db, AppExecutors.getInstance(),
+                            FollowChangeLog.getInstance(), FollowInvalidationBus.getInstance(),
+                            FollowUserCache.get(db));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 为指定数据库创建独立实例（测试中使用内存数据库），正式代码使用 {@link #get(AppDatabase)}
+     * @param db 数据库
+     * @return 新实例
+     */
+    @VisibleForTesting
+    public static FollowSyncStore create(@NonNull AppDatabase db) {
+        return new FollowSyncStore(db, AppExecutors.getInstance(), FollowChangeLog.getInstance(),
+                FollowInvalidationBus.getInstance(), FollowUserCache.get(db));
+    }
+
+    private final AppDatabase db;
+    private final FollowDao dao;
+    private final SyncDao syncDao;
+    private final AppExecutors executors;
+    private final FollowChangeLog changeLog;
+    private final FollowInvalidationBus bus;
+    private final FollowUserCache cache;
+    private final FollowPinyinIndex pinyinIndex;
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    /**
+     * 发件箱有新记录时的回调（同步引擎据此安排上传），在写入线程上调用
+     */
+    @Nullable
+    private volatile Runnable outboxListener;
+
+    private FollowSyncStore(AppDatabase db, AppExecutors executors, FollowChangeLog changeLog,
+                            FollowInvalidationBus bus, FollowUserCache cache) {
+        this.db = db;
+        this.dao = db.followDao();
+        this.syncDao = db.syncDao();
+        this.executors = executors;
+        this.changeLog = changeLog;
+        this.bus = bus;
+        this.cache = cache;
+        this.pinyinIndex = new FollowPinyinIndex(dao);
+    }
+
+    // ==================== 记录本地修改 ====================
+
+    /**
+     * 设置发件箱有新记录时的回调
+     * @param listener 回调，null 表示取消
+     */
+    public void setOutboxListener(@Nullable Runnable listener) {
+        outboxListener = listener;
+    }
+
+    /**
+     * 按写入后的行生成一条发件箱记录
+     * @param user 写入后的行
+     * @param field 字段（FollowOutbox.FIELD_*）
+     * @param changedAt 修改时间
+     * @return 发件箱记录
+     */
+    static FollowOutbox entry(@NonNull FollowUser user, int field, long changedAt) {
+        String value;
+        switch (field) {
+            case FollowOutbox.FIELD_SPECIAL:
+                value = user.isSpecial ? "1" : "0";
+                break;
+            case FollowOutbox.FIELD_REMARK:
+                value = user.remark;
+                break;
+            case FollowOutbox.FIELD_STATUS:
+                value = String.valueOf(user.status);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown field " + field);
+        }
+        return FollowOutbox.of(user.douyinId, field, value, changedAt);
+    }
+
+    /**
+     * 记录本地修改，需在写入本身所在的事务中调用
+     * @param entries 发件箱记录
+     */
+    void record(@NonNull List<FollowOutbox> entries) {
+        if (!entries.isEmpty()) {
+            syncDao.upsertOutbox(entries);
+        }
+    }
+
+    /**
+     * 事务提交后通知同步引擎有新的本地修改
+     */
+    void notifyRecorded() {
+        Runnable listener = outboxListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    // ==================== 供同步引擎读取 ====================
+
+    /**
+     * 读取同步游标（只读查询，不占用写入通道）
+     * @return 已拉取到的服务端版本号，从未同步时为 0
+     */
+    @WorkerThread
+    public long cursor() {
+        Long cursor = syncDao.getCursor();
+        return cursor == null ? 0 : cursor;
+    }
+
+    /**
+     * 按写入顺序读取一批待上传的修改（只读查询，不占用写入通道）
+     * @param limit 条数
+     * @return 修改列表
+     */
+    @WorkerThread
+    @NonNull
+    public List<FollowOutbox> pendingMutations(int limit) {
+        return syncDao.loadOutbox(limit);
+    }
+
+    /**
+     * 待上传的修改数
+     * @return 条数
+     */
+    @WorkerThread
+    public int pendingCount() {
+        return syncDao.countOutbox();
+    }
+
+    // ==================== 应用同步结果 ====================
+
+    /**
+     * 应用一页拉取到的服务端数据，并把游标推进到 newCursor
+     * 每 {@link #APPLY_BATCH} 行一个事务，游标与最后一批在同一事务中保存；
+     * 中途失败时游标不变，下次重新拉取这一页（按抖音号写入，重复应用没有副作用）
+     * 不能在写入线程上调用
+     * @param remote 服务端的行（uid 无意义，按抖音号匹配本地行）
+     * @param newCursor 这一页之后的游标
+     */
+    @WorkerThread
+    public void applyRemote(@NonNull List<FollowUser> remote, long newCursor) throws InterruptedException {
+        int size = remote.size();
+        int from = 0;
+        do {
+            List<FollowUser> batch = remote.subList(from, Math.min(size, from + APPLY_BATCH));
+            from += APPLY_BATCH;
+            boolean last = from >= size;
+            runOnWriter(ownWrite -> {
+                List<FollowChange> changes = db.runInTransaction(() -> {
+                    List<FollowChange> result = applyRemoteBatch(batch, ownWrite);
+                    if (last) {
+                        SyncState state = new SyncState();
+                        state.id = SyncState.ROW_ID;
+                        state.cursor = newCursor;
+                        syncDao.saveState(state);
+                    }
+                    return result;
+                });
+                metrics.recordValue(Metric.SYNC_APPLY_SIZE, batch.size());
+                return changes;
+            });
+        } while (from < size);
+    }
+
+    /**
+     * 记录上传结果
+     * 接受的修改从发件箱删除；拒绝的修改（服务端的值更新）同样删除，
+     * 如果上传期间本地没有再修改这个字段，写入服务端的值
+     * 不能在写入线程上调用
+     * @param accepted 被接受的修改 ID
+     * @param rejected 被拒绝的修改，value 为服务端的当前值
+     */
+    @WorkerThread
+    public void completePush(@NonNull List<Long> accepted, @NonNull List<FollowOutbox> rejected)
+            throws InterruptedException {
+        if (accepted.isEmpty() && rejected.isEmpty()) {
+            return;
+        }
+        runOnWriter(ownWrite -> db.runInTransaction(() -> {
+            List<Long> done = new ArrayList<>(accepted);
+            List<String> touched = new ArrayList<>(rejected.size());
+            for (FollowOutbox entry : rejected) {
+                if (syncDao.hasOutbox(entry.id) > 0 && applyField(entry.douyinId, entry.field, entry.value) > 0) {
+                    touched.add(entry.douyinId);
+                }
+                done.add(entry.id);
+            }
+            for (List<Long> chunk : chunks(done)) {
+                syncDao.deleteOutbox(chunk);
+            }
+            if (!touched.isEmpty()) {
+                ownWrite.mark();
+            }
+            List<FollowChange> changes = new ArrayList<>(touched.size());
+            for (List<String> chunk : chunks(touched)) {
+                for (FollowUser user : dao.getUsersByDouyinIds(chunk)) {
+                    pinyinIndex.index(user);
+                    changes.add(FollowChange.move(user));
+                }
+            }
+            return changes;
+        }));
+    }
+
+    /**
+     * 记录一次失败的上传，尝试次数达到上限的修改从发件箱删除
+     * 不能在写入线程上调用
+     * @param ids 修改 ID
+     * @param maxAttempts 尝试次数上限
+     * @return 被删除的修改数
+     */
+    @WorkerThread
+    public int markAttempted(@NonNull List<Long> ids, int maxAttempts) throws InterruptedException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int[] dropped = new int[1];
+        runOnWriter(ownWrite -> {
+            db.runInTransaction(() -> {
+                for (List<Long> chunk : chunks(ids)) {
+                    syncDao.incrementAttempts(chunk);
+                    dropped[0] += syncDao.deleteExhausted(chunk, maxAttempts);
+                }
+            });
+            return Collections.<FollowChange>emptyList();
+        });
+        return dropped[0];
+    }
+
+    /**
+     * 丢弃服务端不接受的修改（本地值保留，之后以服务端拉取到的值为准）
+     * 不能在写入线程上调用
+     * @param ids 修改 ID
+     */
+    @WorkerThread
+    public void dropMutations(@NonNull List<Long> ids) throws InterruptedException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        runOnWriter(ownWrite -> {
+            db.runInTransaction(() -> {
+                for (List<Long> chunk : chunks(ids)) {
+                    syncDao.deleteOutbox(chunk);
+                }
+            });
+            return Collections.<FollowChange>emptyList();
+        });
+    }
+
+    /**
+     * 在一个事务中按字段合并一批服务端的行
+     * 服务端可能改变任意行的排序字段，变化的行一律按移动处理；同一批中重复的抖音号只保留最后一个版本
+     * @param ownWrite 写入了 follow 表时标记为自身写入
+     * @return 插入和发生变化的行对应的变更事件
+     */
+    private List<FollowChange> applyRemoteBatch(List<FollowUser> page, FollowUserCache.OwnWrite ownWrite) {
+        Map<String, FollowUser> latest = new LinkedHashMap<>();
+        for (FollowUser user : page) {
+            latest.put(user.douyinId, user);
+        }
+        List<FollowUser> batch = new ArrayList<>(latest.values());
+        List<String> douyinIds = new ArrayList<>(latest.keySet());
+        Map<String, FollowUser> before = new HashMap<>();
+        for (FollowUser user : dao.getUsersByDouyinIds(douyinIds)) {
+            before.put(user.douyinId, user);
+        }
+        // 本地有待上传修改的字段（按位记录）
+        Map<String, Integer> localFields = new HashMap<>();
+        for (FollowOutbox entry : syncDao.getOutboxFor(douyinIds)) {
+            Integer mask = localFields.get(entry.douyinId);
+            localFields.put(entry.douyinId, (mask == null ? 0 : mask) | (1 << entry.field));
+        }
+
+        List<FollowUser> inserted = new ArrayList<>();
+        List<String> updated = new ArrayList<>();
+        for (FollowUser remote : batch) {
+            if (!before.containsKey(remote.douyinId)) {
+                // 本地没有、服务端已取消关注的行不需要插入
+                if (remote.status != 0) {
+                    remote.uid = 0;
+                    inserted.add(remote);
+                }
+                continue;
+            }
+            Integer mask = localFields.get(remote.douyinId);
+            int local = mask == null ? 0 : mask;
+            syncDao.updateProfile(remote.douyinId, remote.nick, remote.avatar, remote.followTime);
+            if ((local & (1 << FollowOutbox.FIELD_SPECIAL)) == 0) {
+                syncDao.setSpecialByDouyinId(remote.douyinId, remote.isSpecial);
+            }
+            if ((local & (1 << FollowOutbox.FIELD_REMARK)) == 0) {
+                dao.setRemarkByDouyinId(remote.douyinId, remote.remark);
+            }
+            if ((local & (1 << FollowOutbox.FIELD_STATUS)) == 0) {
+                dao.setStatusByDouyinId(remote.douyinId, remote.status);
+            }
+            updated.add(remote.douyinId);
+        }
+
+        List<FollowChange> changes = new ArrayList<>();
+        if (!inserted.isEmpty()) {
+            long[] uids = dao.insertAllIgnoringExisting(inserted);
+            // 被忽略的行（uid 为 -1）没有写入，不建索引也不发出事件
+            List<FollowUser> written = new ArrayList<>(uids.length);
+            for (int i = 0; i < uids.length; i++) {
+                if (uids[i] < 0) {
+                    continue;
+                }
+                FollowUser user = inserted.get(i);
+                user.uid = uids[i];
+                written.add(user);
+            }
+            if (!written.isEmpty()) {
+                ownWrite.mark();
+                pinyinIndex.indexNew(written);
+                for (FollowUser user : written) {
+                    changes.add(FollowChange.insert(user));
+                }
+            }
+        }
+        if (!updated.isEmpty()) {
+            ownWrite.mark();
+            for (FollowUser user : dao.getUsersByDouyinIds(updated)) {
+                FollowUser old = before.get(user.douyinId);
+                if (old != null && sameRow(old, user)) {
+                    continue;
+                }
+                if (old == null || !Objects.equals(old.nick, user.nick) || !Objects.equals(old.remark, user.remark)) {
+                    pinyinIndex.index(user);
+                }
+                changes.add(FollowChange.move(user));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * 写入一个字段的值
+     * @return 受影响行数
+     */
+    private int applyField(String douyinId, int field, @Nullable String value) {
+        switch (field) {
+            case FollowOutbox.FIELD_SPECIAL:
+                return syncDao.setSpecialByDouyinId(douyinId, "1".equals(value));
+            case FollowOutbox.FIELD_REMARK:
+                return dao.setRemarkByDouyinId(douyinId, value);
+            case FollowOutbox.FIELD_STATUS:
+                return dao.setStatusByDouyinId(douyinId, value == null ? 0 : Integer.parseInt(value));
+            default:
+                return 0;
+        }
+    }
+
+    private static boolean sameRow(FollowUser a, FollowUser b) {
+        return a.isSpecial == b.isSpecial && a.status == b.status && a.followTime == b.followTime
+                && Objects.equals(a.nick, b.nick) && Objects.equals(a.avatar, b.avatar)
+                && Objects.equals(a.remark, b.remark);
+    }
+
+    /**
+     * 写入通道上的一个同步写入任务
+     */
+    private interface WriterTask {
+        /**
+         * 在一个事务中写入，写入了 follow 表的行时调用 ownWrite.mark()（只动发件箱和游标时不调用）
+         * @return 写入产生的变更事件
+         */
+        List<FollowChange> run(FollowUserCache.OwnWrite ownWrite);
+    }
+
+    /**
+     * 在写入通道上执行一个同步写入任务并等待完成，然后回填缓存、发出变更事件
+     * 排队时间和执行时间分别记录
+     */
+    private void runOnWriter(WriterTask task) throws InterruptedException {
+        long submittedAt = System.nanoTime();
+        FutureTask<List<FollowChange>> future = new FutureTask<>(() -> {
+            metrics.recordNanos(Metric.SYNC_APPLY_WAIT, System.nanoTime() - submittedAt);
+            FollowUserCache.OwnWrite ownWrite = cache.beginOwnWrite();
+            boolean committed = false;
+            long start = metrics.begin(Metric.SYNC_APPLY_SQL);
+            List<FollowChange> changes;
+            try {
+                changes = task.run(ownWrite);
+                committed = true;
+            } finally {
+                ownWrite.finish(committed);
+                metrics.end(Metric.SYNC_APPLY_SQL, start);
+            }
+            publish(changes);
+            return changes;
+        });
+        executors.diskIO().execute(future);
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 回填缓存、发出变更事件并报告失效的行；变化太多时改为整体刷新
+     */
+    private void publish(List<FollowChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Long> uids = new ArrayList<>(changes.size());
+        for (FollowChange change : changes) {
+            cache.put(change.user);
+            uids.add(change.uid);
+        }
+        if (changes.size() > FollowRepository.MAX_ROW_CHANGES) {
+            changeLog.publish(Collections.singletonList(FollowChange.reset()));
+            bus.invalidateAll();
+            return;
+        }
+        changeLog.publish(changes);
+        bus.invalidate(uids);
+    }
+
+    /**
+     * 按 SQLite 变量上限分块（子列表视图，不复制）
+     */
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>(items.size() / FollowDao.MAX_BATCH_PARAMS + 1);
+        for (int from = 0; from < items.size(); from += FollowDao.MAX_BATCH_PARAMS) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + FollowDao.MAX_BATCH_PARAMS)));
+        }
+        return chunks;
+    }
+}
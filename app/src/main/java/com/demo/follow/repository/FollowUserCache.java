@@ -0,0 +1,203 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.InvalidationTracker;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowUser;
+
+import java.util.Set;
+
+/**
+ * 关注用户的内存缓存（位于 FollowDao 之前）
+ * 以 uid 为键做 LRU 淘汰，另有抖音号 -> uid 索引，点查询直接从内存返回。
+ * 仓库写入后把读回的新行写入缓存（write-through）；
+ * 收到不是由仓库自身写入引起的表失效通知时清空缓存，保持与数据库一致。
+ * 缓存中的 FollowUser 为共享对象，调用方不得修改
+ *
+ * 约定：follow 表的每个写入方都必须经过缓存，二选一：
+ * - 用 {@link #beginOwnWrite()} 标记写入，提交后把改动的行 put / remove 到缓存（写回队列、仓库、同步）；
+ * - 或者不标记，提交后自行 {@link #clear()}（导入、恢复快照）。
+ * Room 会把多次提交的失效通知合并为一次，只要合并的通知里有自身写入就不清空缓存；
+ * 如果有写入方绕过缓存直接写表，它的通知可能与自身写入合并而被忽略，缓存中会留下旧行
+ */
+public final class FollowUserCache {
+
+    /**
+     * 缓存条目上限
+     */
+    private static final int MAX_ENTRIES = 2048;
+
+    private static volatile FollowUserCache INSTANCE;
+
+    /**
+     * 获取缓存单例，并在 follow 表上注册失效监听
+     * @param db 数据库实例
+     * @return 缓存实例
+     */
+    public static FollowUserCache get(@NonNull AppDatabase db) {
+        if (INSTANCE == null) {
+            synchronized (FollowUserCache.class) {
+                if (INSTANCE == null) {
+                    FollowUserCache cache = new FollowUserCache(MAX_ENTRIES);
+                    db.getInvalidationTracker().addObserver(cache.invalidationObserver);
+                    INSTANCE = cache;
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final LongLruCache<FollowUser> byUid;
+
+    /**
+     * 抖音号 -> uid 索引，键直接引用缓存行中的 douyinId 实例，不额外复制字符串
+     */
+    private final ObjectLongMap<String> uidByDouyinId;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * 仓库自身已提交、尚未收到失效通知的写入次数
+     * 失效通知会合并，收到通知时只要有自身写入就视为已同步
+     */
+    private int pendingOwnWrites;
+
+    private final InvalidationTracker.Observer invalidationObserver =
+            new InvalidationTracker.Observer("follow") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    onTableInvalidated();
+                }
+            };
+
+    FollowUserCache(int maxEntries) {
+        byUid = new LongLruCache<>(maxEntries);
+        uidByDouyinId = new ObjectLongMap<>(maxEntries);
+    }
+
+    // ==================== 查询 ====================
+
+    @Nullable
+    public synchronized FollowUser getByUid(long uid) {
+        FollowUser user = byUid.get(uid);
+        if (user == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return user;
+    }
+
+    @Nullable
+    public synchronized FollowUser getByDouyinId(@NonNull String douyinId) {
+        long uid = uidByDouyinId.get(douyinId, -1);
+        if (uid < 0) {
+            missCount++;
+            return null;
+        }
+        return getByUid(uid);
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 写入（或替换）一行，超出上限时淘汰最久未访问的行
+     */
+    public synchronized void put(@NonNull FollowUser user) {
+        FollowUser previous = byUid.get(user.uid);
+        if (previous != null && !previous.douyinId.equals(user.douyinId)) {
+            uidByDouyinId.remove(previous.douyinId);
+        }
+        FollowUser evicted = byUid.put(user.uid, user);
+        if (evicted != null) {
+            uidByDouyinId.remove(evicted.douyinId);
+        }
+        uidByDouyinId.put(user.douyinId, user.uid);
+    }
+
+    public synchronized void remove(long uid) {
+        FollowUser removed = byUid.remove(uid);
+        if (removed != null) {
+            uidByDouyinId.remove(removed.douyinId);
+        }
+    }
+
+    public synchronized void clear() {
+        byUid.clear();
+        uidByDouyinId.clear();
+    }
+
+    /**
+     * 开始一次仓库自身的写入，在写入事务之前调用
+     * 事务中确认修改了 follow 表的行后调用 {@link OwnWrite#mark()}，事务结束后在 finally 中调用
+     * {@link OwnWrite#finish(boolean)}；没有修改 follow 表或事务回滚时不会产生失效通知，也就不留下标记
+     * @return 本次写入的标记
+     */
+    OwnWrite beginOwnWrite() {
+        return new OwnWrite();
+    }
+
+    /**
+     * 一次写入事务中的自身写入标记
+     */
+    final class OwnWrite {
+        private boolean marked;
+
+        private OwnWrite() {
+        }
+
+        /**
+         * 事务中修改了 follow 表的行（可重复调用），对应的失效通知不会清空缓存
+         */
+        void mark() {
+            if (!marked) {
+                marked = true;
+                synchronized (FollowUserCache.this) {
+                    pendingOwnWrites++;
+                }
+            }
+        }
+
+        /**
+         * 事务结束，未提交时撤销标记
+         * @param committed 事务是否已提交
+         */
+        void finish(boolean committed) {
+            if (marked && !committed) {
+                marked = false;
+                synchronized (FollowUserCache.this) {
+                    if (pendingOwnWrites > 0) {
+                        pendingOwnWrites--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 表失效：有自身写入时视为已同步（见类注释中的约定），否则清空缓存
+     */
+    private synchronized void onTableInvalidated() {
+        if (pendingOwnWrites > 0) {
+            pendingOwnWrites = 0;
+        } else {
+            clear();
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return byUid.size();
+    }
+}
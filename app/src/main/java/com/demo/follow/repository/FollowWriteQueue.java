@@ -0,0 +1,370 @@
+package com.demo.follow.repository;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.util.AppExecutors;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关注数据的写回队列（write-behind）
+ * 短时间窗口内对同一抖音号的操作先在内存中合并，窗口结束后在一个事务中批量写入：
+ * 连续两次切换相互抵消，备注以最后一次为准，取消关注覆盖之前的关注切换。
+ * 快速连点只产生一次事务、一次表失效通知
+ */
+public final class FollowWriteQueue {
+
+    /**
+     * 合并窗口（毫秒）：第一个操作入队后等待该时长再写入
+     */
+    private static final long FLUSH_WINDOW_MS = 100;
+
+    private static volatile FollowWriteQueue INSTANCE;
+
+    /**
+     * 获取写回队列单例，所有 FollowRepository 共享，跨页面的操作也能合并
+     * @param context 应用上下文
+     * @return 写回队列实例
+     */
+    public static FollowWriteQueue get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (FollowWriteQueue.class) {
+                if (INSTANCE == null) {
+                    AppDatabase db = AppDatabase.get(context);
+                    INSTANCE = new FollowWriteQueue(db, AppExecutors.getInstance(),
+                            FollowChangeLog.getInstance(), FollowInvalidationBus.getInstance(),
+                            FollowUserCache.get(db), FollowSyncStore.get(db));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 为指定数据库创建独立实例（测试中使用内存数据库），正式代码使用 {@link #get(Context)}
+     * @param db 数据库
+     * @return 新实例
+     */
+    @VisibleForTesting
+    static FollowWriteQueue create(@NonNull AppDatabase db) {
+        return new FollowWriteQueue(db, AppExecutors.getInstance(), FollowChangeLog.getInstance(),
+                FollowInvalidationBus.getInstance(), FollowUserCache.get(db), FollowSyncStore.create(db));
+    }
+
+    private final AppDatabase db;
+    private final FollowDao dao;
+    private final AppExecutors executors;
+    private final FollowChangeLog changeLog;
+    private final FollowInvalidationBus bus;
+    private final FollowUserCache cache;
+    private final FollowSyncStore syncStore;
+    private final FollowPinyinIndex pinyinIndex;
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    /**
+     * 待写入的操作，按抖音号合并，保持入队顺序
+     */
+    private final Object lock = new Object();
+    private Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private FollowWriteQueue(AppDatabase db, AppExecutors executors,
+                             FollowChangeLog changeLog, FollowInvalidationBus bus,
+                             FollowUserCache cache, FollowSyncStore syncStore) {
+        this.db = db;
+        this.dao = db.followDao();
+        this.executors = executors;
+        this.changeLog = changeLog;
+        this.bus = bus;
+        this.cache = cache;
+        this.syncStore = syncStore;
+        this.pinyinIndex = new FollowPinyinIndex(dao);
+    }
+
+    // ==================== 入队操作 ====================
+
+    public void toggleSpecial(@NonNull String douyinId) {
+        enqueue(douyinId, PendingWrite.OP_TOGGLE_SPECIAL, PendingWrite::toggleSpecial);
+    }
+
+    public void toggleFollow(@NonNull String douyinId) {
+        enqueue(douyinId, PendingWrite.OP_TOGGLE_FOLLOW, PendingWrite::toggleFollow);
+    }
+
+    public void unfollow(@NonNull String douyinId) {
+        enqueue(douyinId, PendingWrite.OP_UNFOLLOW, PendingWrite::unfollow);
+    }
+
+    public void setRemark(@NonNull String douyinId, String remark) {
+        enqueue(douyinId, PendingWrite.OP_SET_REMARK, write -> write.setRemark(remark));
+    }
+
+    private interface Merge {
+        void apply(PendingWrite write);
+    }
+
+    private void enqueue(String douyinId, int op, Merge merge) {
+        synchronized (lock) {
+            PendingWrite write = pending.get(douyinId);
+            if (write == null) {
+                write = new PendingWrite(douyinId);
+                pending.put(douyinId, write);
+            }
+            write.ops |= op;
+            merge.apply(write);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                executors.scheduler().schedule(this::submitFlush, FLUSH_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 立即写入所有待写操作（不等待窗口结束），例如页面进入后台时调用
+     */
+    public void flush() {
+        submitFlush();
+    }
+
+    /**
+     * 立即写入并等待完成，用于测试和需要确认数据落盘的场景
+     * 不能在 diskIO 线程上调用
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 在超时前完成写入返回 true
+     */
+    public boolean awaitFlush(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        long submittedAt = System.nanoTime();
+        executors.diskIO().execute(() -> {
+            try {
+                flushPending(submittedAt);
+            } finally {
+                done.countDown();
+            }
+        });
+        return done.await(timeout, unit);
+    }
+
+    /**
+     * 把一次写入提交到写入通道，记录提交时间用于统计排队时间
+     */
+    private void submitFlush() {
+        long submittedAt = System.nanoTime();
+        executors.diskIO().execute(() -> flushPending(submittedAt));
+    }
+
+    /**
+     * 取出当前所有待写操作，在一个事务中写入，然后发布变更事件并报告失效的行
+     * 只在 diskIO 线程执行
+     * @param submittedAt 提交到写入通道的时间
+     */
+    private void flushPending(long submittedAt) {
+        long waitNanos = System.nanoTime() - submittedAt;
+        Map<String, PendingWrite> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            flushScheduled = false;
+        }
+
+        List<PendingWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch.values()) {
+            if (!write.isEmpty()) {
+                writes.add(write);
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        FollowUserCache.OwnWrite ownWrite = cache.beginOwnWrite();
+        boolean committed = false;
+        long start = metrics.begin(Metric.WRITE_BATCH_SQL);
+        List<FollowChange> changes;
+        try {
+            changes = db.runInTransaction(() -> {
+                List<String> touched = new ArrayList<>(writes.size());
+                for (PendingWrite write : writes) {
+                    if (apply(write)) {
+                        touched.add(write.douyinId);
+                    }
+                }
+                if (!touched.isEmpty()) {
+                    ownWrite.mark();
+                }
+                return collectChanges(touched, batch);
+            });
+            committed = true;
+        } finally {
+            ownWrite.finish(committed);
+            long sqlNanos = metrics.end(Metric.WRITE_BATCH_SQL, start);
+            recordOps(writes, waitNanos, sqlNanos);
+        }
+        syncStore.notifyRecorded();
+        changeLog.publish(changes);
+        List<Long> uids = new ArrayList<>(changes.size());
+        for (int i = 0, size = changes.size(); i < size; i++) {
+            uids.add(changes.get(i).uid);
+        }
+        bus.invalidate(uids);
+    }
+
+    /**
+     * 按操作类型记录排队时间和所在事务的时间（合并到同一次写入的操作共享这两个值）
+     */
+    private void recordOps(List<PendingWrite> writes, long waitNanos, long sqlNanos) {
+        metrics.recordValue(Metric.WRITE_BATCH_SIZE, writes.size());
+        for (int i = 0, size = writes.size(); i < size; i++) {
+            int ops = writes.get(i).ops;
+            if ((ops & PendingWrite.OP_TOGGLE_SPECIAL) != 0) {
+                metrics.recordNanos(Metric.TOGGLE_SPECIAL_WAIT, waitNanos);
+                metrics.recordNanos(Metric.TOGGLE_SPECIAL_SQL, sqlNanos);
+            }
+            if ((ops & PendingWrite.OP_TOGGLE_FOLLOW) != 0) {
+                metrics.recordNanos(Metric.TOGGLE_FOLLOW_WAIT, waitNanos);
+                metrics.recordNanos(Metric.TOGGLE_FOLLOW_SQL, sqlNanos);
+            }
+            if ((ops & PendingWrite.OP_UNFOLLOW) != 0) {
+                metrics.recordNanos(Metric.UNFOLLOW_WAIT, waitNanos);
+                metrics.recordNanos(Metric.UNFOLLOW_SQL, sqlNanos);
+            }
+            if ((ops & PendingWrite.OP_SET_REMARK) != 0) {
+                metrics.recordNanos(Metric.SET_REMARK_WAIT, waitNanos);
+                metrics.recordNanos(Metric.SET_REMARK_SQL, sqlNanos);
+            }
+        }
+    }
+
+    /**
+     * 写入一个抖音号上合并后的操作，每种操作都是一条按抖音号定位的 UPDATE
+     * @return 行存在并已写入返回 true
+     */
+    private boolean apply(PendingWrite write) {
+        String douyinId = write.douyinId;
+        int affected = 0;
+        if (write.status != null) {
+            affected = write.status == 0
+                    ? dao.unfollowByDouyinId(douyinId)
+                    : dao.setStatusByDouyinId(douyinId, write.status);
+        } else if (write.followToggled) {
+            affected = dao.toggleFollowByDouyinId(douyinId);
+        }
+        if (write.specialToggled) {
+            affected = Math.max(affected, dao.toggleSpecialByDouyinId(douyinId));
+        }
+        if (write.remarkSet) {
+            affected = Math.max(affected, dao.setRemarkByDouyinId(douyinId, write.remark));
+        }
+        return affected > 0;
+    }
+
+    /**
+     * 按 SQLite 变量上限分块读回写入后的行，写入缓存并生成变更事件（切换了特别关注的行需要移动位置）
+     * 修改了备注的行同时更新拼音索引；实际改动的字段按写入后的值记入同步发件箱，都与写入在同一事务中
+     */
+    private List<FollowChange> collectChanges(List<String> touched, Map<String, PendingWrite> batch) {
+        List<FollowChange> changes = new ArrayList<>(touched.size());
+        if (touched.isEmpty()) {
+            return changes;
+        }
+        long now = System.currentTimeMillis();
+        List<FollowOutbox> outbox = new ArrayList<>(touched.size());
+        List<FollowUser> users = new ArrayList<>(touched.size());
+        for (int from = 0; from < touched.size(); from += FollowDao.MAX_BATCH_PARAMS) {
+            users.addAll(dao.getUsersByDouyinIds(
+                    touched.subList(from, Math.min(touched.size(), from + FollowDao.MAX_BATCH_PARAMS))));
+        }
+        for (FollowUser user : users) {
+            cache.put(user);
+            PendingWrite write = batch.get(user.douyinId);
+            if (write != null && write.remarkSet) {
+                pinyinIndex.index(user);
+                outbox.add(FollowSyncStore.entry(user, FollowOutbox.FIELD_REMARK, now));
+            }
+            if (write != null && write.specialToggled) {
+                outbox.add(FollowSyncStore.entry(user, FollowOutbox.FIELD_SPECIAL, now));
+            }
+            if (write != null && (write.status != null || write.followToggled)) {
+                outbox.add(FollowSyncStore.entry(user, FollowOutbox.FIELD_STATUS, now));
+            }
+            boolean moved = write != null && write.specialToggled;
+            changes.add(moved ? FollowChange.move(user) : FollowChange.update(user));
+        }
+        syncStore.record(outbox);
+        return changes;
+    }
+
+    /**
+     * 同一抖音号上合并后的待写操作
+     */
+    private static final class PendingWrite {
+        /** 入队过的操作类型（用于统计，即使相互抵消也保留） */
+        static final int OP_TOGGLE_SPECIAL = 1;
+        static final int OP_TOGGLE_FOLLOW = 1 << 1;
+        static final int OP_UNFOLLOW = 1 << 2;
+        static final int OP_SET_REMARK = 1 << 3;
+
+        final String douyinId;
+
+        int ops;
+
+        /** 特别关注切换次数为奇数时为 true */
+        boolean specialToggled;
+
+        /** 关注切换次数为奇数时为 true（在数据库当前状态基础上取反） */
+        boolean followToggled;
+
+        /** 明确设置的关注状态（取消关注），之后的切换在其基础上取反 */
+        @Nullable
+        Integer status;
+
+        boolean remarkSet;
+        String remark;
+
+        PendingWrite(String douyinId) {
+            this.douyinId = douyinId;
+        }
+
+        void toggleSpecial() {
+            specialToggled = !specialToggled;
+        }
+
+        void toggleFollow() {
+            if (status != null) {
+                status = status == 1 ? 0 : 1;
+            } else {
+                followToggled = !followToggled;
+            }
+        }
+
+        void unfollow() {
+            status = 0;
+            followToggled = false;
+        }
+
+        void setRemark(String remark) {
+            this.remarkSet = true;
+            this.remark = remark;
+        }
+
+        boolean isEmpty() {
+            return !specialToggled && !followToggled && status == null && !remarkSet;
+        }
+    }
+}
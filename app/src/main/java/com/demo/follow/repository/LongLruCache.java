@@ -0,0 +1,232 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+
+/**
+ * 以 long 为键的定长 LRU 缓存
+ * 键保存在原始 long 数组中（开放寻址 + 线性探测），访问顺序用下标双向链表维护，
+ * 读写都不产生装箱对象；超过容量时淘汰最久未访问的条目
+ * 非线程安全，由调用方加锁
+ *
+ * @param <V> 缓存值类型
+ */
+final class LongLruCache<V> {
+
+    private static final int NONE = -1;
+
+    private final int maxSize;
+
+    /**
+     * 条目存储：键、值、LRU 链表前后指针，按槽位下标访问
+     */
+    private final long[] keys;
+    private final Object[] values;
+    private final int[] prev;
+    private final int[] next;
+
+    /**
+     * 哈希表：保存条目槽位下标，NONE 表示空位
+     */
+    private final int[] table;
+    private final int mask;
+
+    /**
+     * LRU 链表头（最近访问）和尾（最久未访问），以及空闲槽位链表
+     */
+    private int head = NONE;
+    private int tail = NONE;
+    private int free;
+    private int size;
+
+    LongLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        keys = new long[maxSize];
+        values = new Object[maxSize];
+        prev = new int[maxSize];
+        next = new int[maxSize];
+
+        // 哈希表容量取不小于 2 倍条目数的 2 的幂，保持较低的装载因子
+        int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1;
+        table = new int[capacity];
+        mask = capacity - 1;
+        clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 读取并标记为最近访问
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = findSlot(key);
+        if (slot == NONE) {
+            return null;
+        }
+        moveToHead(slot);
+        return (V) values[slot];
+    }
+
+    /**
+     * 写入条目；缓存已满时淘汰最久未访问的条目
+     * @return 被淘汰的值，没有淘汰时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        int slot = findSlot(key);
+        if (slot != NONE) {
+            values[slot] = value;
+            moveToHead(slot);
+            return null;
+        }
+
+        V evicted = null;
+        if (size == maxSize) {
+            int victim = tail;
+            evicted = (V) values[victim];
+            removeSlot(victim);
+        }
+
+        slot = free;
+        free = next[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        insertIntoTable(slot);
+        linkHead(slot);
+        size++;
+        return evicted;
+    }
+
+    /**
+     * 删除条目
+     * @return 被删除的值，不存在时返回 null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int slot = findSlot(key);
+        if (slot == NONE) {
+            return null;
+        }
+        V value = (V) values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    void clear() {
+        Arrays.fill(table, NONE);
+        Arrays.fill(values, null);
+        for (int i = 0; i < maxSize; i++) {
+            next[i] = i + 1 < maxSize ? i + 1 : NONE;
+        }
+        free = 0;
+        head = NONE;
+        tail = NONE;
+        size = 0;
+    }
+
+    // ==================== 哈希表 ====================
+
+    @VisibleForTesting
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int findSlot(long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int slot = table[i];
+            if (slot == NONE) {
+                return NONE;
+            }
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private void insertIntoTable(int slot) {
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot;
+    }
+
+    /**
+     * 从哈希表删除槽位，并把后续探测链上的条目前移（不使用墓碑标记）
+     */
+    private void removeFromTable(int slot) {
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != slot) {
+            i = (i + 1) & mask;
+        }
+        table[i] = NONE;
+        for (int j = (i + 1) & mask; table[j] != NONE; j = (j + 1) & mask) {
+            int candidate = table[j];
+            int home = hash(keys[candidate]) & mask;
+            // 条目的理想位置不在 (i, j] 区间内时，才能移动到空出的 i
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                table[i] = candidate;
+                table[j] = NONE;
+                i = j;
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        removeFromTable(slot);
+        unlink(slot);
+        values[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    // ==================== LRU 链表 ====================
+
+    private void linkHead(int slot) {
+        prev[slot] = NONE;
+        next[slot] = head;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NONE) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NONE) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void moveToHead(int slot) {
+        if (slot != head) {
+            unlink(slot);
+            linkHead(slot);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.demo.follow.repository;
+
+import java.util.Arrays;
+
+/**
+ * 对象键到 long 值的定容哈希表（开放寻址 + 线性探测）
+ * 值保存在原始 long 数组中，不产生装箱对象；条目数不能超过构造时给定的上限
+ * 非线程安全，由调用方加锁
+ *
+ * @param <K> 键类型
+ */
+final class ObjectLongMap<K> {
+
+    private final Object[] keys;
+    private final long[] values;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+
+    ObjectLongMap(int maxSize) {
+        this.maxSize = maxSize;
+        // 容量取不小于 2 倍条目数的 2 的幂，保持较低的装载因子
+        int capacity = Integer.highestOneBit(maxSize * 2 - 1) << 1;
+        keys = new Object[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return 键对应的值，不存在时返回 defaultValue
+     */
+    long get(K key, long defaultValue) {
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    void put(K key, long value) {
+        int i = hash(key) & mask;
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size == maxSize) {
+            throw new IllegalStateException("ObjectLongMap is full: " + maxSize);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * 删除键，并把后续探测链上的条目前移（不使用墓碑标记）
+     */
+    void remove(K key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return;
+        }
+        keys[i] = null;
+        size--;
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if (movable) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                keys[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = hash(key) & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,58 @@
+package com.demo.follow.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+/**
+ * 多个订阅者共享的查询结果
+ * 所有页面观察同一个实例，底层 Room 查询只有一个：表失效时只执行一次 SQL，结果分发给每个订阅者。
+ * 订阅按活跃观察者计数（LiveData 在活跃数 0 ↔ 1 时回调 onActive / onInactive）：
+ * 第一个观察者活跃时连接底层查询，最后一个离开时断开，底层查询随之变为非活跃，
+ * 之后的表失效不再执行 SQL，直到再次有观察者
+ * @param <T> 查询结果类型
+ */
+final class SharedQuery<T> extends LiveData<T> {
+
+    /**
+     * 底层查询（通常是 DAO 返回的 Room LiveData），第一次被订阅时创建
+     */
+    interface Source<T> {
+        @NonNull
+        LiveData<T> open();
+    }
+
+    private final Source<T> source;
+    private final Observer<T> relay = this::setValue;
+
+    @Nullable
+    private LiveData<T> upstream;
+
+    SharedQuery(@NonNull Source<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    protected void onActive() {
+        if (upstream == null) {
+            upstream = source.open();
+        }
+        upstream.observeForever(relay);
+    }
+
+    @Override
+    protected void onInactive() {
+        if (upstream != null) {
+            upstream.removeObserver(relay);
+        }
+    }
+
+    /**
+     * 底层查询是否处于连接状态（有活跃订阅者）
+     * @return 连接时返回 true
+     */
+    boolean isConnected() {
+        return upstream != null && upstream.hasObservers();
+    }
+}
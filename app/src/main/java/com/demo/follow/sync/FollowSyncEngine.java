@@ -0,0 +1,341 @@
+package com.demo.follow.sync;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+import com.demo.follow.BuildConfig;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.repository.FollowSyncStore;
+import com.demo.follow.util.AppExecutors;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 关注列表同步引擎
+ * 一次同步先上传发件箱中的本地修改（每批 {@link #PUSH_BATCH} 条），再从保存的游标开始增量拉取，直到没有下一页。
+ * 请求失败时按指数退避（加随机抖动）重试，服务端明确拒绝的请求（4xx）不重试。
+ *
+ * 网络请求和编解码都在同步通道上执行；拉取到的数据由 {@link FollowSyncStore} 分成小事务写入，
+ * 同步期间用户操作的写入最多等待一个小事务。每次请求的往返时间和压缩后的收发字节数记录在 {@link FollowMetrics} 中。
+ * 服务端地址为 BuildConfig.SYNC_BASE_URL，为空时同步关闭，本地修改照常记入发件箱，配置地址后再上传
+ */
+public final class FollowSyncEngine {
+
+    private static final String TAG = "FollowSync";
+
+    /**
+     * 每页拉取的条数
+     */
+    static final int PULL_LIMIT = 500;
+
+    /**
+     * 每次上传的修改条数
+     */
+    static final int PUSH_BATCH = 100;
+
+    /**
+     * 单个请求的最多尝试次数
+     */
+    static final int MAX_ATTEMPTS = 4;
+
+    /**
+     * 一条修改最多参与的上传次数（每次上传内部已按 {@link #MAX_ATTEMPTS} 重试），超过后丢弃
+     */
+    static final int MAX_PUSH_ATTEMPTS = 5;
+
+    /**
+     * 退避时长：第 n 次重试前等待 base * 2^(n-1)，加上最多一半的随机抖动，不超过上限
+     */
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    /**
+     * 本地修改后等待该时长再上传，连续的修改合并到一次请求
+     */
+    private static final long PUSH_DELAY_MS = 2000;
+
+    private static volatile FollowSyncEngine INSTANCE;
+
+    /**
+     * 获取同步引擎单例
+     * @param context 上下文
+     * @return 同步引擎实例
+     */
+    public static FollowSyncEngine get(Context context) {
+        if (INSTANCE == null) {
+            synchronized (FollowSyncEngine.class) {
+                if (INSTANCE == null) {
+                    AppDatabase db = AppDatabase.get(context.getApplicationContext());
+                    String baseUrl = BuildConfig.SYNC_BASE_URL;
+                    INSTANCE = new FollowSyncEngine(FollowSyncStore.get(db),
+                            baseUrl.isEmpty() ? null : new HttpSyncTransport(baseUrl),
+                            AppExecutors.getInstance(), BASE_BACKOFF_MS);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    private final FollowSyncStore store;
+    @Nullable
+    private final SyncTransport transport;
+    private final AppExecutors executors;
+    private final long baseBackoffMs;
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * 已提交到同步通道、尚未开始的同步（期间的请求合并为一次）
+     */
+    private final AtomicBoolean syncQueued = new AtomicBoolean();
+
+    /**
+     * 已安排的延迟上传
+     */
+    private final AtomicBoolean pushScheduled = new AtomicBoolean();
+
+    /**
+     * @param store 本地数据
+     * @param transport 传输层，为 null 时同步关闭
+     * @param executors 执行器
+     * @param baseBackoffMs 第一次重试前的等待时长
+     */
+    @VisibleForTesting
+    FollowSyncEngine(@NonNull FollowSyncStore store, @Nullable SyncTransport transport,
+                     @NonNull AppExecutors executors, long baseBackoffMs) {
+        this.store = store;
+        this.transport = transport;
+        this.executors = executors;
+        this.baseBackoffMs = baseBackoffMs;
+        if (transport != null) {
+            store.setOutboxListener(this::schedulePush);
+        }
+    }
+
+    /**
+     * 同步是否开启（配置了服务端地址）
+     * @return 开启返回 true
+     */
+    public boolean isEnabled() {
+        return transport != null;
+    }
+
+    /**
+     * 应用启动时调用（数据库就绪后）：同步一次，上次运行留在发件箱中的修改随之上传（重复调用只执行一次）
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            requestSync();
+        }
+    }
+
+    /**
+     * 请求一次同步（例如下拉刷新时），已有同步在排队时合并
+     */
+    public void requestSync() {
+        if (transport == null || !syncQueued.compareAndSet(false, true)) {
+            return;
+        }
+        executors.sync().execute(() -> {
+            syncQueued.set(false);
+            try {
+                syncOnce();
+            } catch (IOException e) {
+                Log.w(TAG, "sync failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * 本地修改后延迟安排一次同步，窗口内的修改只触发一次
+     */
+    private void schedulePush() {
+        if (pushScheduled.compareAndSet(false, true)) {
+            executors.scheduler().schedule(() -> {
+                pushScheduled.set(false);
+                requestSync();
+            }, PUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ==================== 同步 ====================
+
+    /**
+     * 执行一次完整同步：先上传，再拉取，在同步通道（或测试线程）上调用
+     * 上传失败不影响拉取，拉取完成后再抛出上传的错误
+     * @throws IOException 重试后仍失败（已完成的批次保留，下次从这里继续）
+     */
+    @WorkerThread
+    void syncOnce() throws IOException, InterruptedException {
+        IOException pushError = null;
+        try {
+            push();
+        } catch (IOException e) {
+            pushError = e;
+        }
+        pull();
+        if (pushError != null) {
+            throw pushError;
+        }
+    }
+
+    /**
+     * 分批上传发件箱，直到发件箱为空或某一批没有任何进展
+     */
+    private void push() throws IOException, InterruptedException {
+        while (true) {
+            List<FollowOutbox> batch = store.pendingMutations(PUSH_BATCH);
+            if (batch.isEmpty() || !pushBatch(batch)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 上传一批修改并记录结果
+     * 服务端以 4xx 拒绝整批时逐条重发，单独被拒绝的修改直接丢弃（重发也不会成功，留着会挡住后面的修改）；
+     * 可重试的失败记一次尝试，超过 {@link #MAX_PUSH_ATTEMPTS} 次的修改同样丢弃
+     * @return 全部修改都有结果返回 true
+     */
+    private boolean pushBatch(List<FollowOutbox> batch) throws IOException, InterruptedException {
+        List<SyncProtocol.PushResult> results;
+        try {
+            byte[] response = call(Metric.SYNC_PUSH, SyncProtocol.PATH_PUSH,
+                    SyncProtocol.encodePushRequest(batch));
+            results = SyncProtocol.decodePushResponse(response);
+        } catch (SyncTransport.StatusException e) {
+            if (e.isRetryable()) {
+                markFailed(batch);
+                throw e;
+            }
+            if (batch.size() == 1) {
+                Log.w(TAG, "push: dropping mutation rejected with " + e.getMessage());
+                store.dropMutations(ids(batch));
+                return true;
+            }
+            for (FollowOutbox mutation : batch) {
+                pushBatch(Collections.singletonList(mutation));
+            }
+            return true;
+        } catch (IOException e) {
+            markFailed(batch);
+            throw e;
+        }
+        metrics.recordValue(Metric.SYNC_PUSH_SIZE, batch.size());
+
+        Map<Long, FollowOutbox> sent = new HashMap<>(batch.size() * 2);
+        for (FollowOutbox mutation : batch) {
+            sent.put(mutation.id, mutation);
+        }
+        List<Long> accepted = new ArrayList<>(results.size());
+        List<FollowOutbox> rejected = new ArrayList<>();
+        for (SyncProtocol.PushResult result : results) {
+            FollowOutbox mutation = sent.get(result.id);
+            if (mutation == null) {
+                continue;
+            }
+            if (result.accepted) {
+                accepted.add(result.id);
+            } else {
+                // 服务端的值更新：带着服务端的值交给本地，按字段覆盖
+                FollowOutbox server = FollowOutbox.of(mutation.douyinId, mutation.field,
+                        result.value, mutation.changedAt);
+                server.id = mutation.id;
+                rejected.add(server);
+            }
+        }
+        store.completePush(accepted, rejected);
+        int unanswered = batch.size() - accepted.size() - rejected.size();
+        if (unanswered > 0) {
+            // 服务端没有给出全部结果，剩下的留到下次同步，避免反复上传同一批
+            Log.w(TAG, "push: " + unanswered + " mutations unanswered");
+            return false;
+        }
+        return true;
+    }
+
+    private void markFailed(List<FollowOutbox> batch) throws InterruptedException {
+        int dropped = store.markAttempted(ids(batch), MAX_PUSH_ATTEMPTS);
+        if (dropped > 0) {
+            Log.w(TAG, "push: dropping " + dropped + " mutations after " + MAX_PUSH_ATTEMPTS + " attempts");
+        }
+    }
+
+    /**
+     * 从保存的游标开始逐页拉取，每页写入后游标随之保存
+     */
+    private void pull() throws IOException, InterruptedException {
+        long cursor = store.cursor();
+        SyncProtocol.PullResponse page;
+        do {
+            byte[] response = call(Metric.SYNC_PULL, SyncProtocol.PATH_PULL,
+                    SyncProtocol.encodePullRequest(cursor, PULL_LIMIT));
+            page = SyncProtocol.decodePullResponse(response);
+            store.applyRemote(page.changes, page.cursor);
+            cursor = page.cursor;
+        } while (page.hasMore);
+    }
+
+    /**
+     * 发送请求，可重试的失败按退避时长等待后重试
+     * 每次尝试记录往返时间和收发字节数
+     */
+    private byte[] call(Metric latency, String path, byte[] body) throws IOException, InterruptedException {
+        SyncTransport transport = this.transport;
+        if (transport == null) {
+            throw new IOException("Sync is not configured");
+        }
+        for (int attempt = 1; ; attempt++) {
+            metrics.recordValue(Metric.SYNC_BYTES_OUT, body.length);
+            long start = metrics.begin(latency);
+            try {
+                byte[] response = transport.post(path, body);
+                metrics.recordValue(Metric.SYNC_BYTES_IN, response.length);
+                return response;
+            } catch (IOException e) {
+                boolean retryable = !(e instanceof SyncTransport.StatusException)
+                        || ((SyncTransport.StatusException) e).isRetryable();
+                if (!retryable || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Log.w(TAG, path + " failed (attempt " + attempt + "), retrying", e);
+            } finally {
+                metrics.end(latency, start);
+            }
+            Thread.sleep(backoffMs(attempt));
+        }
+    }
+
+    /**
+     * 第 attempt 次失败后的等待时长
+     */
+    private long backoffMs(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, baseBackoffMs << Math.min(attempt - 1, 16));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static List<Long> ids(List<FollowOutbox> mutations) {
+        List<Long> ids = new ArrayList<>(mutations.size());
+        for (FollowOutbox mutation : mutations) {
+            ids.add(mutation.id);
+        }
+        return ids;
+    }
+}
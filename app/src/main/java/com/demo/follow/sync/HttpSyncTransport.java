@@ -0,0 +1,70 @@
+package com.demo.follow.sync;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * 基于 HttpURLConnection 的同步传输
+ * 请求体已压缩，用 Content-Encoding 标明；显式声明 Accept-Encoding 后 HttpURLConnection 不再自动解压，
+ * 响应原样返回，由 {@link SyncProtocol} 解压，流量统计的是实际传输的字节数
+ */
+final class HttpSyncTransport implements SyncTransport {
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl 服务端地址（不含末尾的 /），接口路径拼接在其后
+     */
+    HttpSyncTransport(@NonNull String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @NonNull
+    @Override
+    public byte[] post(@NonNull String path, @NonNull byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int code = connection.getResponseCode();
+            if (code < 200 || code >= 300) {
+                throw new StatusException(code);
+            }
+            // 读完并关闭响应流即可，不调用 disconnect，连接留在连接池中供下一个请求复用
+            try (InputStream in = connection.getInputStream()) {
+                return readAll(in);
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8 * 1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,179 @@
+package com.demo.follow.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 同步协议：请求和响应都是 gzip 压缩的 JSON 对象
+ * <pre>
+ * 增量拉取 POST /follows/changes
+ *   请求：{"cursor": 上次的游标（0 表示全量）, "limit": 每页条数}
+ *   响应：{"changes": [用户], "cursor": 这一页之后的游标, "hasMore": 是否还有下一页}
+ *   用户：{"douyinId", "nick", "avatar", "isSpecial", "remark", "followTime", "status"}，
+ *   取消关注的用户以 status = 0 返回
+ * 上传修改 POST /follows/mutations
+ *   请求：{"mutations": [{"id", "douyinId", "field", "value", "changedAt"}]}
+ *   响应：{"results": [{"id", "accepted", "value"}]}，
+ *   服务端该字段的修改时间更新时拒绝（accepted = false），value 为服务端的当前值
+ * </pre>
+ * 游标是服务端的版本号，由服务端解释，客户端只负责原样保存和回传。
+ * 这里只有客户端一侧的编解码，服务端一侧在测试代码中（模拟服务端使用）
+ */
+final class SyncProtocol {
+
+    static final String PATH_PULL = "/follows/changes";
+    static final String PATH_PUSH = "/follows/mutations";
+
+    private SyncProtocol() {
+    }
+
+    /**
+     * 一页拉取结果
+     */
+    static final class PullResponse {
+        @NonNull
+        final List<FollowUser> changes;
+        final long cursor;
+        final boolean hasMore;
+
+        PullResponse(@NonNull List<FollowUser> changes, long cursor, boolean hasMore) {
+            this.changes = changes;
+            this.cursor = cursor;
+            this.hasMore = hasMore;
+        }
+    }
+
+    /**
+     * 一条修改的上传结果
+     */
+    static final class PushResult {
+        final long id;
+        final boolean accepted;
+        /** 被拒绝时为服务端的当前值 */
+        @Nullable
+        final String value;
+
+        PushResult(long id, boolean accepted, @Nullable String value) {
+            this.id = id;
+            this.accepted = accepted;
+            this.value = value;
+        }
+    }
+
+    // ==================== 拉取 ====================
+
+    static byte[] encodePullRequest(long cursor, int limit) throws IOException {
+        try {
+            return encode(new JSONObject().put("cursor", cursor).put("limit", limit));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static PullResponse decodePullResponse(@NonNull byte[] body) throws IOException {
+        try {
+            JSONObject json = decode(body);
+            JSONArray array = json.getJSONArray("changes");
+            List<FollowUser> changes = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                changes.add(userFromJson(array.getJSONObject(i)));
+            }
+            return new PullResponse(changes, json.getLong("cursor"), json.optBoolean("hasMore"));
+        } catch (JSONException e) {
+            throw new IOException("Malformed pull response", e);
+        }
+    }
+
+    // ==================== 上传 ====================
+
+    static byte[] encodePushRequest(@NonNull List<FollowOutbox> mutations) throws IOException {
+        try {
+            JSONArray array = new JSONArray();
+            for (FollowOutbox mutation : mutations) {
+                array.put(new JSONObject()
+                        .put("id", mutation.id)
+                        .put("douyinId", mutation.douyinId)
+                        .put("field", mutation.field)
+                        .put("value", mutation.value == null ? JSONObject.NULL : mutation.value)
+                        .put("changedAt", mutation.changedAt));
+            }
+            return encode(new JSONObject().put("mutations", array));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    static List<PushResult> decodePushResponse(@NonNull byte[] body) throws IOException {
+        try {
+            JSONArray array = decode(body).getJSONArray("results");
+            List<PushResult> results = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject json = array.getJSONObject(i);
+                results.add(new PushResult(json.getLong("id"), json.getBoolean("accepted"),
+                        optString(json, "value")));
+            }
+            return results;
+        } catch (JSONException e) {
+            throw new IOException("Malformed push response", e);
+        }
+    }
+
+    // ==================== 编码工具 ====================
+
+    private static FollowUser userFromJson(JSONObject json) throws JSONException {
+        FollowUser user = new FollowUser();
+        user.douyinId = json.getString("douyinId");
+        user.nick = optString(json, "nick");
+        user.avatar = optString(json, "avatar");
+        user.isSpecial = json.optBoolean("isSpecial");
+        user.remark = optString(json, "remark");
+        user.followTime = json.optLong("followTime");
+        user.status = json.optInt("status", 1);
+        return user;
+    }
+
+    /**
+     * 可为 null 的字符串字段（JSONObject.optString 会把 null 变成 "null" 或 ""）
+     */
+    @Nullable
+    static String optString(JSONObject json, String name) throws JSONException {
+        return json.isNull(name) ? null : json.getString(name);
+    }
+
+    static byte[] encode(JSONObject json) throws IOException {
+        byte[] raw = json.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    static JSONObject decode(byte[] body) throws IOException, JSONException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 4);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[8 * 1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return new JSONObject(new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
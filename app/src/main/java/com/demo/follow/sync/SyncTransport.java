@@ -0,0 +1,46 @@
+package com.demo.follow.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+
+/**
+ * 同步请求的传输层
+ * 请求体和响应体都是 gzip 压缩后的 JSON（格式见 {@link SyncProtocol}），传输层只负责收发字节；
+ * 正式实现为 {@link HttpSyncTransport}，测试中换成进程内的模拟服务端
+ */
+public interface SyncTransport {
+
+    /**
+     * 发送一个请求并返回响应体，在同步通道上调用
+     * @param path 接口路径（{@link SyncProtocol#PATH_PULL} / {@link SyncProtocol#PATH_PUSH}）
+     * @param body 压缩后的请求体
+     * @return 压缩后的响应体
+     * @throws StatusException 服务端返回错误状态
+     * @throws IOException 网络错误
+     */
+    @WorkerThread
+    @NonNull
+    byte[] post(@NonNull String path, @NonNull byte[] body) throws IOException;
+
+    /**
+     * 服务端返回了错误状态码
+     */
+    final class StatusException extends IOException {
+        public final int code;
+
+        public StatusException(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+
+        /**
+         * 服务端错误和限流可以重试，其余客户端错误重试也不会成功
+         * @return 可以重试返回 true
+         */
+        public boolean isRetryable() {
+            return code >= 500 || code == 429 || code == 408;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.demo.follow.ui;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.util.AvatarLoader;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 关注列表头像预加载
+ * 滑动时提前为即将进入屏幕的行解码并裁剪头像，绑定时直接命中内存缓存
+ */
+class AvatarPreloadProvider implements ListPreloader.PreloadModelProvider<String> {
+
+    /**
+     * 按位置读取已加载的行，未加载或越界时返回 null（不触发加载）
+     */
+    interface RowSource {
+        @Nullable
+        FollowRow rowAt(int position);
+    }
+
+    private final Context context;
+    private final RequestManager requestManager;
+    private final int size;
+    private final RowSource source;
+
+    AvatarPreloadProvider(@NonNull Context context, @NonNull RequestManager requestManager,
+                          int size, @NonNull RowSource source) {
+        this.context = context;
+        this.requestManager = requestManager;
+        this.size = size;
+        this.source = source;
+    }
+
+    @NonNull
+    @Override
+    public List<String> getPreloadItems(int position) {
+        FollowRow row = source.rowAt(position);
+        if (row == null || row.avatar == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(row.avatar);
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull String avatar) {
+        // 与 AvatarLoader.load 的请求配置一致，预加载结果才能被绑定复用
+        return AvatarLoader.request(context, requestManager, avatar, size);
+    }
+}
@@ -3,82 +3,355 @@ package com.demo.follow.ui;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.CheckBox;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.ListAdapter;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.demo.follow.R;
-import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.repository.FollowChange;
 import com.demo.follow.repository.FollowRepository;
+import com.demo.follow.util.AppExecutors;
 import com.demo.follow.util.AvatarLoader;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 关注列表适配器
- * 使用 ListAdapter + DiffUtil 实现高效数据更新
+ * 单行写入通过 {@link #applyChange(FollowChange)} 直接定位并局部刷新；
+ * 全量数据通过 {@link #submitList(List)} 在后台做 DiffUtil 比对，仅作为兜底；
+ * 多选状态由 {@link FollowSelection} 记录，选中变化时页面以 {@link FollowDiffUtil#PAYLOAD_SELECTION} 局部刷新
  */
-public class FollowAdapter extends ListAdapter<FollowUser, FollowAdapter.VH> {
+public class FollowAdapter extends RecyclerView.Adapter<FollowAdapter.VH> {
 
     /**
-     * 更多按钮点击回调接口（传抖音号）
+     * 更多按钮点击回调接口（传当前展示的行，操作面板直接使用，不再查询）
      */
     public interface OnMoreClick {
-        void click(String douyinId,int status);
+        void click(@NonNull FollowRow row);
     }
 
     private final FollowRepository repository;
     private final OnMoreClick callback;
+    private final FollowSelection selection;
+    private final FollowDiffUtil diffCallback = new FollowDiffUtil();
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    /**
+     * 当前展示的数据，只在主线程修改
+     */
+    private final List<FollowRow> items = new ArrayList<>();
+
+    /**
+     * 最近一次提交的全量数据，以及后台比对的代次
+     * 比对期间列表被局部修改时，旧的比对结果作废并基于最新数据重新比对
+     */
+    @Nullable
+    private List<FollowRow> pendingList;
+    private int generation;
 
     public FollowAdapter(FollowRepository repository, OnMoreClick callback) {
-        super(new FollowDiffUtil());
+        this(repository, callback, new FollowSelection());
+    }
+
+    public FollowAdapter(FollowRepository repository, OnMoreClick callback, FollowSelection selection) {
         this.repository = repository;
         this.callback = callback;
+        this.selection = selection;
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * 按位置读取当前展示的行
+     * @param position 列表位置
+     * @return 该位置的行，越界时返回 null
+     */
+    @Nullable
+    public FollowRow getItem(int position) {
+        return position >= 0 && position < items.size() ? items.get(position) : null;
+    }
+
+    /**
+     * 提交全量数据（首次加载或全量刷新）
+     * 首次加载直接插入，之后在计算线程做差异比对再分发到主线程
+     * @param list 新的完整列表
+     */
+    @MainThread
+    public void submitList(@Nullable List<FollowRow> list) {
+        List<FollowRow> newList = list == null ? Collections.emptyList() : list;
+        metrics.recordValue(Metric.LIST_EMISSION_SIZE, newList.size());
+        pendingList = newList;
+        int runGeneration = ++generation;
+
+        if (items.isEmpty() || newList.isEmpty()) {
+            int oldSize = items.size();
+            items.clear();
+            items.addAll(newList);
+            pendingList = null;
+            if (oldSize > 0) {
+                notifyItemRangeRemoved(0, oldSize);
+            }
+            notifyItemRangeInserted(0, newList.size());
+            return;
+        }
+
+        List<FollowRow> oldList = new ArrayList<>(items);
+        executors.computation().execute(() -> {
+            long start = metrics.begin(Metric.LIST_DIFF);
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return oldList.size();
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return newList.size();
+                }
+
+                @Override
+                public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                    return diffCallback.areItemsTheSame(oldList.get(oldPosition), newList.get(newPosition));
+                }
+
+                @Override
+                public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                    return diffCallback.areContentsTheSame(oldList.get(oldPosition), newList.get(newPosition));
+                }
+
+                @Nullable
+                @Override
+                public Object getChangePayload(int oldPosition, int newPosition) {
+                    return diffCallback.getChangePayload(oldList.get(oldPosition), newList.get(newPosition));
+                }
+            });
+            metrics.end(Metric.LIST_DIFF, start);
+
+            executors.mainThread().execute(() -> {
+                if (runGeneration != generation) {
+                    // 比对期间列表被局部修改过，仍是最新数据时重新比对
+                    if (pendingList == newList) {
+                        submitList(newList);
+                    }
+                    return;
+                }
+                pendingList = null;
+                items.clear();
+                items.addAll(newList);
+                result.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    /**
+     * 应用单行变更，直接定位到行做插入、移动、局部刷新或删除
+     * @param change 变更事件（RESET 由调用方走全量刷新）
+     */
+    @MainThread
+    public void applyChange(@NonNull FollowChange change) {
+        generation++;
+        FollowRow row = change.user == null ? null : FollowRow.from(change.user);
+        int oldPosition = indexOf(change.uid);
+
+        switch (change.type) {
+            case INSERT:
+            case UPDATE:
+            case MOVE:
+                if (row == null) {
+                    return;
+                }
+                if (oldPosition < 0) {
+                    int position = insertionPoint(row);
+                    items.add(position, row);
+                    notifyItemInserted(position);
+                    return;
+                }
+                FollowRow oldRow = items.get(oldPosition);
+                Object payload = diffCallback.getChangePayload(oldRow, row);
+                if (FollowRow.LIST_ORDER.compare(oldRow, row) == 0) {
+                    items.set(oldPosition, row);
+                    notifyItemChanged(oldPosition, payload);
+                    return;
+                }
+                items.remove(oldPosition);
+                int newPosition = insertionPoint(row);
+                items.add(newPosition, row);
+                notifyItemMoved(oldPosition, newPosition);
+                notifyItemChanged(newPosition, payload);
+                return;
+            case REMOVE:
+                if (oldPosition >= 0) {
+                    items.remove(oldPosition);
+                    notifyItemRemoved(oldPosition);
+                }
+                return;
+            default:
+                break;
+        }
+    }
+
+    private int indexOf(long uid) {
+        for (int i = 0, size = items.size(); i < size; i++) {
+            if (items.get(i).uid == uid) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按列表排序二分查找插入位置
+     */
+    private int insertionPoint(FollowRow row) {
+        int index = Collections.binarySearch(items, row, FollowRow.LIST_ORDER);
+        return index >= 0 ? index : -(index + 1);
     }
 
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View itemView = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_follow, parent, false);
-        return new VH(itemView);
+        long start = metrics.begin(Metric.ADAPTER_CREATE);
+        VH holder = VH.create(parent);
+        metrics.end(Metric.ADAPTER_CREATE, start);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        FollowUser user = getItem(position);
-        String displayName = getDisplayName(user);
-
-        // 设置用户基本信息
-        holder.name.setText(displayName);
-        holder.tag.setVisibility(user.isSpecial ? View.VISIBLE : View.GONE);
-        holder.root.setBackgroundColor(user.isSpecial ? 0xFFF5F5F5 : 0xFFFFFFFF);
-        AvatarLoader.load(holder.itemView.getContext(), holder.avatar, user.avatar);
-
-        // 设置关注按钮状态
-        holder.btn.setText(user.status == 1 ? "已关注" : "关注");
-        holder.btn.setTextColor(user.status == 1 ? 0xFF333333 : 0xFFFFFFFF);
-        holder.btn.setBackgroundResource(user.status == 1 ? R.drawable.bg_btn_gray : R.drawable.bg_btn_red);
-
-        // 设置点击事件
-        holder.btn.setOnClickListener(v -> repository.toggleFollow(user.douyinId));
-        holder.more.setOnClickListener(v -> callback.click(user.douyinId, user.status));
+        long start = metrics.begin(Metric.ADAPTER_BIND);
+        bindRow(holder, items.get(position), repository, callback, selection);
+        metrics.end(Metric.ADAPTER_BIND, start);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            long start = metrics.begin(Metric.ADAPTER_BIND_PARTIAL);
+            bindPartial(holder, items.get(position), payloads, repository, callback, selection);
+            metrics.end(Metric.ADAPTER_BIND_PARTIAL, start);
+        }
+    }
+
+    /**
+     * 绑定一行用户数据，全量列表和分页列表共用
+     */
+    static void bindRow(@NonNull VH holder, @NonNull FollowRow row,
+                         FollowRepository repository, OnMoreClick callback, FollowSelection selection) {
+        bindName(holder, row);
+        bindSpecial(holder, row);
+        AvatarLoader.load(holder.itemView.getContext(), holder.avatar, row.avatar);
+        bindFollowButton(holder, row);
+        bindSelection(holder, row, selection);
+        bindListeners(holder, row, repository, callback, selection);
+    }
+
+    /**
+     * 按 payload 只重新绑定变化的控件
+     * 点击事件捕获了行数据，所以总是重新设置
+     */
+    static void bindPartial(@NonNull VH holder, @NonNull FollowRow row, @NonNull List<Object> payloads,
+                            FollowRepository repository, OnMoreClick callback, FollowSelection selection) {
+        int flags = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer) {
+                flags |= (Integer) payload;
+            }
+        }
+        if ((flags & FollowDiffUtil.PAYLOAD_NAME) != 0) {
+            bindName(holder, row);
+        }
+        if ((flags & FollowDiffUtil.PAYLOAD_SPECIAL) != 0) {
+            bindSpecial(holder, row);
+        }
+        if ((flags & FollowDiffUtil.PAYLOAD_FOLLOW) != 0) {
+            bindFollowButton(holder, row);
+        }
+        if ((flags & (FollowDiffUtil.PAYLOAD_FOLLOW | FollowDiffUtil.PAYLOAD_SELECTION)) != 0) {
+            bindSelection(holder, row, selection);
+        }
+        bindListeners(holder, row, repository, callback, selection);
+    }
+
+    private static void bindName(VH holder, FollowRow row) {
+        holder.name.setText(row.displayName);
+    }
+
+    private static void bindSpecial(VH holder, FollowRow row) {
+        holder.tag.setVisibility(row.isSpecial ? View.VISIBLE : View.GONE);
+        holder.root.setBackgroundColor(row.isSpecial ? 0xFFF5F5F5 : 0xFFFFFFFF);
+    }
+
+    private static void bindFollowButton(VH holder, FollowRow row) {
+        holder.btn.setVisibility(View.VISIBLE);
+        holder.btn.setText(row.status == 1 ? "已关注" : "关注");
+        holder.btn.setTextColor(row.status == 1 ? 0xFF333333 : 0xFFFFFFFF);
+        holder.btn.setBackgroundResource(row.status == 1 ? R.drawable.bg_btn_gray : R.drawable.bg_btn_red);
+    }
+
+    /**
+     * 多选模式下显示复选框，隐藏关注和更多按钮，避免误触单行操作
+     */
+    private static void bindSelection(VH holder, FollowRow row, FollowSelection selection) {
+        boolean selecting = selection.isActive();
+        holder.select.setVisibility(selecting ? View.VISIBLE : View.GONE);
+        holder.select.setChecked(selection.isSelected(row.uid));
+        holder.btn.setVisibility(selecting ? View.INVISIBLE : View.VISIBLE);
+        holder.more.setVisibility(selecting ? View.INVISIBLE : View.VISIBLE);
+    }
+
+    private static void bindListeners(VH holder, FollowRow row, FollowRepository repository,
+                                      OnMoreClick callback, FollowSelection selection) {
+        String displayName = row.displayName;
+        long uid = row.uid;
+        holder.btn.setOnClickListener(v -> repository.toggleFollow(row.douyinId));
+        holder.more.setOnClickListener(v -> callback.click(row));
         holder.itemView.setOnClickListener(v -> {
+            if (selection.isActive()) {
+                selection.toggle(uid);
+                return;
+            }
             Toast.makeText(v.getContext().getApplicationContext(),
                     "已选中" + displayName, Toast.LENGTH_SHORT).show();
         });
+        holder.itemView.setOnLongClickListener(v -> {
+            selection.start(uid);
+            return true;
+        });
     }
 
     /**
-     * 获取显示名称（优先使用备注）
+     * 绑定占位行（分页数据尚未加载到该位置）
+     * 只保留头像占位图，隐藏按钮并清空点击事件，防止操作到复用前的旧数据
      */
-    private String getDisplayName(FollowUser user) {
-        if (user.remark != null && !user.remark.isEmpty()
-                && !"设置备注".equals(user.remark)
-                && !"请输入备注".equals(user.remark)) {
-            return user.remark;
-        }
-        return user.nick;
+    static void bindPlaceholder(@NonNull VH holder) {
+        holder.name.setText(null);
+        holder.tag.setVisibility(View.GONE);
+        holder.select.setVisibility(View.GONE);
+        holder.root.setBackgroundColor(0xFFFFFFFF);
+        AvatarLoader.clear(holder.itemView.getContext(), holder.avatar);
+
+        holder.btn.setVisibility(View.INVISIBLE);
+        holder.more.setVisibility(View.INVISIBLE);
+        holder.btn.setOnClickListener(null);
+        holder.more.setOnClickListener(null);
+        holder.itemView.setOnClickListener(null);
+        holder.itemView.setOnLongClickListener(null);
     }
 
     /**
@@ -91,6 +364,13 @@ public class FollowAdapter extends ListAdapter<FollowUser, FollowAdapter.VH> {
         TextView tag;
         ImageView avatar;
         ImageView more;
+        CheckBox select;
+
+        static VH create(@NonNull ViewGroup parent) {
+            View itemView = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_follow, parent, false);
+            return new VH(itemView);
+        }
 
         VH(View itemView) {
             super(itemView);
@@ -100,6 +380,7 @@ public class FollowAdapter extends ListAdapter<FollowUser, FollowAdapter.VH> {
             btn = itemView.findViewById(R.id.btn_follow);
             more = itemView.findViewById(R.id.btn_more);
             tag = itemView.findViewById(R.id.tv_tag);
+            select = itemView.findViewById(R.id.cb_select);
         }
     }
-}
\ No newline at end of file
+}
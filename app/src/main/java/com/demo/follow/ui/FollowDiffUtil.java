@@ -1,28 +1,71 @@
 package com.demo.follow.ui;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
-import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.FollowRow;
 import java.util.Objects;
 
 /**
  * 关注用户列表的 DiffUtil 回调
  * 用于高效计算列表数据差异，实现 RecyclerView 的局部刷新
  */
-public class FollowDiffUtil extends DiffUtil.ItemCallback<FollowUser> {
+public class FollowDiffUtil extends DiffUtil.ItemCallback<FollowRow> {
+
+    /**
+     * 局部刷新标记：关注按钮
+     */
+    static final int PAYLOAD_FOLLOW = 1;
+
+    /**
+     * 局部刷新标记：特别关注标签和背景
+     */
+    static final int PAYLOAD_SPECIAL = 1 << 1;
+
+    /**
+     * 局部刷新标记：显示名称（备注或昵称）
+     */
+    static final int PAYLOAD_NAME = 1 << 2;
+
+    /**
+     * 局部刷新标记：多选状态（不由数据差异产生，进入 / 退出多选或切换选中时由页面发出）
+     */
+    static final int PAYLOAD_SELECTION = 1 << 3;
 
     @Override
-    public boolean areItemsTheSame(@NonNull FollowUser oldItem, @NonNull FollowUser newItem) {
+    public boolean areItemsTheSame(@NonNull FollowRow oldItem, @NonNull FollowRow newItem) {
         // 通过唯一 ID 判断是否为同一用户
         return oldItem.uid == newItem.uid;
     }
 
     @Override
-    public boolean areContentsTheSame(@NonNull FollowUser oldItem, @NonNull FollowUser newItem) {
+    public boolean areContentsTheSame(@NonNull FollowRow oldItem, @NonNull FollowRow newItem) {
         // 比较所有展示相关的字段
         return oldItem.status == newItem.status
                 && oldItem.isSpecial == newItem.isSpecial
-                && Objects.equals(oldItem.remark, newItem.remark)
-                && Objects.equals(oldItem.nick, newItem.nick);
+                && Objects.equals(oldItem.displayName, newItem.displayName);
+    }
+
+    /**
+     * 计算变化的控件，只重新绑定这些控件（头像不变时不会重新加载）
+     * @return PAYLOAD_* 标记的组合，无法局部刷新时返回 null
+     */
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull FollowRow oldItem, @NonNull FollowRow newItem) {
+        if (!Objects.equals(oldItem.avatar, newItem.avatar)) {
+            return null;
+        }
+        int payload = 0;
+        if (oldItem.status != newItem.status) {
+            payload |= PAYLOAD_FOLLOW;
+        }
+        if (oldItem.isSpecial != newItem.isSpecial) {
+            payload |= PAYLOAD_SPECIAL;
+        }
+        if (!Objects.equals(oldItem.displayName, newItem.displayName)) {
+            payload |= PAYLOAD_NAME;
+        }
+        return payload == 0 ? null : payload;
     }
-}
\ No newline at end of file
+}
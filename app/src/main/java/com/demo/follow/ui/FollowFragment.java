@@ -6,29 +6,53 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.activity.OnBackPressedCallback;
+import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
 import com.demo.follow.R;
-import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.DatabaseWarmup;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.repository.FollowChange;
 import com.demo.follow.repository.FollowRepository;
+import com.demo.follow.sync.FollowSyncEngine;
+import com.demo.follow.util.AvatarLoader;
 
 /**
  * 关注列表 Fragment
- * 展示已关注的用户列表，支持下拉刷新和取消关注操作
+ * 展示已关注的用户列表，支持下拉刷新和取消关注操作；长按进入多选，对选中的行批量取消关注或设为特别关注
+ * 视图创建时只加载布局，第一次显示（onResume）时才创建仓库、建立数据观察；
+ * 不可见时可以由 RelationshipsFragment 通知释放列表数据
  */
-public class FollowFragment extends Fragment {
+public class FollowFragment extends Fragment implements RelationshipsFragment.LazyPage {
 
     /**
-     * 负责关注数据的管理
+     * 关注数达到该阈值时改用分页列表
+     * 小列表保持全量 ListAdapter（动画完整），大列表只在内存中保留可见窗口
      */
+    private static final int PAGING_THRESHOLD = 1000;
+
+    /**
+     * 滑动方向上提前预加载头像的行数（约一屏）
+     */
+    private static final int AVATAR_PRELOAD_COUNT = 12;
+
+    /**
+     * 负责关注数据的管理，第一次显示时创建
+     */
+    @Nullable
     private FollowRepository repository;
 
     /**
-     * 列表适配器
+     * 列表控件
      */
-    private FollowAdapter adapter;
+    private RecyclerView recyclerView;
 
     /**
      * 标题文本，显示关注数量
@@ -40,69 +64,251 @@ public class FollowFragment extends Fragment {
      */
     private SwipeRefreshLayout swipeRefresh;
 
+    /**
+     * 多选操作栏和选中数
+     */
+    private View selectionBar;
+    private TextView tvSelectionCount;
+
+    /**
+     * 多选状态，全量列表和分页列表共用；多选模式下返回键退出多选
+     */
+    private final FollowSelection selection = new FollowSelection();
+    private final OnBackPressedCallback exitSelection = new OnBackPressedCallback(false) {
+        @Override
+        public void handleOnBackPressed() {
+            selection.clear();
+        }
+    };
+
+    /**
+     * 数据观察是否已建立（等待数据库预热完成后建立一次）
+     */
+    private boolean observersAttached;
+
+    /**
+     * 本次数据观察的生命周期，为 null 表示数据尚未加载或已释放
+     */
+    @Nullable
+    private PageDataOwner dataOwner;
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         View rootView = inflater.inflate(R.layout.fragment_follow, container, false);
 
-        // 初始化数据仓库
-        repository = new FollowRepository(requireContext());
-
         // 初始化视图
         initViews(rootView);
 
         // 设置 RecyclerView
         setupRecyclerView(rootView);
 
-        // 设置数据观察
-        setupObservers();
-
         // 设置事件监听
         setupListeners();
 
         return rootView;
     }
 
+    @Override
+    public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        requireActivity().getOnBackPressedDispatcher().addCallback(getViewLifecycleOwner(), exitSelection);
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        // 第一次显示（或释放数据后再次显示）时加载数据
+        if (dataOwner == null) {
+            attachData();
+        }
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        // 页面不可见时立即写入合并窗口内的操作，避免进程被回收时丢失
+        if (repository != null) {
+            repository.flush();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        // 视图生命周期结束时数据观察已随之结束
+        dataOwner = null;
+        recyclerView = null;
+        selection.setListener(null);
+        selection.clear();
+        exitSelection.setEnabled(false);
+    }
+
+    /**
+     * 创建仓库，数据库预热完成后再设置数据观察
+     */
+    private void attachData() {
+        if (repository == null) {
+            repository = FollowRepository.get(requireContext());
+        }
+        dataOwner = new PageDataOwner(getViewLifecycleOwner().getLifecycle());
+        waitForDatabase(dataOwner);
+    }
+
+    /**
+     * 释放列表数据：结束数据观察，移除适配器（连同其中的数据和行视图），下次显示时重新加载
+     */
+    @Override
+    public void releaseData() {
+        if (dataOwner == null) {
+            return;
+        }
+        dataOwner.release();
+        dataOwner = null;
+        observersAttached = false;
+        selection.clear();
+        if (recyclerView != null) {
+            recyclerView.clearOnScrollListeners();
+            recyclerView.setAdapter(null);
+            recyclerView.getRecycledViewPool().clear();
+        }
+    }
+
     /**
      * 初始化视图组件
      */
     private void initViews(View rootView) {
         tvCount = rootView.findViewById(R.id.tv_title);
         swipeRefresh = rootView.findViewById(R.id.swipe);
+        selectionBar = rootView.findViewById(R.id.selection_bar);
+        tvSelectionCount = rootView.findViewById(R.id.tv_selection_count);
     }
 
     /**
      * 配置 RecyclerView
      */
     private void setupRecyclerView(View rootView) {
-        RecyclerView recyclerView = rootView.findViewById(R.id.recycler);
+        recyclerView = rootView.findViewById(R.id.recycler);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setItemViewCacheSize(20);
+    }
 
-        adapter = new FollowAdapter(
-                repository,
-                (douyinId, status) -> {
-                    if (status == 0) {
-                        Toast.makeText(requireContext(), "已取关，无法使用", Toast.LENGTH_SHORT).show();
-                    } else {
-                        UserActionBottomSheet.showForUser(getChildFragmentManager(), douyinId);
+    /**
+     * 等待数据库打开并预热完成（MainActivity 已启动预热，这里重复调用无副作用）
+     */
+    private void waitForDatabase(PageDataOwner owner) {
+        DatabaseWarmup warmup = DatabaseWarmup.get(requireContext());
+        warmup.start();
+        observersAttached = false;
+        warmup.isReady().observe(owner, ready -> {
+            if (Boolean.TRUE.equals(ready) && !observersAttached) {
+                observersAttached = true;
+                setupObservers(owner);
+            }
+        });
+    }
+
+    /**
+     * 设置数据观察
+     * 首次拿到关注数后再决定使用全量列表还是分页列表
+     * @param owner 本次数据观察的生命周期
+     */
+    private void setupObservers(PageDataOwner owner) {
+        repository.getCount().observe(owner, count -> {
+            tvCount.setText("我的关注（" + count + "人）");
+            if (recyclerView.getAdapter() == null) {
+                if (count != null && count >= PAGING_THRESHOLD) {
+                    attachPagedList(owner);
+                } else {
+                    attachFullList(owner);
+                }
+                reportFirstRow(recyclerView.getAdapter());
+            }
+        });
+    }
+
+    /**
+     * 列表首次插入数据时记录启动耗时，并通知系统首屏内容已完整显示
+     * （reportFullyDrawn，启动基准测试据此统计 timeToFullDisplay）
+     */
+    private void reportFirstRow(RecyclerView.Adapter<?> adapter) {
+        DatabaseWarmup warmup = DatabaseWarmup.get(requireContext());
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                if (itemCount > 0) {
+                    adapter.unregisterAdapterDataObserver(this);
+                    warmup.reportFirstRow();
+                    if (getActivity() != null) {
+                        getActivity().reportFullyDrawn();
                     }
                 }
-        );
-        recyclerView.setAdapter(adapter);
+            }
+        });
     }
 
     /**
-     * 设置数据观察
+     * 全量列表：一次性加载整张表，交给 ListAdapter 做差异计算
      */
-    private void setupObservers() {
-        repository.getAll().observe(getViewLifecycleOwner(), list -> {
+    private void attachFullList(PageDataOwner owner) {
+        FollowAdapter adapter = new FollowAdapter(repository, this::onMoreClick, selection);
+        recyclerView.setAdapter(adapter);
+        attachAvatarPreloader(adapter::getItem);
+
+        // 仓库的单行写入直接局部刷新；无法逐行描述的变更（RESET）由下面的全量查询结果接管
+        repository.observeChanges(owner, change -> {
+            if (change.type != FollowChange.Type.RESET) {
+                adapter.applyChange(change);
+            }
+        });
+
+        // 全量列表只在首次加载和全部失效时发出，每次都整体比对
+        repository.getAll().observe(owner, list -> {
             adapter.submitList(list);
             swipeRefresh.setRefreshing(false);
         });
+    }
+
+    /**
+     * 分页列表：只加载可见窗口附近的数据页，未加载的位置显示占位符
+     */
+    private void attachPagedList(PageDataOwner owner) {
+        FollowPagingAdapter adapter = new FollowPagingAdapter(repository, this::onMoreClick, selection);
+        recyclerView.setAdapter(adapter);
+        // 只读取已加载的页，预加载不会触发分页加载
+        attachAvatarPreloader(position -> position >= 0 && position < adapter.getItemCount()
+                ? adapter.peek(position) : null);
+
+        repository.getPaged(owner.getLifecycle())
+                .observe(owner, pagingData -> {
+                    adapter.submitData(owner.getLifecycle(), pagingData);
+                    swipeRefresh.setRefreshing(false);
+                });
+    }
+
+    /**
+     * 滑动时预加载即将进入屏幕的头像，按头像控件尺寸解码并裁剪
+     * @param source 按位置读取当前列表的行
+     */
+    private void attachAvatarPreloader(AvatarPreloadProvider.RowSource source) {
+        RequestManager requestManager = Glide.with(this);
+        int size = AvatarLoader.getAvatarSize(requireContext());
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(
+                requestManager,
+                new AvatarPreloadProvider(requireContext(), requestManager, size, source),
+                new FixedPreloadSizeProvider<>(size, size),
+                AVATAR_PRELOAD_COUNT));
+    }
 
-        repository.getCount().observe(getViewLifecycleOwner(), count ->
-                tvCount.setText("我的关注（" + count + "人）")
-        );
+    /**
+     * 更多按钮点击：已取关的用户不弹出操作面板
+     * 操作面板以列表中已加载的行作为初始数据
+     */
+    private void onMoreClick(FollowRow row) {
+        if (row.status == 0) {
+            Toast.makeText(requireContext(), "已取关，无法使用", Toast.LENGTH_SHORT).show();
+        } else {
+            UserActionBottomSheet.showForUser(getChildFragmentManager(), row);
+        }
     }
 
     /**
@@ -110,9 +316,44 @@ public class FollowFragment extends Fragment {
      */
     private void setupListeners() {
         swipeRefresh.setOnRefreshListener(() -> {
-            repository.refreshData();
+            if (repository != null) {
+                repository.refreshData();
+            }
+            // 同时与服务端同步（未配置服务端时不做任何事）
+            FollowSyncEngine.get(requireContext()).requestSync();
             // 延迟 1 秒结束刷新动画，提升用户体验
             swipeRefresh.postDelayed(() -> swipeRefresh.setRefreshing(false), 1000);
         });
+
+        selection.setListener(this::onSelectionChanged);
+        selectionBar.findViewById(R.id.btn_selection_cancel).setOnClickListener(v -> selection.clear());
+        selectionBar.findViewById(R.id.btn_selection_unfollow).setOnClickListener(v -> {
+            if (repository != null) {
+                repository.unfollowAll(selection.selectedUids());
+            }
+            selection.clear();
+        });
+        selectionBar.findViewById(R.id.btn_selection_special).setOnClickListener(v -> {
+            if (repository != null) {
+                repository.setSpecialAll(selection.selectedUids(), true);
+            }
+            selection.clear();
+        });
+    }
+
+    /**
+     * 多选状态变化：更新操作栏，并以局部刷新更新列表中各行的复选框
+     */
+    private void onSelectionChanged(FollowSelection current) {
+        boolean selecting = current.isActive();
+        exitSelection.setEnabled(selecting);
+        selectionBar.setVisibility(selecting ? View.VISIBLE : View.GONE);
+        int count = current.size();
+        tvSelectionCount.setText(getResources().getQuantityString(R.plurals.selection_count, count, count));
+        swipeRefresh.setEnabled(!selecting);
+        RecyclerView.Adapter<?> adapter = recyclerView == null ? null : recyclerView.getAdapter();
+        if (adapter != null) {
+            adapter.notifyItemRangeChanged(0, adapter.getItemCount(), FollowDiffUtil.PAYLOAD_SELECTION);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.demo.follow.ui;
+
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.repository.FollowRepository;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import java.util.List;
+
+/**
+ * 关注列表分页适配器
+ * 使用 PagingDataAdapter 按需加载，内存中只保留可见窗口和预取范围内的数据
+ * 未加载的位置以占位符显示，行布局和绑定逻辑与 {@link FollowAdapter} 共用
+ */
+public class FollowPagingAdapter extends PagingDataAdapter<FollowRow, FollowAdapter.VH> {
+
+    private final FollowRepository repository;
+    private final FollowAdapter.OnMoreClick callback;
+    private final FollowSelection selection;
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    public FollowPagingAdapter(FollowRepository repository, FollowAdapter.OnMoreClick callback,
+                               FollowSelection selection) {
+        super(new FollowDiffUtil());
+        this.repository = repository;
+        this.callback = callback;
+        this.selection = selection;
+    }
+
+    @NonNull
+    @Override
+    public FollowAdapter.VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        long start = metrics.begin(Metric.ADAPTER_CREATE);
+        FollowAdapter.VH holder = FollowAdapter.VH.create(parent);
+        metrics.end(Metric.ADAPTER_CREATE, start);
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FollowAdapter.VH holder, int position) {
+        long start = metrics.begin(Metric.ADAPTER_BIND);
+        FollowRow row = getItem(position);
+        if (row == null) {
+            // 占位符：该位置的数据页尚未加载
+            FollowAdapter.bindPlaceholder(holder);
+        } else {
+            FollowAdapter.bindRow(holder, row, repository, callback, selection);
+        }
+        metrics.end(Metric.ADAPTER_BIND, start);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FollowAdapter.VH holder, int position,
+                                 @NonNull List<Object> payloads) {
+        FollowRow row = getItem(position);
+        if (row == null || payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            long start = metrics.begin(Metric.ADAPTER_BIND_PARTIAL);
+            FollowAdapter.bindPartial(holder, row, payloads, repository, callback, selection);
+            metrics.end(Metric.ADAPTER_BIND_PARTIAL, start);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.demo.follow.ui;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 列表多选状态
+ * 长按一行进入多选模式，之后点击行切换选中；按 uid 记录选中项，列表刷新、翻页后仍然有效。
+ * 全量列表和分页列表共用，只在主线程访问
+ */
+public final class FollowSelection {
+
+    /**
+     * 选中状态变化监听（进入 / 退出多选模式，或选中项变化）
+     */
+    public interface Listener {
+        void onSelectionChanged(@NonNull FollowSelection selection);
+    }
+
+    /**
+     * 选中的 uid，保持选中顺序
+     */
+    private final Set<Long> selected = new LinkedHashSet<>();
+    private boolean active;
+
+    @Nullable
+    private Listener listener;
+
+    @MainThread
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 是否处于多选模式
+     * @return 多选模式返回 true
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * 行是否被选中
+     * @param uid 行 uid
+     * @return 选中返回 true
+     */
+    public boolean isSelected(long uid) {
+        return active && selected.contains(uid);
+    }
+
+    /**
+     * 选中的行数
+     * @return 行数
+     */
+    public int size() {
+        return selected.size();
+    }
+
+    /**
+     * 选中的 uid
+     * @return uid 列表的副本（按选中顺序）
+     */
+    @NonNull
+    public List<Long> selectedUids() {
+        return new ArrayList<>(selected);
+    }
+
+    /**
+     * 进入多选模式并选中一行（长按）；已在多选模式时等同于 {@link #toggle(long)}
+     * @param uid 行 uid
+     */
+    @MainThread
+    public void start(long uid) {
+        if (active) {
+            toggle(uid);
+            return;
+        }
+        active = true;
+        selected.add(uid);
+        notifyChanged();
+    }
+
+    /**
+     * 切换一行的选中状态，最后一行取消选中时退出多选模式
+     * @param uid 行 uid
+     */
+    @MainThread
+    public void toggle(long uid) {
+        if (!active) {
+            return;
+        }
+        if (!selected.remove(uid)) {
+            selected.add(uid);
+        }
+        if (selected.isEmpty()) {
+            active = false;
+        }
+        notifyChanged();
+    }
+
+    /**
+     * 清空选中并退出多选模式
+     */
+    @MainThread
+    public void clear() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        selected.clear();
+        notifyChanged();
+    }
+
+    private void notifyChanged() {
+        if (listener != null) {
+            listener.onSelectionChanged(this);
+        }
+    }
+}
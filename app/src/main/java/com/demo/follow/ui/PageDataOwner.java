@@ -0,0 +1,46 @@
+package com.demo.follow.ui;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+/**
+ * 页面数据观察的生命周期
+ * 跟随视图生命周期，但可以提前结束：{@link #release()} 后所有以它为 owner 的 LiveData 观察、
+ * 变更监听和分页缓存（cachedIn）随之释放，视图本身保留。页面再次显示时创建新的实例重新建立观察
+ */
+final class PageDataOwner implements LifecycleOwner {
+
+    private final LifecycleRegistry registry = new LifecycleRegistry(this);
+    private final Lifecycle parent;
+    private final LifecycleEventObserver follower = (source, event) -> registry.handleLifecycleEvent(event);
+
+    /**
+     * @param parent 跟随的生命周期（Fragment 的视图生命周期）
+     */
+    @MainThread
+    PageDataOwner(@NonNull Lifecycle parent) {
+        this.parent = parent;
+        parent.addObserver(follower);
+    }
+
+    @NonNull
+    @Override
+    public Lifecycle getLifecycle() {
+        return registry;
+    }
+
+    /**
+     * 结束生命周期，释放以它为 owner 的观察（重复调用无副作用）
+     */
+    @MainThread
+    void release() {
+        parent.removeObserver(follower);
+        if (registry.getCurrentState().isAtLeast(Lifecycle.State.CREATED)) {
+            registry.setCurrentState(Lifecycle.State.DESTROYED);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.demo.follow.ui;
 
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,14 +19,87 @@ import com.google.android.material.tabs.TabLayoutMediator;
 /**
  * 关系页面 Fragment
  * 包含四个标签页：互关、关注、粉丝、朋友，使用 ViewPager2 实现滑动切换
+ *
+ * 标签页按需创建：启动时只创建当前页，主线程第一次空闲时再预创建相邻页（只加载视图）；
+ * 页面的数据观察在第一次显示时才建立（见 {@link LazyPage}）。
+ * 内存紧张时，不可见的页面释放列表数据，再次显示时重新加载
  */
 public class RelationshipsFragment extends Fragment {
 
     /**
-     * ViewPager2 预加载页面数量
-     * 预加载 3 个非当前页面，避免重复创建 Fragment，提升滑动流畅度
+     * 不可见时可以释放数据的页面
+     * ViewPager2 只把当前页推进到 RESUMED，其余页停在 STARTED，
+     * 所以页面在第一次 onResume 时建立数据观察即可做到按需加载
      */
-    private static final int OFFSCREEN_PAGE_LIMIT = 3;
+    interface LazyPage {
+        /**
+         * 释放列表数据和数据观察，保留视图；再次显示（onResume）时重新建立
+         */
+        void releaseData();
+    }
+
+    private static final String ARG_INITIAL_TAB = "initialTab";
+
+    /**
+     * 主线程空闲后预创建的相邻页数：左右各一页，切换标签时页面视图已就绪
+     */
+    private static final int PREFETCH_PAGE_LIMIT = 1;
+
+    /**
+     * 达到该级别的内存回收通知时，不可见页面释放数据
+     * 包括前台内存紧张（RUNNING_LOW / CRITICAL）和进入后台之后的各级通知
+     */
+    private static final int RELEASE_HIDDEN_PAGES_LEVEL = ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+
+    /**
+     * 创建关系页面
+     * @param initialTab 初始显示的标签页位置
+     * @return Fragment 实例
+     */
+    public static RelationshipsFragment newInstance(int initialTab) {
+        RelationshipsFragment fragment = new RelationshipsFragment();
+        Bundle args = new Bundle();
+        args.putInt(ARG_INITIAL_TAB, initialTab);
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    @Nullable
+    private ViewPager2 viewPager;
+
+    @Nullable
+    private RelationshipsPagerAdapter adapter;
+
+    /**
+     * 空闲时预创建相邻页
+     */
+    private final MessageQueue.IdleHandler prefetchPages = () -> {
+        if (viewPager != null) {
+            viewPager.setOffscreenPageLimit(PREFETCH_PAGE_LIMIT);
+        }
+        return false;
+    };
+
+    /**
+     * 内存回收通知（Fragment 本身收不到，注册到 Context 上）
+     */
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= RELEASE_HIDDEN_PAGES_LEVEL) {
+                releaseHiddenPages();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            releaseHiddenPages();
+        }
+    };
 
     @Nullable
     @Override
@@ -32,27 +109,59 @@ public class RelationshipsFragment extends Fragment {
         View rootView = inflater.inflate(R.layout.fragment_relationships, container, false);
 
         // 初始化并配置 ViewPager2 和 TabLayout
-        setupViewPager(rootView);
+        setupViewPager(rootView, savedInstanceState == null);
 
+        requireContext().registerComponentCallbacks(memoryCallbacks);
         return rootView;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        Looper.myQueue().removeIdleHandler(prefetchPages);
+        requireContext().unregisterComponentCallbacks(memoryCallbacks);
+        viewPager = null;
+        adapter = null;
+    }
+
     /**
      * 初始化并配置 ViewPager2 和 TabLayout
      * @param rootView 根布局视图
+     * @param firstCreate 是否首次创建（恢复状态时由 ViewPager2 自己还原当前页）
      */
-    private void setupViewPager(View rootView) {
-        ViewPager2 viewPager = rootView.findViewById(R.id.viewpager);
+    private void setupViewPager(View rootView, boolean firstCreate) {
+        viewPager = rootView.findViewById(R.id.viewpager);
         TabLayout tabLayout = rootView.findViewById(R.id.tab_layout);
 
-        // 设置适配器并预加载页面
-        RelationshipsPagerAdapter adapter = new RelationshipsPagerAdapter(this);
+        // 设置适配器，启动时只创建当前页，相邻页等主线程空闲后再创建
+        adapter = new RelationshipsPagerAdapter(this);
         viewPager.setAdapter(adapter);
-        viewPager.setOffscreenPageLimit(OFFSCREEN_PAGE_LIMIT);
+        viewPager.setOffscreenPageLimit(ViewPager2.OFFSCREEN_PAGE_LIMIT_DEFAULT);
+        if (firstCreate && getArguments() != null) {
+            viewPager.setCurrentItem(getArguments().getInt(ARG_INITIAL_TAB), false);
+        }
+        Looper.myQueue().addIdleHandler(prefetchPages);
 
         // 关联 TabLayout 和 ViewPager2
+        RelationshipsPagerAdapter pagerAdapter = adapter;
         new TabLayoutMediator(tabLayout, viewPager, (tab, position) -> {
-            tab.setText(adapter.getPageTitle(position));
+            tab.setText(pagerAdapter.getPageTitle(position));
         }).attach();
     }
+
+    /**
+     * 让当前页以外的页面释放数据
+     * FragmentStateAdapter 以 "f" + itemId 作为页面 Fragment 的 tag
+     */
+    private void releaseHiddenPages() {
+        if (viewPager == null || adapter == null || !isAdded()) {
+            return;
+        }
+        String currentTag = "f" + adapter.getItemId(viewPager.getCurrentItem());
+        for (Fragment page : getChildFragmentManager().getFragments()) {
+            if (page instanceof LazyPage && !currentTag.equals(page.getTag())) {
+                ((LazyPage) page).releaseData();
+            }
+        }
+    }
 }
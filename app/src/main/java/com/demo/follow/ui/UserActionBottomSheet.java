@@ -10,7 +10,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.SwitchCompat;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.os.BundleCompat;
 import com.demo.follow.R;
+import com.demo.follow.db.FollowRow;
 import com.demo.follow.db.FollowUser;
 import com.demo.follow.repository.FollowRepository;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
@@ -22,6 +24,7 @@ import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 public class UserActionBottomSheet extends BottomSheetDialogFragment {
 
     private static final String ARG_DOUYIN_ID = "douyinId";
+    private static final String ARG_LOADED_USER = "loadedUser";
     private static final String DIALOG_TAG = "user_action";
     private static final String DEFAULT_REMARK_HINT = "设置备注";
     private static final String DEFAULT_REMARK_INPUT_HINT = "请输入备注";
@@ -37,6 +40,12 @@ public class UserActionBottomSheet extends BottomSheetDialogFragment {
      */
     private FollowRepository repository;
 
+    /**
+     * 列表中已加载的用户数据（初始显示用），没有时为 null
+     */
+    @Nullable
+    private FollowUser loadedUser;
+
     /**
      * 当前用户缓存
      */
@@ -48,9 +57,25 @@ public class UserActionBottomSheet extends BottomSheetDialogFragment {
      * @param douyinId 抖音号
      */
     public static void showForUser(@NonNull androidx.fragment.app.FragmentManager fragmentManager, String douyinId) {
+        show(fragmentManager, douyinId, null);
+    }
+
+    /**
+     * 显示底部弹窗，直接使用列表中已加载的行，不再查询数据库
+     * @param fragmentManager Fragment 管理器
+     * @param row 列表中的行
+     */
+    public static void showForUser(@NonNull androidx.fragment.app.FragmentManager fragmentManager,
+                                   @NonNull FollowRow row) {
+        show(fragmentManager, row.douyinId, row.toUser());
+    }
+
+    private static void show(androidx.fragment.app.FragmentManager fragmentManager, String douyinId,
+                             @Nullable FollowUser loaded) {
         UserActionBottomSheet fragment = new UserActionBottomSheet();
         Bundle args = new Bundle();
         args.putString(ARG_DOUYIN_ID, douyinId);
+        args.putParcelable(ARG_LOADED_USER, loaded);
         fragment.setArguments(args);
         fragment.show(fragmentManager, DIALOG_TAG);
     }
@@ -59,10 +84,16 @@ public class UserActionBottomSheet extends BottomSheetDialogFragment {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        if (getArguments() != null) {
-            douyinId = getArguments().getString(ARG_DOUYIN_ID);
+        Bundle args = getArguments();
+        if (args != null) {
+            douyinId = args.getString(ARG_DOUYIN_ID);
+            // 已加载的行只用于首次显示：重建时可能已过期，以数据库为准，也不再随参数保存
+            if (savedInstanceState == null) {
+                loadedUser = BundleCompat.getParcelable(args, ARG_LOADED_USER, FollowUser.class);
+            }
+            args.remove(ARG_LOADED_USER);
         }
-        repository = new FollowRepository(requireContext());
+        repository = FollowRepository.get(requireContext());
     }
 
     @Nullable
@@ -89,22 +120,20 @@ public class UserActionBottomSheet extends BottomSheetDialogFragment {
         TextView tvUser = requireView().findViewById(R.id.tv_user);
         SwitchCompat swSpecial = requireView().findViewById(R.id.sw_special);
 
-        repository.getUserByDouyinIdLive(douyinId).observe(getViewLifecycleOwner(), user -> {
+        repository.getUserByDouyinIdLive(douyinId, loadedUser).observe(getViewLifecycleOwner(), user -> {
             if (user == null) {
                 dismiss();
                 return;
             }
             currentUser = user;
 
-            String displayName = getDisplayName(user);
+            String displayName = FollowRow.displayName(user.nick, user.remark);
 
             // 第一行：显示名字（备注或昵称）
             tvNameOnly.setText(displayName);
 
             // 第二行：显示详细信息（抖音号 + 昵称）
-            if (user.remark != null && !user.remark.isEmpty()
-                    && !DEFAULT_REMARK_HINT.equals(user.remark)
-                    && !DEFAULT_REMARK_INPUT_HINT.equals(user.remark)) {
+            if (FollowRow.hasRemark(user.remark)) {
                 // 已设置备注：显示完整信息（名字 + 抖音号）
                 tvUser.setText("名字：" + user.nick + " | 抖音号：" + user.douyinId);
             } else {
@@ -167,16 +196,4 @@ public class UserActionBottomSheet extends BottomSheetDialogFragment {
         dialog.getWindow().setBackgroundDrawableResource(android.R.color.transparent);
         dialog.show();
     }
-
-    /**
-     * 获取显示名称（优先使用备注）
-     */
-    private String getDisplayName(FollowUser user) {
-        if (user.remark != null && !user.remark.isEmpty()
-                && !DEFAULT_REMARK_HINT.equals(user.remark)
-                && !DEFAULT_REMARK_INPUT_HINT.equals(user.remark)) {
-            return user.remark;
-        }
-        return user.nick;
-    }
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package com.demo.follow.util;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * 应用线程执行器
@@ -24,23 +30,119 @@ public class AppExecutors {
     }
 
     /**
-     * IO 操作线程执行器（用于数据库、文件等耗时操作）
-     * 使用单线程池，保证任务顺序执行，避免并发问题
+     * 读取通道线程数上限
+     * 与 WAL 模式下 SQLite 连接池的只读连接数相当，再多的线程只会等待连接
      */
-    private final Executor diskIO = Executors.newSingleThreadExecutor();
+    private static final int MAX_READ_THREADS = 4;
 
     /**
-     * 获取磁盘 IO 线程执行器
-     * @return Executor 实例
+     * 写入通道（用于数据库写入、文件等耗时操作）
+     * 单线程串行执行，保证写入顺序，避免并发问题
+     */
+    private final LaneExecutor diskIO = LaneExecutor.serial("follow-write");
+
+    /**
+     * 读取通道（用于数据库查询）
+     * WAL 模式下读取不阻塞写入，也不互相阻塞，按核数并行执行；
+     * 用户可见的查询优先于后台查询出队
+     */
+    private final LaneExecutor reads = LaneExecutor.parallel("follow-read",
+            Math.max(2, Math.min(MAX_READ_THREADS, Runtime.getRuntime().availableProcessors() - 1)));
+
+    /**
+     * 同步通道（用于与服务端同步的网络请求和编解码）
+     * 与写入通道分开，网络等待不占用写入线程；同步的数据库写入再按小批次投递到写入通道
+     */
+    private final LaneExecutor sync = LaneExecutor.serial("follow-sync");
+
+    /**
+     * 计算线程执行器（用于列表差异计算等纯 CPU 任务）
+     * 与 diskIO 分开，避免长时间的差异计算阻塞数据库写入
+     */
+    private final Executor computation = Executors.newSingleThreadExecutor();
+
+    /**
+     * 主线程执行器
+     */
+    private final Executor mainThread = new MainThreadExecutor();
+
+    /**
+     * 定时器（只负责延时投递，任务本身应再转交给对应的执行器）
+     */
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * 获取写入通道（串行）
+     * @return 写入通道
      */
-    public Executor diskIO() {
+    public LaneExecutor diskIO() {
         return diskIO;
     }
 
+    /**
+     * 获取读取通道（并行，按优先级出队）
+     * @return 读取通道
+     */
+    public LaneExecutor reads() {
+        return reads;
+    }
+
+    /**
+     * 获取同步通道（串行）
+     * @return 同步通道
+     */
+    public LaneExecutor sync() {
+        return sync;
+    }
+
+    /**
+     * 获取各通道的统计快照
+     * @return 写入、读取、同步通道的统计
+     */
+    public List<LaneExecutor.Stats> laneStats() {
+        return Arrays.asList(diskIO.stats(), reads.stats(), sync.stats());
+    }
+
+    /**
+     * 获取计算线程执行器
+     * @return Executor 实例
+     */
+    public Executor computation() {
+        return computation;
+    }
+
+    /**
+     * 获取主线程执行器
+     * @return Executor 实例
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * 获取定时器
+     * @return ScheduledExecutorService 实例
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
     /**
      * 私有构造函数，防止外部实例化
      */
     private AppExecutors() {
         // 单例模式
     }
+
+    /**
+     * 将任务投递到主线程 Looper 执行
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            mainThreadHandler.post(command);
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package com.demo.follow.util;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 预渲染头像图集
+ * 构建时由 app/build.gradle 的 packAvatars 任务把每个头像按各屏幕密度渲染成圆形 PNG，
+ * 打包到 assets/avatars.pack（不压缩）。运行时只打开一次该文件并整体内存映射，
+ * 每个头像是映射区上的一个切片，不再逐个打开 assets 文件，也不需要运行时圆形裁剪。
+ * 图集在启动时由 {@link #preload(Context)} 在后台打开，主线程只通过 {@link #getIfReady()} 查看，
+ * 打开完成前的头像按原图加载
+ *
+ * 文件格式（大端）：
+ * 头部：magic "AVPK"、版本号、条目数；
+ * 索引：文件名（2 字节长度前缀的 UTF-8）、边长（2 字节，像素）、数据偏移（相对数据区）、数据长度；
+ * 数据区：依次存放各条目的 PNG
+ */
+public final class AvatarAtlas {
+
+    private static final String TAG = "AvatarAtlas";
+
+    /**
+     * 图集在 assets 中的文件名
+     */
+    private static final String ASSET_NAME = "avatars.pack";
+
+    private static final int MAGIC = 0x4156504B;
+    private static final int VERSION = 1;
+
+    private static volatile AvatarAtlas instance;
+
+    private static final AtomicBoolean preloadStarted = new AtomicBoolean();
+
+    /**
+     * 在后台打开图集（启动时调用，重复调用只执行一次）
+     * 打开图集要读文件，放在读取通道上以后台优先级执行，不占用做列表差异计算的计算线程
+     * @param context 上下文
+     */
+    public static void preload(@NonNull Context context) {
+        if (instance == null && preloadStarted.compareAndSet(false, true)) {
+            Context app = context.getApplicationContext();
+            AppExecutors.getInstance().reads().background().execute(() -> get(app));
+        }
+    }
+
+    /**
+     * 已打开的图集，尚未打开完成时返回 null（不阻塞，可在主线程调用）
+     * @return 图集或 null
+     */
+    @Nullable
+    public static AvatarAtlas getIfReady() {
+        return instance;
+    }
+
+    /**
+     * 获取图集（首次调用时打开并映射，之后复用），会读取文件，不能在主线程调用
+     * 图集不存在或格式不对时返回空图集，调用方回退到逐个加载原图
+     * @param context 上下文
+     * @return 图集
+     */
+    @WorkerThread
+    @NonNull
+    public static AvatarAtlas get(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (AvatarAtlas.class) {
+                if (instance == null) {
+                    instance = open(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 图集中的一个头像，作为 Glide 的加载模型（按文件名区分缓存）
+     */
+    public static final class Avatar {
+
+        @NonNull
+        public final String fileName;
+
+        public Avatar(@NonNull String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Avatar && fileName.equals(((Avatar) o).fileName);
+        }
+
+        @Override
+        public int hashCode() {
+            return fileName.hashCode();
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Avatar(" + fileName + ")";
+        }
+    }
+
+    /**
+     * 索引条目：某个头像某一尺寸的 PNG 在数据区中的位置
+     */
+    private static final class Entry {
+        final int size;
+        final int offset;
+        final int length;
+
+        Entry(int size, int offset, int length) {
+            this.size = size;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 文件名 -> 各尺寸条目（按边长升序）
+     */
+    private final Map<String, List<Entry>> index;
+
+    /**
+     * 数据区（映射区上的只读切片）
+     */
+    @Nullable
+    private final ByteBuffer data;
+
+    private AvatarAtlas(@NonNull Map<String, List<Entry>> index, @Nullable ByteBuffer data) {
+        this.index = index;
+        this.data = data;
+    }
+
+    /**
+     * 图集中是否有该头像
+     * @param fileName 头像文件名
+     * @return 存在返回 true
+     */
+    public boolean contains(@Nullable String fileName) {
+        return fileName != null && index.containsKey(fileName);
+    }
+
+    /**
+     * 取出不小于目标边长的最小尺寸 PNG（没有时取最大尺寸），解码时只需少量缩小
+     * @param fileName 头像文件名
+     * @param size 目标边长（像素），不大于 0 时取最大尺寸
+     * @return PNG 数据切片（独立的 position/limit，可直接交给解码器），不存在时返回 null
+     */
+    @Nullable
+    public ByteBuffer slice(@NonNull String fileName, int size) {
+        List<Entry> entries = index.get(fileName);
+        if (entries == null || data == null) {
+            return null;
+        }
+        Entry match = entries.get(entries.size() - 1);
+        if (size > 0) {
+            for (Entry entry : entries) {
+                if (entry.size >= size) {
+                    match = entry;
+                    break;
+                }
+            }
+        }
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(match.offset);
+        buffer.limit(match.offset + match.length);
+        return buffer.slice();
+    }
+
+    /**
+     * 打开 assets 中的图集：一次 openFd，整体映射后即可关闭文件描述符
+     */
+    @NonNull
+    private static AvatarAtlas open(@NonNull Context context) {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream input = new FileInputStream(afd.getFileDescriptor());
+             FileChannel channel = input.getChannel()) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                    afd.getStartOffset(), afd.getLength());
+            return parse(mapped);
+        } catch (IOException | RuntimeException e) {
+            // 没有打包图集（或格式不兼容）时回退到逐个加载原图
+            Log.w(TAG, "avatar atlas unavailable", e);
+            return new AvatarAtlas(Collections.emptyMap(), null);
+        }
+    }
+
+    /**
+     * 解析头部和索引
+     * @param buffer 整个图集文件
+     * @return 图集
+     */
+    @NonNull
+    private static AvatarAtlas parse(@NonNull ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("bad avatar atlas magic");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported avatar atlas version " + version);
+        }
+        int count = buffer.getInt();
+        Map<String, List<Entry>> index = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(name);
+            int size = buffer.getShort() & 0xFFFF;
+            int offset = buffer.getInt();
+            int length = buffer.getInt();
+            String fileName = new String(name, StandardCharsets.UTF_8);
+            List<Entry> entries = index.get(fileName);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                index.put(fileName, entries);
+            }
+            entries.add(new Entry(size, offset, length));
+        }
+        for (List<Entry> entries : index.values()) {
+            Collections.sort(entries, (a, b) -> Integer.compare(a.size, b.size));
+        }
+        ByteBuffer data = buffer.slice();
+        for (List<Entry> entries : index.values()) {
+            for (Entry entry : entries) {
+                if (entry.offset < 0 || entry.length < 0
+                        || (long) entry.offset + entry.length > data.capacity()) {
+                    throw new IllegalStateException("avatar atlas entry out of range");
+                }
+            }
+        }
+        return new AvatarAtlas(index, data.asReadOnlyBuffer());
+    }
+}
@@ -0,0 +1,112 @@
+package com.demo.follow.util;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.signature.ObjectKey;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+
+/**
+ * Glide 加载器：从预渲染图集中取出头像的 PNG 切片
+ * 切片由 Glide 内置的 ByteBuffer 解码器解码，不需要打开 assets 文件
+ */
+final class AvatarAtlasModelLoader implements ModelLoader<AvatarAtlas.Avatar, ByteBuffer> {
+
+    private final Context context;
+
+    private AvatarAtlasModelLoader(@NonNull Context context) {
+        this.context = context;
+    }
+
+    @Nullable
+    @Override
+    public LoadData<ByteBuffer> buildLoadData(@NonNull AvatarAtlas.Avatar model, int width, int height,
+                                              @NonNull Options options) {
+        return new LoadData<>(new ObjectKey(model), new Fetcher(context, model, Math.max(width, height)));
+    }
+
+    @Override
+    public boolean handles(@NonNull AvatarAtlas.Avatar model) {
+        return true;
+    }
+
+    /**
+     * 读取切片的 DataFetcher，切片已在映射区中，直接返回
+     */
+    private static final class Fetcher implements DataFetcher<ByteBuffer> {
+
+        private final Context context;
+        private final AvatarAtlas.Avatar model;
+        private final int size;
+
+        Fetcher(@NonNull Context context, @NonNull AvatarAtlas.Avatar model, int size) {
+            this.context = context;
+            this.model = model;
+            this.size = size;
+        }
+
+        @Override
+        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super ByteBuffer> callback) {
+            ByteBuffer slice = AvatarAtlas.get(context).slice(model.fileName, size);
+            if (slice == null) {
+                callback.onLoadFailed(new FileNotFoundException("avatar not in atlas: " + model.fileName));
+            } else {
+                callback.onDataReady(slice);
+            }
+        }
+
+        @Override
+        public void cleanup() {
+            // 切片属于共享的映射区，无需释放
+        }
+
+        @Override
+        public void cancel() {
+            // 数据同步返回，无需取消
+        }
+
+        @NonNull
+        @Override
+        public Class<ByteBuffer> getDataClass() {
+            return ByteBuffer.class;
+        }
+
+        @NonNull
+        @Override
+        public DataSource getDataSource() {
+            return DataSource.LOCAL;
+        }
+    }
+
+    /**
+     * 在 {@link FollowGlideModule} 中注册
+     */
+    static final class Factory implements ModelLoaderFactory<AvatarAtlas.Avatar, ByteBuffer> {
+
+        private final Context context;
+
+        Factory(@NonNull Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<AvatarAtlas.Avatar, ByteBuffer> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new AvatarAtlasModelLoader(context);
+        }
+
+        @Override
+        public void teardown() {
+            // 无需释放资源
+        }
+    }
+}
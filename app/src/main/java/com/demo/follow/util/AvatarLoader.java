@@ -1,14 +1,21 @@
 package com.demo.follow.util;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.demo.follow.R;
 
 /**
  * 头像加载工具类
  * 使用 Glide 从应用的 assets/avatars/ 目录加载圆形头像
+ * 按头像控件的像素尺寸解码，圆形裁剪后的结果按 文件名 + 尺寸 缓存在内存和磁盘中，
+ * 列表预加载和绑定使用同一个请求配置，因此绑定时可以直接命中预加载的缓存
+ * 打包了预渲染图集时优先从图集读取已裁剪好的圆形头像（见 {@link AvatarAtlas}），图集在后台打开完成前按原图加载
  */
 public final class AvatarLoader {
 
@@ -37,10 +44,64 @@ public final class AvatarLoader {
     public static void load(@NonNull Context context,
                             @NonNull ImageView imageView,
                             String fileName) {
-        Glide.with(context)
-                .load(ASSETS_PREFIX + fileName)
-                .circleCrop()
+        request(context, Glide.with(context), fileName, getAvatarSize(context))
                 .placeholder(R.drawable.ic_default_head)
                 .into(imageView);
     }
+
+    /**
+     * 创建头像请求（绑定和预加载共用）
+     * 固定解码尺寸，不等待控件测量；只缓存裁剪后的结果，缓存键包含文件名、尺寸和变换
+     * 图集中的头像已是圆形且数据就在内存映射区中，只缓存解码结果，不再写磁盘缓存
+     *
+     * @param context        Android 上下文，图集尚未打开时用于在后台打开
+     * @param requestManager Glide 请求管理器
+     * @param fileName       头像文件名
+     * @param size           解码尺寸（像素）
+     * @return 头像请求
+     */
+    @NonNull
+    public static RequestBuilder<Drawable> request(@NonNull Context context,
+                                                  @NonNull RequestManager requestManager,
+                                                  String fileName,
+                                                  int size) {
+        AvatarAtlas atlas = AvatarAtlas.getIfReady();
+        if (atlas == null) {
+            AvatarAtlas.preload(context);
+        } else if (atlas.contains(fileName)) {
+            return requestManager
+                    .load(new AvatarAtlas.Avatar(fileName))
+                    .override(size)
+                    .diskCacheStrategy(DiskCacheStrategy.NONE)
+                    .dontAnimate();
+        }
+        return requestManager
+                .load(ASSETS_PREFIX + fileName)
+                .override(size)
+                .circleCrop()
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE)
+                .dontAnimate();
+    }
+
+    /**
+     * 获取列表头像的像素尺寸
+     *
+     * @param context Android 上下文
+     * @return 头像边长（像素）
+     */
+    public static int getAvatarSize(@NonNull Context context) {
+        return context.getResources().getDimensionPixelSize(R.dimen.avatar_size);
+    }
+
+    /**
+     * 取消头像加载并显示默认头像
+     * 用于占位行，避免复用的 ViewHolder 显示上一个用户的头像
+     *
+     * @param context    Android 上下文
+     * @param imageView  头像 ImageView 控件
+     */
+    public static void clear(@NonNull Context context, @NonNull ImageView imageView) {
+        Glide.with(context).clear(imageView);
+        imageView.setImageResource(R.drawable.ic_default_head);
+    }
 }
\ No newline at end of file
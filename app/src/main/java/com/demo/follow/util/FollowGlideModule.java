@@ -0,0 +1,62 @@
+package com.demo.follow.util;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 应用级 Glide 配置
+ * 限定内存缓存、Bitmap 复用池和磁盘缓存的大小，头像的解码和裁剪结果都缓存在这里
+ */
+@GlideModule
+public final class FollowGlideModule extends AppGlideModule {
+
+    /**
+     * 内存缓存可容纳的屏幕数：覆盖当前屏和预加载的下一屏
+     */
+    private static final float MEMORY_CACHE_SCREENS = 2;
+
+    /**
+     * Bitmap 复用池可容纳的屏幕数：快速滑动时解码直接复用已回收的 Bitmap
+     */
+    private static final float BITMAP_POOL_SCREENS = 3;
+
+    /**
+     * 磁盘缓存目录和大小（只存放裁剪后的小尺寸头像）
+     */
+    private static final String DISK_CACHE_NAME = "avatar_cache";
+    private static final long DISK_CACHE_SIZE = 50L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_SIZE));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        // 预渲染图集中的头像以 ByteBuffer 切片交给内置解码器
+        registry.prepend(AvatarAtlas.Avatar.class, ByteBuffer.class, new AvatarAtlasModelLoader.Factory(context));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // 不使用旧版 manifest 配置，跳过解析以加快初始化
+        return false;
+    }
+}
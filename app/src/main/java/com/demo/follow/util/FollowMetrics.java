@@ -0,0 +1,207 @@
+package com.demo.follow.util;
+
+import android.os.Trace;
+import androidx.annotation.NonNull;
+
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 热路径指标
+ * 每个指标一个 {@link LatencyHistogram}，在进程启动时分配好，记录时不分配对象；
+ * 耗时类指标用 {@link #begin(Metric)} / {@link #end(Metric, long)} 包住代码段，
+ * 同时输出同名的 systrace 区段（Perfetto / systrace 中可见）。
+ * 仓库写操作分别记录在写入通道上的排队时间和事务（SQL）时间，便于区分是排队积压还是语句本身慢。
+ * debug 包中可以通过 adb shell dumpsys activity com.demo.follow/.MainActivity metrics 导出
+ */
+public final class FollowMetrics {
+
+    /**
+     * 指标，名称同时作为 systrace 区段名
+     */
+    public enum Metric {
+        // 仓库写操作：排队 = 在写入通道上等待执行的时间，SQL = 所在事务的执行时间
+        TOGGLE_SPECIAL_WAIT("repo.toggleSpecial.wait", Unit.MICROS),
+        TOGGLE_SPECIAL_SQL("repo.toggleSpecial.sql", Unit.MICROS),
+        TOGGLE_FOLLOW_WAIT("repo.toggleFollow.wait", Unit.MICROS),
+        TOGGLE_FOLLOW_SQL("repo.toggleFollow.sql", Unit.MICROS),
+        UNFOLLOW_WAIT("repo.unfollow.wait", Unit.MICROS),
+        UNFOLLOW_SQL("repo.unfollow.sql", Unit.MICROS),
+        SET_REMARK_WAIT("repo.setRemark.wait", Unit.MICROS),
+        SET_REMARK_SQL("repo.setRemark.sql", Unit.MICROS),
+        REFRESH_WAIT("repo.refresh.wait", Unit.MICROS),
+        REFRESH_SQL("repo.refresh.sql", Unit.MICROS),
+        /** 多选批量操作：排队时间、事务时间和涉及的行数 */
+        BULK_WAIT("repo.bulk.wait", Unit.MICROS),
+        BULK_SQL("repo.bulk.sql", Unit.MICROS),
+        BULK_SIZE("repo.bulk.size", Unit.ROWS),
+        /** 导入：整个事务（含解析）的时间和写入的行数 */
+        IMPORT_SQL("repo.import.sql", Unit.MICROS),
+        IMPORT_ROWS("repo.import.rows", Unit.ROWS),
+        /** 写回队列一次批量写入的事务时间 */
+        WRITE_BATCH_SQL("repo.writeBatch.sql", Unit.MICROS),
+        /** 写回队列一次批量写入包含的抖音号数 */
+        WRITE_BATCH_SIZE("repo.writeBatch.size", Unit.ROWS),
+
+        // 同步：请求耗时为一次请求的往返时间（含压缩和解析），流量为压缩后的字节数
+        SYNC_PULL("sync.pull", Unit.MICROS),
+        SYNC_PUSH("sync.push", Unit.MICROS),
+        SYNC_BYTES_OUT("sync.bytesOut", Unit.BYTES),
+        SYNC_BYTES_IN("sync.bytesIn", Unit.BYTES),
+        /** 一次上传包含的修改数 */
+        SYNC_PUSH_SIZE("sync.pushSize", Unit.ROWS),
+        /** 应用服务端数据：每批在写入通道上的排队时间、事务时间和行数 */
+        SYNC_APPLY_WAIT("sync.apply.wait", Unit.MICROS),
+        SYNC_APPLY_SQL("sync.apply.sql", Unit.MICROS),
+        SYNC_APPLY_SIZE("sync.apply.size", Unit.ROWS),
+
+        // 列表
+        ADAPTER_CREATE("adapter.create", Unit.MICROS),
+        ADAPTER_BIND("adapter.bind", Unit.MICROS),
+        ADAPTER_BIND_PARTIAL("adapter.bindPartial", Unit.MICROS),
+        LIST_DIFF("list.diff", Unit.MICROS),
+        LIST_EMISSION_SIZE("list.emissionSize", Unit.ROWS);
+
+        @NonNull
+        public final String traceName;
+        @NonNull
+        public final Unit unit;
+
+        Metric(@NonNull String traceName, @NonNull Unit unit) {
+            this.traceName = traceName;
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * 指标单位
+     */
+    public enum Unit {
+        MICROS("us"),
+        ROWS("rows"),
+        BYTES("B");
+
+        @NonNull
+        public final String label;
+
+        Unit(@NonNull String label) {
+            this.label = label;
+        }
+    }
+
+    private static final FollowMetrics INSTANCE = new FollowMetrics();
+
+    public static FollowMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private final LatencyHistogram[] histograms;
+
+    private FollowMetrics() {
+        Metric[] metrics = Metric.values();
+        histograms = new LatencyHistogram[metrics.length];
+        for (Metric metric : metrics) {
+            histograms[metric.ordinal()] = new LatencyHistogram(metric.traceName, metric.unit.label);
+        }
+    }
+
+    // ==================== 记录 ====================
+
+    /**
+     * 开始一个计时区段（同时开始 systrace 区段），必须在同一线程上调用 {@link #end(Metric, long)}
+     * @param metric 指标
+     * @return 开始时间，传给 end
+     */
+    public long begin(@NonNull Metric metric) {
+        Trace.beginSection(metric.traceName);
+        return System.nanoTime();
+    }
+
+    /**
+     * 结束计时区段并记录耗时
+     * @param metric 指标（与 begin 相同）
+     * @param startNanos begin 的返回值
+     * @return 耗时（纳秒），可以再归到其他指标上
+     */
+    public long end(@NonNull Metric metric, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        recordNanos(metric, elapsed);
+        Trace.endSection();
+        return elapsed;
+    }
+
+    /**
+     * 记录一段已经测得的耗时
+     * @param metric 耗时类指标
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordNanos(@NonNull Metric metric, long nanos) {
+        histograms[metric.ordinal()].record(nanos / 1000);
+    }
+
+    /**
+     * 记录一个数值（条数等）
+     * @param metric 数值类指标
+     * @param value 数值
+     */
+    public void recordValue(@NonNull Metric metric, long value) {
+        histograms[metric.ordinal()].record(value);
+    }
+
+    // ==================== 导出 ====================
+
+    /**
+     * 获取所有指标的快照
+     * @return 指标到快照的映射（按声明顺序）
+     */
+    @NonNull
+    public Map<Metric, LatencyHistogram.Snapshot> snapshot() {
+        Map<Metric, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            snapshots.put(metric, histograms[metric.ordinal()].snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 获取单个指标的快照
+     * @param metric 指标
+     * @return 快照
+     */
+    @NonNull
+    public LatencyHistogram.Snapshot snapshot(@NonNull Metric metric) {
+        return histograms[metric.ordinal()].snapshot();
+    }
+
+    /**
+     * 清空所有指标
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 以文本表格输出所有有记录的指标，以及各任务通道的统计
+     * @param writer 输出
+     */
+    public void dump(@NonNull PrintWriter writer) {
+        writer.println("FollowMetrics");
+        writer.printf(Locale.US, "  %-24s %8s %10s %8s %8s %8s %8s %8s %5s%n",
+                "metric", "count", "mean", "p50", "p90", "p99", "p99.9", "max", "unit");
+        for (LatencyHistogram.Snapshot s : snapshot().values()) {
+            if (s.count == 0) {
+                continue;
+            }
+            writer.printf(Locale.US, "  %-24s %8d %10.1f %8d %8d %8d %8d %8d %5s%n",
+                    s.name, s.count, s.mean(), s.percentile(50), s.percentile(90),
+                    s.percentile(99), s.percentile(99.9), s.max, s.unit);
+        }
+        for (LaneExecutor.Stats stats : AppExecutors.getInstance().laneStats()) {
+            writer.println("  " + stats);
+        }
+    }
+}
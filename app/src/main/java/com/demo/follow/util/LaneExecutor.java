@@ -0,0 +1,219 @@
+package com.demo.follow.util;
+
+import android.os.Process;
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带统计的任务通道
+ * 串行通道按提交顺序逐个执行（数据库写入，保证顺序）；
+ * 并行通道由固定数量的线程执行，队列按优先级出队，同优先级先进先出（数据库读取）。
+ * 每个通道记录排队深度、排队等待和执行耗时，用于定位哪个通道出现积压
+ */
+public final class LaneExecutor implements Executor {
+
+    /**
+     * 任务优先级（只在并行通道中生效）
+     */
+    public enum Priority {
+        /**
+         * 用户正在等待结果的任务：列表查询、分页加载、详情读取
+         */
+        USER_VISIBLE,
+        /**
+         * 后台任务：预热、统计、维护
+         */
+        BACKGROUND
+    }
+
+    /**
+     * 并行通道空闲线程保留时间
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final boolean prioritized;
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    private final Executor background = command -> execute(command, Priority.BACKGROUND);
+
+    private LaneExecutor(String name, int threads, boolean prioritized, int threadPriority) {
+        this.name = name;
+        this.prioritized = prioritized;
+        BlockingQueue<Runnable> queue = prioritized
+                ? new PriorityBlockingQueue<>() : new LinkedBlockingQueue<>();
+        AtomicInteger threadIndex = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+                runnable -> new Thread(() -> {
+                    Process.setThreadPriority(threadPriority);
+                    runnable.run();
+                }, threads == 1 ? name : name + "-" + threadIndex.incrementAndGet()));
+        // 串行通道的线程常驻：空闲线程超时退出时，线程数可能在任务入队之后才减为 0，
+        // 紧接着提交的任务会新建线程并作为其首个任务直接执行，越过队列中更早的任务
+        if (prioritized) {
+            pool.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * 创建串行通道：单线程，严格按提交顺序执行，忽略优先级；线程以后台优先级运行
+     * @param name 通道名称（同时作为线程名）
+     * @return 通道
+     */
+    @NonNull
+    public static LaneExecutor serial(@NonNull String name) {
+        return new LaneExecutor(name, 1, false, Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    /**
+     * 创建并行通道：固定线程数，按优先级出队；线程以默认优先级运行，用户等待的查询不会让位给其他后台线程
+     * @param name 通道名称（线程名前缀）
+     * @param threads 线程数
+     * @return 通道
+     */
+    @NonNull
+    public static LaneExecutor parallel(@NonNull String name, int threads) {
+        return new LaneExecutor(name, threads, true, Process.THREAD_PRIORITY_DEFAULT);
+    }
+
+    /**
+     * 以用户可见优先级执行任务
+     */
+    @Override
+    public void execute(@NonNull Runnable command) {
+        execute(command, Priority.USER_VISIBLE);
+    }
+
+    /**
+     * 以指定优先级执行任务
+     * @param command 任务
+     * @param priority 优先级
+     */
+    public void execute(@NonNull Runnable command, @NonNull Priority priority) {
+        int depth = queued.incrementAndGet();
+        maxQueued.accumulateAndGet(depth, Math::max);
+        pool.execute(new Task(command, priority, sequence.getAndIncrement()));
+    }
+
+    /**
+     * 以后台优先级执行任务的视图，可直接交给需要 Executor 的接口
+     * @return 后台优先级执行器
+     */
+    @NonNull
+    public Executor background() {
+        return background;
+    }
+
+    /**
+     * 获取统计快照
+     * @return 当前统计
+     */
+    @NonNull
+    public Stats stats() {
+        return new Stats(name, queued.get(), maxQueued.get(), pool.getActiveCount(),
+                completed.get(), totalWaitNanos.get(), maxWaitNanos.get(), totalRunNanos.get());
+    }
+
+    /**
+     * 排队中的任务，记录入队时间；按优先级、提交序号排序
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+        private final Runnable command;
+        private final Priority priority;
+        private final long seq;
+        private final long enqueuedAt = System.nanoTime();
+
+        Task(Runnable command, Priority priority, long seq) {
+            this.command = command;
+            this.priority = prioritized ? priority : Priority.USER_VISIBLE;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long wait = start - enqueuedAt;
+            queued.decrementAndGet();
+            totalWaitNanos.addAndGet(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            try {
+                command.run();
+            } finally {
+                totalRunNanos.addAndGet(System.nanoTime() - start);
+                completed.incrementAndGet();
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * 通道统计快照
+     */
+    public static final class Stats {
+        public final String name;
+        /** 当前排队（未开始执行）的任务数 */
+        public final int queued;
+        /** 历史最大排队深度 */
+        public final int maxQueued;
+        /** 正在执行的任务数 */
+        public final int active;
+        /** 已完成的任务数 */
+        public final long completed;
+        public final long totalWaitNanos;
+        public final long maxWaitNanos;
+        public final long totalRunNanos;
+
+        Stats(String name, int queued, int maxQueued, int active, long completed,
+              long totalWaitNanos, long maxWaitNanos, long totalRunNanos) {
+            this.name = name;
+            this.queued = queued;
+            this.maxQueued = maxQueued;
+            this.active = active;
+            this.completed = completed;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.totalRunNanos = totalRunNanos;
+        }
+
+        /** 平均排队等待（毫秒） */
+        public double avgWaitMs() {
+            return completed == 0 ? 0 : totalWaitNanos / 1e6 / completed;
+        }
+
+        /** 平均执行耗时（毫秒） */
+        public double avgRunMs() {
+            return completed == 0 ? 0 : totalRunNanos / 1e6 / completed;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: queued=%d (max %d), active=%d, completed=%d, wait avg=%.2fms max=%.2fms, run avg=%.2fms",
+                    name, queued, maxQueued, active, completed,
+                    avgWaitMs(), maxWaitNanos / 1e6, avgRunMs());
+        }
+    }
+}
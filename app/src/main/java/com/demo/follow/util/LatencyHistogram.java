@@ -0,0 +1,190 @@
+package com.demo.follow.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无分配的直方图（HdrHistogram 式的对数-线性分桶）
+ * 0~31 每个值一个桶；之后每个 2 的幂区间分成 16 个桶，相对误差不超过 1/16（约 6%）。
+ * 桶在创建时一次分配好，{@link #record(long)} 只做原子自增，不分配对象，可以在绑定、事务等热路径上调用；
+ * 多线程同时记录是安全的，快照不保证与并发的记录严格一致
+ */
+public final class LatencyHistogram {
+
+    /**
+     * 线性区的桶数，也是每个 2 的幂区间的起点
+     */
+    private static final int LINEAR_BUCKETS = 32;
+
+    /**
+     * 每个 2 的幂区间的桶数（2^4）
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 可区分的最大值不超过 2^MAX_BIT（微秒计约 12 天），更大的值记入最后一个（溢出）桶
+     */
+    private static final int MAX_BIT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_BIT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + 1;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param name 名称（输出时使用）
+     * @param unit 数值单位（输出时使用，例如 "us"、"rows"）
+     */
+    public LatencyHistogram(@NonNull String name, @NonNull String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * 记录一个值（不分配对象）
+     * @param value 数值，负数按 0 记录
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        long current;
+        while (v > (current = max.get())) {
+            if (max.compareAndSet(current, v)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 清空所有计数
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 获取快照
+     * @return 当前计数的副本
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(name, unit, copy, count.get(), sum.get(), max.get());
+    }
+
+    // ==================== 分桶 ====================
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int bit = 63 - Long.numberOfLeadingZeros(value);
+        if (bit >= MAX_BIT) {
+            return BUCKETS - 1;
+        }
+        int shift = bit - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * 桶内的最大值（同一个桶中的值都按它报告）
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * 直方图快照（不可变）
+     */
+    public static final class Snapshot {
+        public final String name;
+        public final String unit;
+        public final long count;
+        public final long sum;
+        public final long max;
+        private final long[] counts;
+
+        Snapshot(String name, String unit, long[] counts, long count, long sum, long max) {
+            this.name = name;
+            this.unit = unit;
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * 平均值
+         * @return 没有记录时为 0
+         */
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 分位数（按桶的上界报告，不超过记录到的最大值）
+         * @param percentile 百分位，0~100
+         * @return 分位值，没有记录时为 0
+         */
+        public long percentile(double percentile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(i), max);
+                }
+            }
+            return max;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s: count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d (%s)",
+                    name, count, mean(), percentile(50), percentile(90), percentile(99),
+                    percentile(99.9), max, unit);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.demo.follow.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+/**
+ * 拼音转换工具类
+ * 把昵称、备注转换成全拼和首字母，用于拼音搜索
+ * 汉字取第一个读音；字母和数字转小写后保留，连续的字母数字算一个词，取首字母；
+ * 空白和标点作为分隔，不进入结果
+ */
+public final class PinyinConverter {
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    /**
+     * 转换结果
+     */
+    public static final class Pinyin {
+        /** 全拼，例如 "王志松" -> "wangzhisong" */
+        @NonNull
+        public final String full;
+        /** 首字母，例如 "王志松" -> "wzs" */
+        @NonNull
+        public final String initials;
+
+        Pinyin(@NonNull String full, @NonNull String initials) {
+            this.full = full;
+            this.initials = initials;
+        }
+    }
+
+    private PinyinConverter() {
+        // 工具类不需要实例化
+    }
+
+    /**
+     * 把文本转换成全拼和首字母
+     * 首次调用会加载拼音码表，应在后台线程调用
+     * @param text 昵称或备注
+     * @return 转换结果，text 为 null 时两个字段都为空串
+     */
+    @NonNull
+    public static Pinyin convert(@Nullable String text) {
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        if (text == null) {
+            return new Pinyin("", "");
+        }
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String reading = reading(c);
+            if (reading != null) {
+                full.append(reading);
+                initials.append(reading.charAt(0));
+                inWord = false;
+            } else if (isAsciiLetterOrDigit(c)) {
+                char lower = Character.toLowerCase(c);
+                full.append(lower);
+                if (!inWord) {
+                    initials.append(lower);
+                }
+                inWord = true;
+            } else {
+                inWord = false;
+            }
+        }
+        return new Pinyin(full.toString(), initials.toString());
+    }
+
+    /**
+     * 把搜索输入规整成拼音查询：转小写，去掉空白和符号
+     * @param input 用户输入
+     * @return 查询串；输入中含有汉字等非字母数字内容或为空时返回 null（交给全文搜索处理）
+     */
+    @Nullable
+    public static String normalizeQuery(@Nullable String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (isAsciiLetterOrDigit(c)) {
+                query.append(Character.toLowerCase(c));
+            } else if (!Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    /**
+     * 前缀范围查询的上界：把最后一个字符加一
+     * 索引列上 [prefix, upperBound) 的范围查询等价于前缀匹配，可以直接在 B 树上定位
+     * @param prefix 由 {@link #normalizeQuery(String)} 得到的查询串
+     * @return 上界（不含）
+     */
+    @NonNull
+    public static String upperBound(@NonNull String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    @Nullable
+    private static String reading(char c) {
+        if (c < 0x80) {
+            return null;
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            return readings == null || readings.length == 0 || readings[0].isEmpty() ? null : readings[0];
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return null;
+        }
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
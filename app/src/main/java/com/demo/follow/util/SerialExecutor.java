@@ -0,0 +1,46 @@
+package com.demo.follow.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * 串行执行器
+ * 任务按提交顺序在底层执行器上逐个执行，同一时刻最多占用底层执行器的一个线程；
+ * 用于需要顺序执行、但不值得单独占用一个线程的任务（例如某个查询结果的加载和增量更新）
+ */
+public final class SerialExecutor implements Executor {
+
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private Runnable active;
+
+    /**
+     * @param executor 底层执行器
+     */
+    public SerialExecutor(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(@NonNull Runnable command) {
+        tasks.offer(() -> {
+            try {
+                command.run();
+            } finally {
+                scheduleNext();
+            }
+        });
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+        if (active != null) {
+            executor.execute(active);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.demo.follow.benchmark;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.demo.follow.datagen.FollowDataGenerator;
+import com.demo.follow.db.FollowRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基准测试数据，由 {@link FollowDataGenerator} 生成（固定种子，与 generateFollowDatasets 生成的数据集相同）
+ * 每次运行生成相同的数据，结果在不同提交之间可以比较
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 第 index 行的抖音号
+     * @param index 序号（从 1 开始）
+     * @return 抖音号
+     */
+    static String douyinId(int index) {
+        return FollowDataGenerator.douyinId(index);
+    }
+
+    /**
+     * 在一个事务中把生成的 count 行写入已有的数据库
+     * @param sql 数据库
+     * @param count 行数
+     */
+    static void insertUsers(SupportSQLiteDatabase sql, int count) {
+        sql.beginTransaction();
+        try {
+            SupportSQLiteStatement insert = sql.compileStatement("INSERT INTO follow"
+                    + " (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)");
+            for (FollowDataGenerator.Row row : new FollowDataGenerator().rows(count)) {
+                insert.clearBindings();
+                insert.bindString(1, row.douyinId);
+                insert.bindString(2, row.nick);
+                insert.bindString(3, row.avatar);
+                insert.bindLong(4, row.isSpecial ? 1 : 0);
+                if (row.remark != null) {
+                    insert.bindString(5, row.remark);
+                } else {
+                    insert.bindNull(5);
+                }
+                insert.bindLong(6, row.followTime);
+                insert.bindLong(7, row.status);
+                insert.executeInsert();
+            }
+            sql.setTransactionSuccessful();
+        } finally {
+            sql.endTransaction();
+        }
+    }
+
+    /**
+     * 内存中的列表行，排序与关注列表一致（特别关注在前，其余按关注时间倒序）
+     * @param count 行数
+     * @return 行列表
+     */
+    static List<FollowRow> rows(int count) {
+        List<FollowRow> special = new ArrayList<>();
+        List<FollowRow> normal = new ArrayList<>(count);
+        for (FollowDataGenerator.Row row : new FollowDataGenerator().rows(count)) {
+            FollowRow followRow = new FollowRow(row.index, row.douyinId, row.nick, row.remark,
+                    row.avatar, row.isSpecial, row.followTime, row.status);
+            (row.isSpecial ? special : normal).add(followRow);
+        }
+        Collections.reverse(special);
+        Collections.reverse(normal);
+        special.addAll(normal);
+        return special;
+    }
+}
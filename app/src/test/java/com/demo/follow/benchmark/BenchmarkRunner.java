@@ -0,0 +1,309 @@
+package com.demo.follow.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * JVM 基准测试的测量和报告（JMH 风格）
+ * 每个基准先预热若干轮，再测量若干轮；每轮在固定时长内重复执行操作，得分为平均每次耗时（us/op），
+ * 误差为 99.9% 置信区间的半宽。结果按 JMH 的 JSON 格式写入 benchmark.outputDir，
+ * 可以直接用 JMH 的对比工具比较两次提交的结果。
+ * 只在 -Pbenchmark 时启用（见 app/build.gradle），预热轮数、测量轮数和每轮时长可以用
+ * -Pbenchmark.warmup、-Pbenchmark.iterations、-Pbenchmark.iterationMs 覆盖。
+ * benchmark.budgets 指向的预算文件（app/benchmark-budgets.properties）中列出的基准，
+ * 平均耗时超出预算时 {@link #writeReport()} 在写完报告后抛出 AssertionError，CI 据此把关
+ */
+final class BenchmarkRunner {
+
+    /**
+     * 被测操作，返回值会被消费，避免被 JIT 当作无用代码消除
+     */
+    interface Op {
+        Object run() throws Exception;
+    }
+
+    /**
+     * 99.9% 双侧 t 分布临界值，下标为自由度（1..30），超出时使用正态近似
+     */
+    private static final double[] T_999 = {
+            Double.NaN, 636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+    private static final double Z_999 = 3.291;
+
+    private final String suite;
+    private final String suiteName;
+    private final int warmupIterations = Integer.getInteger("benchmark.warmup", 3);
+    private final int measurementIterations = Integer.getInteger("benchmark.iterations", 5);
+    private final long iterationMillis = Long.getLong("benchmark.iterationMs", 500);
+    private final List<String> entries = new ArrayList<>();
+    private final Properties budgets = loadBudgets();
+    private final List<String> overBudget = new ArrayList<>();
+
+    /**
+     * 消费操作的返回值
+     */
+    @SuppressWarnings("unused")
+    private volatile int sink;
+
+    BenchmarkRunner(Class<?> suite) {
+        this.suite = suite.getName();
+        this.suiteName = suite.getSimpleName();
+    }
+
+    /**
+     * 是否启用了基准测试（未启用时测试类应跳过）
+     * @return 设置了输出目录返回 true
+     */
+    static boolean isEnabled() {
+        return System.getProperty("benchmark.outputDir") != null;
+    }
+
+    /**
+     * 便捷构造参数表
+     * @param keyValues 依次为键、值
+     * @return 保持顺序的参数表
+     */
+    static Map<String, String> params(Object... keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            params.put(String.valueOf(keyValues[i]), String.valueOf(keyValues[i + 1]));
+        }
+        return params;
+    }
+
+    /**
+     * 测量一个操作
+     * @param name 基准名称（方法名）
+     * @param params 参数（行数等），可以为空表
+     * @param op 被测操作
+     * @return 平均每次耗时（微秒）
+     */
+    double measure(String name, Map<String, String> params, Op op) throws Exception {
+        return measure(name, params, null, op);
+    }
+
+    /**
+     * 测量一个操作，每次执行前先执行一次准备操作（不计入耗时，相当于 JMH 的 Level.Invocation）
+     * 用于每次都需要新数据的操作，例如清理已取消关注的行
+     * @param name 基准名称（方法名）
+     * @param params 参数（行数等），可以为空表
+     * @param setup 准备操作，为 null 时不准备
+     * @param op 被测操作
+     * @return 平均每次耗时（微秒）
+     */
+    double measure(String name, Map<String, String> params, Op setup, Op op) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(setup, op);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = iteration(setup, op);
+        }
+
+        double mean = mean(scores);
+        double error = error(scores, mean);
+        System.out.println(String.format(Locale.US, "%s.%s %s: %.3f ± %.3f us/op",
+                suite, name, params, mean, error));
+        entries.add(entry(name, params, scores, mean, error));
+        checkBudget(name, params, mean);
+        return mean;
+    }
+
+    /**
+     * 把本组所有结果写入 benchmark.outputDir/类名.json
+     * @return 写入的文件
+     */
+    File writeReport() throws IOException {
+        File dir = new File(System.getProperty("benchmark.outputDir"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, suite + ".json");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write("[\n");
+            out.write(String.join(",\n", entries));
+            out.write("\n]\n");
+        }
+        if (!overBudget.isEmpty()) {
+            throw new AssertionError("Over budget (see " + file + "):\n  " + String.join("\n  ", overBudget));
+        }
+        return file;
+    }
+
+    // ==================== 预算 ====================
+
+    /**
+     * 预算文件的键：类名.基准名，带参数时依次追加参数值，例如 DatabaseOpenBenchmark.coldOpen.10000；
+     * 值为平均每次耗时的上限（微秒）
+     */
+    private String budgetKey(String name, Map<String, String> params) {
+        StringBuilder key = new StringBuilder(suiteName).append('.').append(name);
+        for (String value : params.values()) {
+            key.append('.').append(value);
+        }
+        return key.toString();
+    }
+
+    private void checkBudget(String name, Map<String, String> params, double mean) {
+        String key = budgetKey(name, params);
+        String budget = budgets.getProperty(key);
+        if (budget != null && mean > Double.parseDouble(budget)) {
+            overBudget.add(String.format(Locale.US, "%s: %.3f us/op > %s us/op", key, mean, budget));
+        }
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        String path = System.getProperty("benchmark.budgets");
+        if (path != null && new File(path).isFile()) {
+            try (InputStream in = new FileInputStream(path)) {
+                budgets.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read " + path, e);
+            }
+        }
+        return budgets;
+    }
+
+    /**
+     * 执行一轮：在 iterationMillis 内重复执行操作（至少一次）
+     * 有准备操作时只累计被测操作本身的耗时
+     * @return 平均每次耗时（微秒）
+     */
+    private double iteration(Op setup, Op op) throws Exception {
+        long budget = iterationMillis * 1_000_000L;
+        long ops = 0;
+        long measured = 0;
+        int consumed = 0;
+        long start = System.nanoTime();
+        do {
+            if (setup != null) {
+                setup.run();
+                long opStart = System.nanoTime();
+                Object result = op.run();
+                measured += System.nanoTime() - opStart;
+                consumed ^= result == null ? 0 : System.identityHashCode(result);
+            } else {
+                Object result = op.run();
+                consumed ^= result == null ? 0 : System.identityHashCode(result);
+                measured = System.nanoTime() - start;
+            }
+            ops++;
+        } while (measured < budget && System.nanoTime() - start < budget * 10);
+        sink = consumed;
+        return measured / 1e3 / ops;
+    }
+
+    private static double mean(double[] scores) {
+        double sum = 0;
+        for (double score : scores) {
+            sum += score;
+        }
+        return sum / scores.length;
+    }
+
+    /**
+     * 99.9% 置信区间半宽：t * s / sqrt(n)
+     */
+    private static double error(double[] scores, double mean) {
+        int n = scores.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double squares = 0;
+        for (double score : scores) {
+            squares += (score - mean) * (score - mean);
+        }
+        double stdev = Math.sqrt(squares / (n - 1));
+        double t = n - 1 < T_999.length ? T_999[n - 1] : Z_999;
+        return t * stdev / Math.sqrt(n);
+    }
+
+    // ==================== JSON ====================
+
+    private String entry(String name, Map<String, String> params, double[] scores,
+                         double mean, double error) {
+        double[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        StringBuilder json = new StringBuilder();
+        json.append("  {\n");
+        field(json, "benchmark", quote(suite + "." + name));
+        field(json, "mode", quote("avgt"));
+        field(json, "threads", "1");
+        field(json, "forks", "1");
+        field(json, "commit", quote(System.getProperty("benchmark.commit", "")));
+        field(json, "warmupIterations", String.valueOf(warmupIterations));
+        field(json, "warmupTime", quote(iterationMillis + " ms"));
+        field(json, "measurementIterations", String.valueOf(measurementIterations));
+        field(json, "measurementTime", quote(iterationMillis + " ms"));
+        if (!params.isEmpty()) {
+            List<String> pairs = new ArrayList<>();
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                pairs.add(quote(param.getKey()) + ": " + quote(param.getValue()));
+            }
+            field(json, "params", "{" + String.join(", ", pairs) + "}");
+        }
+        json.append("    \"primaryMetric\": {\n");
+        json.append("      \"score\": ").append(number(mean)).append(",\n");
+        json.append("      \"scoreError\": ").append(number(error)).append(",\n");
+        json.append("      \"scoreConfidence\": [").append(number(mean - error)).append(", ")
+                .append(number(mean + error)).append("],\n");
+        json.append("      \"scorePercentiles\": {")
+                .append("\"0.0\": ").append(number(sorted[0])).append(", ")
+                .append("\"50.0\": ").append(number(percentile(sorted, 0.5))).append(", ")
+                .append("\"90.0\": ").append(number(percentile(sorted, 0.9))).append(", ")
+                .append("\"100.0\": ").append(number(sorted[sorted.length - 1])).append("},\n");
+        json.append("      \"scoreUnit\": \"us/op\",\n");
+        json.append("      \"rawData\": [[");
+        for (int i = 0; i < scores.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(number(scores[i]));
+        }
+        json.append("]]\n");
+        json.append("    },\n");
+        json.append("    \"secondaryMetrics\": {}\n");
+        json.append("  }");
+        return json.toString();
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static void field(StringBuilder json, String key, String value) {
+        json.append("    ").append(quote(key)).append(": ").append(value).append(",\n");
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.US, "%.6f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.follow.benchmark;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.datagen.FollowDatasetWriter;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 启动路径上的数据库耗时：打开数据库并读取计数和首屏，与 DatabaseWarmup 在启动时做的工作相同
+ * coldOpen 为首次启动（删除数据库文件，从预置文件拷贝、迁移、建触发器和全文索引），
+ * warmOpen 为之后的启动（文件已存在，只打开和校验）
+ * 15 行为正式预置的 follow_v1.db，其余为 generateFollowDatasets 生成的数据集
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class DatabaseOpenBenchmark {
+
+    private static final int FIRST_PAGE = 100;
+    private static final int[] ROW_COUNTS = {1_000, 10_000};
+    private static final String NAME = "benchmark_open.db";
+
+    private Context context;
+
+    /**
+     * 上一次打开的实例，在下一次测量前的准备阶段关闭
+     */
+    private AppDatabase db;
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+        context = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void openAndFirstPage() throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        measure(runner, 15, "follow_v1.db");
+        for (int rows : ROW_COUNTS) {
+            measure(runner, rows, FollowDatasetWriter.assetPath(rows));
+        }
+        runner.writeReport();
+    }
+
+    private void measure(BenchmarkRunner runner, int rows, String assetPath) throws Exception {
+        runner.measure("coldOpen", BenchmarkRunner.params("rows", rows),
+                () -> {
+                    close();
+                    context.deleteDatabase(NAME);
+                    return null;
+                },
+                () -> open(assetPath));
+        runner.measure("warmOpen", BenchmarkRunner.params("rows", rows),
+                () -> {
+                    close();
+                    return null;
+                },
+                () -> open(assetPath));
+        close();
+        context.deleteDatabase(NAME);
+    }
+
+    private Object open(String assetPath) {
+        db = AppDatabase.builder(context, NAME, assetPath)
+                .allowMainThreadQueries()
+                .build();
+        db.getOpenHelper().getWritableDatabase();
+        FollowDao dao = db.followDao();
+        return dao.countFollow() + dao.getFirstFollowPage(FIRST_PAGE).size();
+    }
+
+    private void close() {
+        if (db != null) {
+            db.close();
+            db = null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.demo.follow.benchmark;
+
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.R;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.ui.FollowAdapter;
+import com.demo.follow.ui.FollowDiffUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 列表行的创建和绑定耗时（onCreateViewHolder / onBindViewHolder）
+ * 在 Robolectric 中执行，绝对值不代表真机，但能反映绑定路径上新增的工作（多余的 setText、监听器、布局请求等）；
+ * 真机上的帧时间和滑动卡顿见 :macrobenchmark 的 FollowScrollBenchmark
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FollowBindBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int WIDTH_PX = 1080;
+
+    private int next;
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void bindRows() throws Exception {
+        Context context = new ContextThemeWrapper(ApplicationProvider.getApplicationContext(),
+                R.style.Theme_FollowApp);
+        FrameLayout parent = new FrameLayout(context);
+        List<FollowRow> rows = BenchmarkData.rows(ROWS);
+
+        // 点击回调不会触发，不需要真正的仓库
+        FollowAdapter followAdapter = new FollowAdapter(null, row -> { });
+        followAdapter.submitList(rows);
+        RecyclerView.Adapter<RecyclerView.ViewHolder> adapter = (RecyclerView.Adapter) followAdapter;
+        RecyclerView.ViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+        // 局部刷新：切换特别关注，与仓库写入后的变更事件相同
+        FollowDiffUtil diff = new FollowDiffUtil();
+        FollowRow first = rows.get(0);
+        FollowRow toggled = new FollowRow(first.uid, first.douyinId, first.nick, first.remark,
+                first.avatar, !first.isSpecial, first.followTime, first.status);
+        List<Object> payloads = Collections.singletonList(diff.getChangePayload(first, toggled));
+
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        runner.measure("createViewHolder", BenchmarkRunner.params(),
+                () -> adapter.onCreateViewHolder(parent, 0));
+        runner.measure("bindViewHolder", BenchmarkRunner.params(), () -> {
+            adapter.onBindViewHolder(holder, next++ % ROWS);
+            return holder;
+        });
+        runner.measure("bindPartial", BenchmarkRunner.params(), () -> {
+            adapter.onBindViewHolder(holder, 0, payloads);
+            return holder;
+        });
+        // 绑定后重新测量和布局整行，包含文本变化引起的重新排版
+        runner.measure("bindAndLayout", BenchmarkRunner.params(), () -> {
+            adapter.onBindViewHolder(holder, next++ % ROWS);
+            View itemView = holder.itemView;
+            itemView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH_PX, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+            itemView.layout(0, 0, itemView.getMeasuredWidth(), itemView.getMeasuredHeight());
+            return holder;
+        });
+        runner.writeReport();
+    }
+}
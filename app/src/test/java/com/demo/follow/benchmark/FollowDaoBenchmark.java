@@ -0,0 +1,60 @@
+package com.demo.follow.benchmark;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.datagen.FollowDatasetWriter;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 全量列表查询的物化耗时：1k / 10k / 100k 行
+ * 对比完整实体（getAllFollow 的语句）和只读展示列的行模型（getAllFollowRows 的语句）
+ * 数据库由 generateFollowDatasets 生成的数据集通过 createFromAsset 打开，与正式数据库的打开方式相同
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowDaoBenchmark {
+
+    private static final int[] ROW_COUNTS = {1_000, 10_000, 100_000};
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    public void materializeAllFollow() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        for (int rows : ROW_COUNTS) {
+            String name = "benchmark_" + rows + ".db";
+            AppDatabase db = AppDatabase.builder(context, name, FollowDatasetWriter.assetPath(rows))
+                    .allowMainThreadQueries()
+                    .build();
+            try {
+                FollowDao dao = db.followDao();
+                assertEquals(rows, dao.loadAllFollow().size());
+
+                runner.measure("getAllFollow", BenchmarkRunner.params("rows", rows), dao::loadAllFollow);
+                runner.measure("getAllFollowRows", BenchmarkRunner.params("rows", rows), dao::loadAllFollowRows);
+            } finally {
+                db.close();
+                context.deleteDatabase(name);
+            }
+        }
+        runner.writeReport();
+    }
+}
@@ -0,0 +1,111 @@
+package com.demo.follow.benchmark;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.ui.FollowDiffUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 大列表少量变化时的差异计算耗时
+ * 与 ListAdapter / AsyncListDiffer 相同的方式调用 DiffUtil（检测移动），
+ * 新列表相对旧列表有 4 行内容变化、3 行删除、3 行插入
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FollowDiffBenchmark {
+
+    private static final int[] ROW_COUNTS = {1_000, 10_000};
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    public void diffFewChanges() throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        FollowDiffUtil itemCallback = new FollowDiffUtil();
+        for (int rows : ROW_COUNTS) {
+            List<FollowRow> oldList = BenchmarkData.rows(rows);
+            List<FollowRow> newList = withFewChanges(oldList);
+            runner.measure("calculateDiff", BenchmarkRunner.params("rows", rows, "changes", 10),
+                    () -> DiffUtil.calculateDiff(new ListCallback(oldList, newList, itemCallback), true));
+        }
+        runner.writeReport();
+    }
+
+    /**
+     * 修改开头、中间、末尾的几行，删除 3 行，在顶部插入 3 行（新关注）
+     */
+    private static List<FollowRow> withFewChanges(List<FollowRow> rows) {
+        List<FollowRow> changed = new ArrayList<>(rows);
+        int size = rows.size();
+        int[] edited = {1, size / 3, size / 2, size - 2};
+        for (int index : edited) {
+            FollowRow row = changed.get(index);
+            changed.set(index, new FollowRow(row.uid, row.douyinId, row.nick, "edited",
+                    row.avatar, !row.isSpecial, row.followTime, row.status));
+        }
+        changed.remove(size - 10);
+        changed.remove(size / 4);
+        changed.remove(5);
+        for (int i = 1; i <= 3; i++) {
+            long uid = size + i;
+            changed.add(0, new FollowRow(uid, BenchmarkData.douyinId((int) uid), "new" + i, null,
+                    "Naruto.jpg", false, Long.MAX_VALUE - i, 1));
+        }
+        return changed;
+    }
+
+    /**
+     * 把 ItemCallback 适配成 DiffUtil.Callback（与 AsyncListDiffer 内部相同）
+     */
+    private static final class ListCallback extends DiffUtil.Callback {
+        private final List<FollowRow> oldList;
+        private final List<FollowRow> newList;
+        private final DiffUtil.ItemCallback<FollowRow> itemCallback;
+
+        ListCallback(List<FollowRow> oldList, List<FollowRow> newList,
+                     DiffUtil.ItemCallback<FollowRow> itemCallback) {
+            this.oldList = oldList;
+            this.newList = newList;
+            this.itemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return itemCallback.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return itemCallback.getChangePayload(oldList.get(oldItemPosition), newList.get(newItemPosition));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.demo.follow.benchmark;
+
+import android.os.Parcel;
+
+import com.demo.follow.db.FollowUser;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * FollowUser 的 Parcel 往返耗时：单个对象，以及 100 个对象的列表
+ * Robolectric 的 Parcel 不是设备上的实现，结果只用于提交之间的相对比较
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FollowParcelBenchmark {
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    public void parcelRoundTrip() throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        FollowUser user = user(1);
+        assertEquals(user.douyinId, roundTrip(user).douyinId);
+        runner.measure("roundTrip", BenchmarkRunner.params("users", 1), () -> roundTrip(user));
+
+        List<FollowUser> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            users.add(user(i));
+        }
+        runner.measure("roundTripList", BenchmarkRunner.params("users", users.size()), () -> roundTrip(users));
+        runner.writeReport();
+    }
+
+    private static FollowUser roundTrip(FollowUser user) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            user.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return FollowUser.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static List<FollowUser> roundTrip(List<FollowUser> users) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeTypedList(users);
+            parcel.setDataPosition(0);
+            return parcel.createTypedArrayList(FollowUser.CREATOR);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static FollowUser user(int index) {
+        FollowUser user = new FollowUser();
+        user.uid = index;
+        user.douyinId = BenchmarkData.douyinId(index);
+        user.nick = "鸣人 naruto" + index;
+        user.avatar = "Naruto.jpg";
+        user.isSpecial = index % 20 == 0;
+        user.remark = index % 5 == 0 ? "木叶" + index : null;
+        user.followTime = 1_600_000_000_000L + index;
+        user.status = 1;
+        return user;
+    }
+}
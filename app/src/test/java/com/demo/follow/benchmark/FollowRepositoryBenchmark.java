@@ -0,0 +1,119 @@
+package com.demo.follow.benchmark;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Looper;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.repository.FollowRepository;
+import com.demo.follow.repository.FollowWriteQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 仓库写操作的端到端耗时：从调用仓库方法到写入落盘、变更事件发出
+ * 使用应用实际的数据库单例（预置数据库 + WAL + 读写通道），在预置数据之外再写入 ROWS 行；
+ * 每次操作后立即 awaitFlush，测量的是单次写入的延迟，不包含合并窗口的等待
+ * 数据库单例在进程内只创建一次，因此所有仓库操作放在同一个测试方法中
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowRepositoryBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private FollowWriteQueue writeQueue;
+    private int next;
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    public void mutations() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        AppDatabase db = AppDatabase.get(context);
+        SupportSQLiteDatabase sql = db.getOpenHelper().getWritableDatabase();
+        BenchmarkData.insertUsers(sql, ROWS);
+        FollowRepository repository = FollowRepository.get(context);
+        writeQueue = FollowWriteQueue.get(context);
+        awaitPinyinBackfill(sql);
+
+        BenchmarkRunner runner = new BenchmarkRunner(getClass());
+        String target = BenchmarkData.douyinId(ROWS / 2);
+
+        runner.measure("toggleSpecial", BenchmarkRunner.params("rows", ROWS), () -> {
+            repository.toggleSpecial(target);
+            return settle();
+        });
+        runner.measure("toggleFollow", BenchmarkRunner.params("rows", ROWS), () -> {
+            repository.toggleFollow(target);
+            return settle();
+        });
+        runner.measure("updateRemark", BenchmarkRunner.params("rows", ROWS), () -> {
+            repository.updateRemark(target, "remark" + (next++ & 1023));
+            return settle();
+        });
+        runner.measure("unfollowByDouyinId", BenchmarkRunner.params("rows", ROWS), () -> {
+            repository.unfollowByDouyinId(BenchmarkData.douyinId(next++ % ROWS + 1));
+            return settle();
+        });
+        // 每次清理前插入一行已取消关注的用户，清理正好删除一行
+        runner.measure("refreshData", BenchmarkRunner.params("rows", ROWS, "removed", 1),
+                () -> {
+                    sql.execSQL("INSERT INTO follow (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                            + " VALUES (?, 'removed', 'Naruto.jpg', 0, NULL, 0, 0)",
+                            new Object[]{String.format(Locale.US, "rm%07d", next++)});
+                    return null;
+                },
+                () -> {
+                    repository.refreshData();
+                    return settle();
+                });
+        runner.writeReport();
+    }
+
+    /**
+     * 等待写入通道执行完已排队的任务，并执行主线程上的变更事件分发
+     */
+    private Object settle() throws InterruptedException {
+        assertTrue(writeQueue.awaitFlush(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+        return null;
+    }
+
+    /**
+     * 仓库创建时会在后台补建拼音索引，等它完成后再开始测量
+     */
+    private static void awaitPinyinBackfill(SupportSQLiteDatabase sql) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS * 4);
+        while (System.nanoTime() < deadline) {
+            try (Cursor cursor = sql.query(
+                    "SELECT COUNT(*) FROM follow WHERE uid NOT IN (SELECT uid FROM follow_pinyin)")) {
+                if (cursor.moveToFirst() && cursor.getInt(0) == 0) {
+                    return;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("pinyin backfill did not finish");
+    }
+}
@@ -0,0 +1,67 @@
+package com.demo.follow.benchmark;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.datagen.FollowDatasetWriter;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowFts;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 全文搜索的前缀查询耗时：100k 行
+ * 每次操作依次取一个模拟边输入边搜索的关键词（单字符、短前缀、长前缀、抖音号、中文、多个词、无结果）
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowSearchBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int LIMIT = 50;
+
+    private static final String[] INPUTS = {
+            "n", "na", "nar", "naru", "narutosa", "K", "ka", "kaka",
+            "dy", "dy0012", "dy0012345", "鸣", "鸣人", "sa ke", "hina ta", "zzz"
+    };
+
+    private int next;
+
+    @Before
+    public void setUp() {
+        assumeTrue(BenchmarkRunner.isEnabled());
+    }
+
+    @Test
+    public void prefixSearch() throws Exception {
+        Context context = ApplicationProvider.getApplicationContext();
+        String name = "benchmark_search_" + ROWS + ".db";
+        AppDatabase db = AppDatabase.builder(context, name, FollowDatasetWriter.assetPath(ROWS))
+                .allowMainThreadQueries()
+                .build();
+        try {
+            FollowDao dao = db.followDao();
+            String[] queries = new String[INPUTS.length];
+            for (int i = 0; i < INPUTS.length; i++) {
+                queries[i] = FollowFts.matchQuery(INPUTS[i]);
+            }
+            BenchmarkRunner runner = new BenchmarkRunner(getClass());
+            runner.measure("prefixSearch", BenchmarkRunner.params("rows", ROWS),
+                    () -> dao.searchFollowRows(queries[next++ % queries.length], LIMIT));
+            runner.writeReport();
+        } finally {
+            db.close();
+            context.deleteDatabase(name);
+        }
+    }
+}
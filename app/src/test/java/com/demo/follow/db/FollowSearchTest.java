@@ -0,0 +1,164 @@
+package com.demo.follow.db;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.util.PinyinConverter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 全文搜索（JVM，Robolectric 原生 SQLite）：按昵称、备注、抖音号前缀匹配，索引随写入同步
+ * 查询耗时见 benchmark.FollowSearchBenchmark（-Pbenchmark）
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowSearchTest {
+
+    /**
+     * 行数需覆盖测试中查询的抖音号 dy0012345
+     */
+    private static final int ROWS = 20_000;
+    private static final int LIMIT = 50;
+
+    private static final String[] SYLLABLES = {
+            "na", "ru", "to", "sa", "su", "ke", "ka", "shi", "ita", "chi",
+            "ga", "ara", "hina", "ta", "mi", "lee", "neji", "ten", "shino", "kiba"
+    };
+    private static final String HANZI = "鸣人佐助小樱卡西我爱罗雏田鹿丸丁次宁天李";
+
+    private AppDatabase db;
+    private FollowDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+        populate(db.getOpenHelper().getWritableDatabase());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void search_matchesNickRemarkAndDouyinIdByPrefix() {
+        List<FollowRow> byId = dao.searchFollowRows(FollowFts.matchQuery("dy0012345"), LIMIT);
+        assertEquals(1, byId.size());
+        assertEquals("dy0012345", byId.get(0).douyinId);
+
+        // 大小写不敏感，多个词同时满足，结果按 uid 倒序
+        List<FollowRow> rows = dao.searchFollowRows(FollowFts.matchQuery("NA ru"), LIMIT);
+        assertFalse(rows.isEmpty());
+        for (int i = 0; i < rows.size(); i++) {
+            String text = (rows.get(i).nick + " " + rows.get(i).remark).toLowerCase(Locale.ROOT);
+            assertTrue(text, text.contains("na") && text.contains("ru"));
+            if (i > 0) {
+                assertTrue(rows.get(i - 1).uid > rows.get(i).uid);
+            }
+        }
+
+        // 修改备注后索引同步更新
+        dao.setRemarkByDouyinId("dy0000007", "uniqueremark");
+        List<FollowRow> byRemark = dao.searchFollowRows(FollowFts.matchQuery("uniquerem"), LIMIT);
+        assertEquals(1, byRemark.size());
+        assertEquals("dy0000007", byRemark.get(0).douyinId);
+
+        assertNull(FollowFts.matchQuery("   "));
+        assertEquals("\"a*\" \"b*\"", FollowFts.matchQuery(" a \"b\" "));
+    }
+
+    @Test
+    public void searchPinyin_fullPinyinFirstThenInitialsWithoutDuplicates() {
+        dao.upsertPinyin(Arrays.asList(
+                new FollowPinyin(1, FollowPinyin.SOURCE_NICK, "mingren", "mr"),
+                new FollowPinyin(1, FollowPinyin.SOURCE_REMARK, "mrbanzhang", "mbz"),
+                new FollowPinyin(2, FollowPinyin.SOURCE_NICK, "mao", "m"),
+                new FollowPinyin(3, FollowPinyin.SOURCE_NICK, "zuozhu", "zz"),
+                new FollowPinyin(4, FollowPinyin.SOURCE_NICK, "zzlover", "zzlover")));
+
+        // 昵称和备注都命中的用户只出现一次，按拼音顺序
+        assertEquals(Arrays.asList(2L, 1L), searchPinyin("m", 10));
+        assertEquals(Arrays.asList(2L), searchPinyin("m", 1));
+        // 全拼命中在前，首字母命中补齐
+        assertEquals(Arrays.asList(4L, 3L), searchPinyin("zz", 10));
+        assertEquals(Arrays.asList(4L), searchPinyin("zz", 1));
+        assertEquals(Arrays.asList(1L), searchPinyin("min", 10));
+    }
+
+    private List<Long> searchPinyin(String prefix, int limit) {
+        return dao.searchPinyinUids(prefix, PinyinConverter.upperBound(prefix), limit);
+    }
+
+    /**
+     * 写入固定随机种子的数据（同步触发器同时建立全文索引）
+     */
+    private static void populate(SupportSQLiteDatabase sql) {
+        Random random = new Random(42);
+        sql.beginTransaction();
+        try {
+            SupportSQLiteStatement insert = sql.compileStatement("INSERT INTO follow"
+                    + " (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)");
+            for (int i = 0; i < ROWS; i++) {
+                insert.clearBindings();
+                insert.bindString(1, String.format(Locale.US, "dy%07d", i));
+                insert.bindString(2, nick(random));
+                insert.bindString(3, "Naruto.jpg");
+                insert.bindLong(4, random.nextInt(20) == 0 ? 1 : 0);
+                if (random.nextInt(5) == 0) {
+                    insert.bindString(5, word(random, 2));
+                } else {
+                    insert.bindNull(5);
+                }
+                insert.bindLong(6, i * 1000L);
+                insert.bindLong(7, 1);
+                insert.executeInsert();
+            }
+            sql.setTransactionSuccessful();
+        } finally {
+            sql.endTransaction();
+        }
+    }
+
+    private static String nick(Random random) {
+        String latin = word(random, 2 + random.nextInt(3));
+        if (random.nextInt(5) >= 2) {
+            return latin;
+        }
+        StringBuilder hanzi = new StringBuilder();
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            hanzi.append(HANZI.charAt(random.nextInt(HANZI.length())));
+        }
+        return hanzi + " " + latin;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package com.demo.follow.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.SyncState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 导入：JSON / CSV 解析、跨批次写入、已存在的行保留本地设置、解析失败整体回滚、保留同步状态
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowImporterTest {
+
+    private AppDatabase db;
+    private FollowDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void importsCsvAcrossBatchesAndKeepsLocalSettings() throws IOException {
+        FollowUser local = new FollowUser();
+        local.douyinId = "dy1";
+        local.nick = "旧昵称";
+        local.isSpecial = true;
+        local.remark = "同事";
+        local.status = 0;
+        dao.insert(local);
+
+        int rows = FollowImporter.BATCH * 2 + 7;
+        StringBuilder csv = new StringBuilder("douyinId,nick,avatar,followTime\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("dy").append(i).append(",\"昵称, ").append(i).append("\",,").append(i).append('\n');
+        }
+        csv.append(",缺少抖音号,,1\n");
+
+        FollowImporter.Result result = new FollowImporter(db).importFrom(utf8(csv.toString()),
+                FollowImporter.Format.CSV);
+
+        assertEquals(rows - 1, result.inserted);
+        assertEquals(1, result.updated);
+        assertEquals(1, result.skipped);
+        assertEquals(rows, dao.loadAllFollowRows().size());
+
+        FollowUser updated = dao.getUserByDouyinId("dy1");
+        assertEquals("昵称, 1", updated.nick);
+        assertEquals(1, updated.status);
+        assertTrue(updated.isSpecial);
+        assertEquals("同事", updated.remark);
+        // 新插入的行同时建立了拼音索引
+        assertTrue(dao.getUsersWithoutPinyin(1).isEmpty());
+    }
+
+    @Test
+    public void importsJsonAndRollsBackOnMalformedInput() throws IOException {
+        String json = "[{\"douyinId\":\"a\",\"nick\":\"小明\",\"followTime\":5,\"isSpecial\":true,\"extra\":[1]},"
+                + "{\"douyinId\":\"b\",\"remark\":null}]";
+        FollowImporter.Result result = new FollowImporter(db).importFrom(utf8(json), FollowImporter.Format.JSON);
+        assertEquals(2, result.inserted);
+        assertTrue(dao.getUserByDouyinId("a").isSpecial);
+        assertEquals(5, dao.getUserByDouyinId("a").followTime);
+
+        try {
+            new FollowImporter(db).importFrom(utf8("[{\"douyinId\":\"c\"}, {\"douyinId\":"),
+                    FollowImporter.Format.JSON);
+            fail();
+        } catch (IOException expected) {
+            // 已解析的 c 随事务一起回滚
+        }
+        assertNull(dao.getUserByDouyinId("c"));
+    }
+
+    @Test
+    public void importWithOnlyDouyinIdKeepsExistingProfile() throws IOException {
+        FollowUser local = new FollowUser();
+        local.douyinId = "dy1";
+        local.nick = "小明";
+        local.avatar = "assets/avatars/1.jpg";
+        local.followTime = 1234;
+        local.status = 0;
+        dao.insert(local);
+
+        FollowImporter.Result json = new FollowImporter(db).importFrom(utf8("[{\"douyinId\":\"dy1\"}]"),
+                FollowImporter.Format.JSON);
+        assertEquals(1, json.updated);
+        FollowImporter.Result csv = new FollowImporter(db).importFrom(utf8("douyinId,nick,followTime\ndy1,,\n"),
+                FollowImporter.Format.CSV);
+        assertEquals(1, csv.updated);
+
+        // 导入数据中没有的列保留原值，只恢复关注状态
+        FollowUser updated = dao.getUserByDouyinId("dy1");
+        assertEquals("小明", updated.nick);
+        assertEquals("assets/avatars/1.jpg", updated.avatar);
+        assertEquals(1234, updated.followTime);
+        assertEquals(1, updated.status);
+    }
+
+    @Test
+    public void importKeepsPendingMutationsAndCursor() throws IOException {
+        // 导入没有涉及的行上有未上传的本地修改
+        db.syncDao().upsertOutbox(Collections.singletonList(
+                FollowOutbox.of("b", FollowOutbox.FIELD_REMARK, "同事", 5)));
+        SyncState state = new SyncState();
+        state.id = SyncState.ROW_ID;
+        state.cursor = 42;
+        db.syncDao().saveState(state);
+
+        new FollowImporter(db).importFrom(utf8("[{\"douyinId\":\"a\"}]"), FollowImporter.Format.JSON);
+        assertEquals(1, db.syncDao().countOutbox());
+        assertEquals(Long.valueOf(42), db.syncDao().getCursor());
+    }
+
+    @Test
+    public void splitsQuotedCsvFields() {
+        assertEquals(Arrays.asList("a", "b,c", "say \"hi\"", ""),
+                FollowImporter.splitCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+
+    private static InputStream utf8(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
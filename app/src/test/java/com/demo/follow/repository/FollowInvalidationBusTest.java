@@ -0,0 +1,81 @@
+package com.demo.follow.repository;
+
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 行级失效通知的合并和按 uid 分发
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FollowInvalidationBusTest {
+
+    private final FollowInvalidationBus bus = FollowInvalidationBus.getInstance();
+
+    @Test
+    public void invalidationsCoalesceAndReachOnlyTheirRows() {
+        List<DirtyRows> batches = new ArrayList<>();
+        List<Long> row2 = new ArrayList<>();
+        List<Long> row9 = new ArrayList<>();
+        FollowInvalidationBus.DirtyListener dirty = batches::add;
+        FollowInvalidationBus.RowListener listener2 = row2::add;
+        FollowInvalidationBus.RowListener listener9 = row9::add;
+        bus.addDirtyListener(dirty);
+        bus.addRowListener(2, listener2);
+        bus.addRowListener(9, listener9);
+        long version = bus.version();
+        long resetVersion = bus.resetVersion();
+        try {
+            // 同一帧内的多次报告合并为一批，uid 排序去重
+            bus.invalidate(Arrays.asList(5L, 2L));
+            bus.invalidate(Arrays.asList(2L, 3L));
+            assertTrue(batches.isEmpty());
+            shadowOf(Looper.getMainLooper()).idle();
+
+            assertEquals(1, batches.size());
+            DirtyRows rows = batches.get(0);
+            assertFalse(rows.isAll());
+            assertArrayEquals(new long[]{2, 3, 5}, rows.uids());
+            assertTrue(rows.contains(3));
+            assertFalse(rows.contains(4));
+            assertEquals(version + 1, bus.version());
+            assertEquals(resetVersion, bus.resetVersion());
+
+            // 单行监听只收到自己的行
+            assertEquals(List.of(2L), row2);
+            assertTrue(row9.isEmpty());
+
+            // 全部失效通知所有单行监听
+            bus.invalidate(Arrays.asList(2L));
+            bus.invalidateAll();
+            shadowOf(Looper.getMainLooper()).idle();
+            assertEquals(2, batches.size());
+            assertTrue(batches.get(1).isAll());
+            assertTrue(batches.get(1).contains(4));
+            assertEquals(resetVersion + 1, bus.resetVersion());
+            assertEquals(List.of(2L, 2L), row2);
+            assertEquals(List.of(9L), row9);
+
+            // 移除后不再收到
+            bus.removeRowListener(2, listener2);
+            bus.invalidate(Arrays.asList(2L));
+            shadowOf(Looper.getMainLooper()).idle();
+            assertEquals(2, row2.size());
+        } finally {
+            bus.removeDirtyListener(dirty);
+            bus.removeRowListener(2, listener2);
+            bus.removeRowListener(9, listener9);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.demo.follow.repository;
+
+import android.content.Context;
+
+import androidx.paging.PagingSource.LoadParams;
+import androidx.paging.PagingSource.LoadResult;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowPageKey;
+import com.demo.follow.db.FollowRow;
+import com.demo.follow.db.FollowUser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 游标分页：跨越特别关注分组边界、关注时间相同的行，向后 / 向前翻页和从锚点刷新都与全量列表一致，占位符数量正确
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowKeysetPagingSourceTest {
+
+    private static final int ROWS = 61;
+    private static final int PAGE = 7;
+
+    private AppDatabase db;
+    private FollowDao dao;
+    private List<Long> expected;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+        List<FollowUser> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            FollowUser user = new FollowUser();
+            user.douyinId = "dy" + i;
+            user.nick = "昵称" + i;
+            user.isSpecial = i % 4 == 0;
+            // 只有 3 个不同的关注时间，大量行只能靠 uid 区分先后
+            user.followTime = 1000 + (i % 3) * 10;
+            users.add(user);
+        }
+        dao.insertAll(users);
+        expected = uids(dao.loadAllFollowRows());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void refreshFromStartThenAppendCoversTheList() throws Exception {
+        FollowKeysetPagingSource source = newSource();
+        LoadResult.Page<FollowPageKey, FollowRow> page = load(source,
+                new LoadParams.Refresh<>(null, PAGE, true));
+        assertNull(page.getPrevKey());
+        assertEquals(0, page.getItemsBefore());
+        assertEquals(ROWS - PAGE, page.getItemsAfter());
+
+        List<Long> seen = new ArrayList<>(uids(page.getData()));
+        FollowPageKey next = page.getNextKey();
+        while (next != null) {
+            page = load(source, new LoadParams.Append<>(next, PAGE, true));
+            seen.addAll(uids(page.getData()));
+            next = page.getNextKey();
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void refreshFromAnchorThenPrependAndAppendCoversTheList() throws Exception {
+        // 锚点之后的第一行不在分组边界上，向前翻页需要跨过特别关注分组
+        int anchor = 30;
+        FollowPageKey key = FollowPageKey.of(dao.loadAllFollowRows().get(anchor));
+        FollowKeysetPagingSource source = newSource();
+        LoadResult.Page<FollowPageKey, FollowRow> page = load(source,
+                new LoadParams.Refresh<>(key, PAGE, true));
+        assertEquals(expected.subList(anchor + 1, anchor + 1 + PAGE), uids(page.getData()));
+        assertEquals(anchor + 1, page.getItemsBefore());
+        assertEquals(ROWS - anchor - 1 - PAGE, page.getItemsAfter());
+
+        List<Long> seen = new ArrayList<>(uids(page.getData()));
+        FollowPageKey prev = page.getPrevKey();
+        while (prev != null) {
+            LoadResult.Page<FollowPageKey, FollowRow> before = load(source,
+                    new LoadParams.Prepend<>(prev, PAGE, true));
+            seen.addAll(0, uids(before.getData()));
+            prev = before.getPrevKey();
+        }
+        FollowPageKey next = page.getNextKey();
+        while (next != null) {
+            LoadResult.Page<FollowPageKey, FollowRow> after = load(source,
+                    new LoadParams.Append<>(next, PAGE, true));
+            seen.addAll(uids(after.getData()));
+            next = after.getNextKey();
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void refreshPastTheEndFallsBackToStart() throws Exception {
+        FollowPageKey key = FollowPageKey.of(dao.loadAllFollowRows().get(ROWS - 1));
+        LoadResult.Page<FollowPageKey, FollowRow> page = load(newSource(),
+                new LoadParams.Refresh<>(key, PAGE, true));
+        assertEquals(expected.subList(0, PAGE), uids(page.getData()));
+        assertNull(page.getPrevKey());
+        assertEquals(0, page.getItemsBefore());
+        assertEquals(ROWS - PAGE, page.getItemsAfter());
+    }
+
+    private FollowKeysetPagingSource newSource() {
+        return new FollowKeysetPagingSource(db, Runnable::run);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LoadResult.Page<FollowPageKey, FollowRow> load(
+            FollowKeysetPagingSource source, LoadParams<FollowPageKey> params) throws Exception {
+        LoadResult<FollowPageKey, FollowRow> result = source.loadFuture(params).get();
+        assertTrue(String.valueOf(result), result instanceof LoadResult.Page);
+        return (LoadResult.Page<FollowPageKey, FollowRow>) result;
+    }
+
+    private static List<Long> uids(List<FollowRow> rows) {
+        List<Long> uids = new ArrayList<>(rows.size());
+        for (FollowRow row : rows) {
+            uids.add(row.uid);
+        }
+        return uids;
+    }
+}
@@ -0,0 +1,203 @@
+package com.demo.follow.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.SyncDao;
+import com.demo.follow.db.SyncState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 快照：跨多块的往返一致、块内字符串去重、损坏检测、损坏时整体回滚、恢复时重置同步状态
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AppDatabase db;
+    private FollowDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void roundTripsAcrossBlocks() throws IOException {
+        int rows = FollowSnapshot.ROWS_PER_BLOCK * 2 + 3;
+        List<FollowUser> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            FollowUser user = new FollowUser();
+            user.douyinId = "dy" + i;
+            user.nick = i % 7 == 0 ? null : "昵称" + i;
+            user.avatar = "assets/avatars/" + (i % 10) + ".jpg";
+            user.remark = i % 3 == 0 ? "备注" + i : null;
+            user.isSpecial = i % 5 == 0;
+            user.status = i % 11 == 0 ? 0 : 1;
+            // 关注时间不随 uid 单调，覆盖负增量
+            user.followTime = 1_700_000_000_000L + (i % 2 == 0 ? i : -i) * 1000L;
+            users.add(user);
+        }
+        dao.insertAll(users);
+
+        File file = folder.newFile("follow.snap");
+        FollowSnapshot.Result result = new FollowSnapshotWriter(dao).write(file);
+        assertTrue(result.isSuccess());
+        assertEquals(rows, result.rows);
+        // 头像路径在每块内只存一次，平均每行远小于未压缩的字段长度
+        assertTrue("bytes=" + result.bytes, result.bytes < rows * 48L);
+
+        List<FollowUser> read = new ArrayList<>(rows);
+        assertEquals(rows, new FollowSnapshotReader(file).read(read::add));
+
+        List<FollowUser> expected = dao.loadAllFollow();
+        expected.sort(Comparator.comparingLong(user -> user.uid));
+        assertEquals(expected.size(), read.size());
+        for (int i = 0; i < expected.size(); i++) {
+            FollowUser a = expected.get(i);
+            FollowUser b = read.get(i);
+            assertEquals(a.uid, b.uid);
+            assertEquals(a.douyinId, b.douyinId);
+            assertEquals(a.nick, b.nick);
+            assertEquals(a.avatar, b.avatar);
+            assertEquals(a.remark, b.remark);
+            assertEquals(a.isSpecial, b.isSpecial);
+            assertEquals(a.status, b.status);
+            assertEquals(a.followTime, b.followTime);
+        }
+    }
+
+    @Test
+    public void detectsCorruptionAndTruncation() throws IOException {
+        List<FollowUser> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            FollowUser user = new FollowUser();
+            user.douyinId = "dy" + i;
+            user.nick = "n" + i;
+            users.add(user);
+        }
+        dao.insertAll(users);
+        File file = folder.newFile("follow.snap");
+        new FollowSnapshotWriter(dao).write(file);
+
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            long middle = FollowSnapshot.FILE_HEADER_BYTES + FollowSnapshot.BLOCK_HEADER_BYTES + 20;
+            out.seek(middle);
+            int b = out.read();
+            out.seek(middle);
+            out.write(b ^ 0x01);
+        }
+        assertCorrupt(file);
+
+        new FollowSnapshotWriter(dao).write(file);
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(out.length() - 4);
+        }
+        assertCorrupt(file);
+    }
+
+    @Test
+    public void restoreResetsOutboxAndCursor() throws IOException {
+        FollowUser user = new FollowUser();
+        user.douyinId = "dy1";
+        user.nick = "小明";
+        dao.insert(user);
+        File file = folder.newFile("follow.snap");
+        new FollowSnapshotWriter(dao).write(file);
+
+        // 快照之后的本地修改和同步进度不属于快照
+        SyncDao syncDao = db.syncDao();
+        syncDao.upsertOutbox(Collections.singletonList(
+                FollowOutbox.of("dy1", FollowOutbox.FIELD_REMARK, "同事", 5)));
+        SyncState state = new SyncState();
+        state.id = SyncState.ROW_ID;
+        state.cursor = 42;
+        syncDao.saveState(state);
+
+        assertEquals(1, FollowRepository.restore(db, file));
+        assertNotNull(dao.getUserByDouyinId("dy1"));
+        assertEquals(0, syncDao.countOutbox());
+        assertNull(syncDao.getCursor());
+    }
+
+    @Test
+    public void corruptRestoreRollsBackAndKeepsRowsAndPinyinIndex() throws IOException {
+        int rows = FollowSnapshot.ROWS_PER_BLOCK + 3;
+        List<FollowUser> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            FollowUser user = new FollowUser();
+            user.douyinId = "dy" + i;
+            user.nick = i == 0 ? "鸣人" : "昵称" + i;
+            users.add(user);
+        }
+        dao.insertAll(users);
+        FollowPinyinIndex pinyinIndex = new FollowPinyinIndex(dao);
+        pinyinIndex.indexNew(dao.loadAllFollow());
+        File file = folder.newFile("follow.snap");
+        new FollowSnapshotWriter(dao).write(file);
+
+        // 第二块的块头声明了远超块长度的字符串数：第一块已经写入后才失败
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(FollowSnapshot.FILE_HEADER_BYTES);
+            int firstLength = out.readInt();
+            out.seek(FollowSnapshot.FILE_HEADER_BYTES + FollowSnapshot.BLOCK_HEADER_BYTES + firstLength + 8);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        try {
+            FollowRepository.restore(db, file);
+            fail();
+        } catch (FollowSnapshot.CorruptSnapshotException expected) {
+            // 块头损坏
+        }
+
+        assertEquals(rows, dao.countFollow());
+        long uid = dao.getUserByDouyinId("dy0").uid;
+        assertEquals(Collections.singletonList(uid), pinyinIndex.search("mingren", 10));
+    }
+
+    private static void assertCorrupt(File file) throws IOException {
+        try {
+            new FollowSnapshotReader(file).read(user -> { });
+            fail();
+        } catch (FollowSnapshot.CorruptSnapshotException expected) {
+            // 校验失败
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.follow.repository;
+
+import com.demo.follow.db.FollowUser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用户缓存：淘汰后抖音号索引同步移除、抖音号变化时旧索引失效、命中 / 未命中计数
+ */
+public class FollowUserCacheTest {
+
+    @Test
+    public void evictionDropsDouyinIdIndex() {
+        FollowUserCache cache = new FollowUserCache(2);
+        cache.put(user(1, "a"));
+        cache.put(user(2, "b"));
+        // 访问 1 之后最久未访问的是 2
+        assertNotNull(cache.getByUid(1));
+        cache.put(user(3, "c"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.getByDouyinId("b"));
+        assertNull(cache.getByUid(2));
+        assertEquals(1, cache.getByDouyinId("a").uid);
+        assertEquals(3, cache.getByDouyinId("c").uid);
+
+        // 被淘汰的抖音号重新写入后可以再次查到
+        cache.put(user(2, "b"));
+        assertEquals(2, cache.getByDouyinId("b").uid);
+        assertNull(cache.getByDouyinId("a"));
+    }
+
+    @Test
+    public void replacingARowMovesItsDouyinId() {
+        FollowUserCache cache = new FollowUserCache(4);
+        cache.put(user(1, "old"));
+        cache.put(user(1, "new"));
+        assertNull(cache.getByDouyinId("old"));
+        assertEquals(1, cache.getByDouyinId("new").uid);
+
+        cache.remove(1);
+        assertNull(cache.getByDouyinId("new"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        FollowUserCache cache = new FollowUserCache(4);
+        cache.put(user(1, "a"));
+        cache.getByUid(1);
+        cache.getByDouyinId("a");
+        cache.getByUid(2);
+        cache.getByDouyinId("b");
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+
+        cache.clear();
+        assertNull(cache.getByDouyinId("a"));
+        assertEquals(3, cache.missCount());
+    }
+
+    private static FollowUser user(long uid, String douyinId) {
+        FollowUser user = new FollowUser();
+        user.uid = uid;
+        user.douyinId = douyinId;
+        return user;
+    }
+}
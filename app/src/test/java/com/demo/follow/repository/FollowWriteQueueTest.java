@@ -0,0 +1,148 @@
+package com.demo.follow.repository;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.util.FollowMetrics;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 写回队列的合并规则：切换相互抵消、备注以最后一次为准、取消关注与关注切换的组合、多个抖音号合并为一个事务
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowWriteQueueTest {
+
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+    private final FollowChangeLog changeLog = FollowChangeLog.getInstance();
+    private final FollowInvalidationBus bus = FollowInvalidationBus.getInstance();
+
+    private AppDatabase db;
+    private FollowDao dao;
+    private FollowWriteQueue queue;
+
+    private final List<FollowChange> changes = new ArrayList<>();
+    private final List<DirtyRows> invalidations = new ArrayList<>();
+    private final FollowChangeLog.Listener changeListener = changes::add;
+    private final FollowInvalidationBus.DirtyListener dirtyListener = invalidations::add;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+        dao.insertAll(Arrays.asList(user("a"), user("b"), user("c")));
+        queue = FollowWriteQueue.create(db);
+        changeLog.addListener(changeListener);
+        bus.addDirtyListener(dirtyListener);
+        metrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        changeLog.removeListener(changeListener);
+        bus.removeDirtyListener(dirtyListener);
+        db.close();
+    }
+
+    @Test
+    public void toggleTwiceCancelsOut() throws InterruptedException {
+        queue.toggleSpecial("a");
+        queue.toggleSpecial("a");
+        flush();
+
+        assertFalse(dao.getUserByDouyinId("a").isSpecial);
+        assertTrue(changes.isEmpty());
+        assertTrue(invalidations.isEmpty());
+        assertEquals(0, metrics.snapshot(Metric.WRITE_BATCH_SQL).count);
+        assertEquals(0, db.syncDao().countOutbox());
+    }
+
+    @Test
+    public void lastRemarkWins() throws InterruptedException {
+        queue.setRemark("a", "同学");
+        queue.setRemark("a", "同事");
+        flush();
+
+        assertEquals("同事", dao.getUserByDouyinId("a").remark);
+        assertEquals(1, changes.size());
+        assertEquals("同事", changes.get(0).user.remark);
+        List<FollowOutbox> outbox = db.syncDao().loadOutbox(10);
+        assertEquals(1, outbox.size());
+        assertEquals(FollowOutbox.FIELD_REMARK, outbox.get(0).field);
+        assertEquals("同事", outbox.get(0).value);
+    }
+
+    @Test
+    public void toggleFollowAfterUnfollowFlipsTheExplicitStatus() throws InterruptedException {
+        // 取消关注后再切换：恢复为已关注
+        queue.unfollow("a");
+        queue.toggleFollow("a");
+        // 切换后再取消关注：取消关注覆盖之前的切换
+        queue.toggleFollow("b");
+        queue.unfollow("b");
+        flush();
+
+        assertEquals(1, dao.getUserByDouyinId("a").status);
+        assertEquals(0, dao.getUserByDouyinId("b").status);
+        assertEquals(1, dao.getUserByDouyinId("c").status);
+    }
+
+    @Test
+    public void severalUsersCommitInOneTransaction() throws InterruptedException {
+        queue.toggleSpecial("a");
+        queue.setRemark("b", "同事");
+        queue.unfollow("c");
+        flush();
+
+        assertTrue(dao.getUserByDouyinId("a").isSpecial);
+        assertEquals("同事", dao.getUserByDouyinId("b").remark);
+        assertEquals(0, dao.getUserByDouyinId("c").status);
+
+        assertEquals(1, metrics.snapshot(Metric.WRITE_BATCH_SQL).count);
+        assertEquals(1, metrics.snapshot(Metric.WRITE_BATCH_SIZE).count);
+        assertEquals(3, metrics.snapshot(Metric.WRITE_BATCH_SIZE).max);
+        assertEquals(3, changes.size());
+        assertEquals(1, invalidations.size());
+        assertEquals(3, invalidations.get(0).size());
+        assertEquals(3, db.syncDao().countOutbox());
+    }
+
+    private void flush() throws InterruptedException {
+        assertTrue(queue.awaitFlush(10, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private static FollowUser user(String douyinId) {
+        FollowUser user = new FollowUser();
+        user.douyinId = douyinId;
+        user.nick = "昵称" + douyinId;
+        user.followTime = 1000;
+        return user;
+    }
+}
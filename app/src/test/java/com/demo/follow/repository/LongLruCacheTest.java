@@ -0,0 +1,91 @@
+package com.demo.follow.repository;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * LRU 缓存：淘汰顺序、删除后探测链上的条目仍可查到（与 LinkedHashMap 的访问顺序模型对照）
+ */
+public class LongLruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyAccessed() {
+        LongLruCache<String> cache = new LongLruCache<>(3);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        // 访问 1 之后最久未访问的是 2
+        assertEquals("a", cache.get(1));
+        assertEquals("b", cache.put(4, "d"));
+        assertNull(cache.get(2));
+        // 覆盖已有的键不淘汰，同时标记为最近访问
+        assertNull(cache.put(3, "c2"));
+        assertEquals("a", cache.put(5, "e"));
+        assertEquals(3, cache.size());
+        assertEquals("c2", cache.get(3));
+        assertEquals("d", cache.get(4));
+        assertEquals("e", cache.get(5));
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        // 上限 8，哈希表 16 个桶：找出落在同一个桶的 4 个键，形成一条探测链
+        int mask = 15;
+        long[] chain = new long[4];
+        int found = 0;
+        for (long key = 1; found < chain.length; key++) {
+            if ((LongLruCache.hash(key) & mask) == (LongLruCache.hash(1) & mask)) {
+                chain[found++] = key;
+            }
+        }
+        LongLruCache<Long> cache = new LongLruCache<>(8);
+        for (long key : chain) {
+            cache.put(key, key);
+        }
+
+        // 删除链头和链中间的键，其余键前移后仍可查到
+        assertEquals(Long.valueOf(chain[0]), cache.remove(chain[0]));
+        assertEquals(Long.valueOf(chain[2]), cache.remove(chain[2]));
+        assertNull(cache.remove(chain[2]));
+        assertEquals(Long.valueOf(chain[1]), cache.get(chain[1]));
+        assertEquals(Long.valueOf(chain[3]), cache.get(chain[3]));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void matchesAccessOrderedLinkedHashMap() {
+        int maxSize = 8;
+        LongLruCache<Long> cache = new LongLruCache<>(maxSize);
+        Map<Long, Long> model = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(40);
+            switch (random.nextInt(3)) {
+                case 0: {
+                    Long expectedEvicted = null;
+                    if (!model.containsKey(key) && model.size() == maxSize) {
+                        Iterator<Map.Entry<Long, Long>> eldest = model.entrySet().iterator();
+                        expectedEvicted = eldest.next().getValue();
+                        eldest.remove();
+                    }
+                    model.put(key, (long) i);
+                    assertEquals(expectedEvicted, cache.put(key, (long) i));
+                    break;
+                }
+                case 1:
+                    assertEquals(model.get(key), cache.get(key));
+                    break;
+                default:
+                    assertEquals(model.remove(key), cache.remove(key));
+                    break;
+            }
+            assertEquals(model.size(), cache.size());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.demo.follow.repository;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 对象键哈希表：同一探测链（含回绕到表头）上删除后其余键仍可查到，与 HashMap 对照
+ */
+public class ObjectLongMapTest {
+
+    /**
+     * 哈希值可控的键，小于 65536 的哈希值直接对应桶下标
+     */
+    private static final class Key {
+        final String name;
+        final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void removeShiftsCollisionChain() {
+        // 上限 4，表容量 8
+        ObjectLongMap<Key> map = new ObjectLongMap<>(4);
+        Key a = new Key("a", 1);
+        Key b = new Key("b", 1);
+        Key c = new Key("c", 1);
+        Key d = new Key("d", 2);
+        map.put(a, 1);
+        map.put(b, 2);
+        map.put(c, 3);
+        map.put(d, 4);
+
+        map.remove(a);
+        assertEquals(-1, map.get(a, -1));
+        assertEquals(2, map.get(b, -1));
+        assertEquals(3, map.get(c, -1));
+        assertEquals(4, map.get(d, -1));
+
+        map.remove(c);
+        assertEquals(2, map.get(b, -1));
+        assertEquals(4, map.get(d, -1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void removeShiftsChainThatWrapsAround() {
+        ObjectLongMap<Key> map = new ObjectLongMap<>(4);
+        Key a = new Key("a", 7);
+        Key b = new Key("b", 7);
+        Key c = new Key("c", 0);
+        map.put(a, 1);
+        map.put(b, 2);
+        map.put(c, 3);
+
+        map.remove(a);
+        assertEquals(2, map.get(b, -1));
+        assertEquals(3, map.get(c, -1));
+        map.remove(b);
+        assertEquals(3, map.get(c, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void fullMapRejectsNewKeys() {
+        ObjectLongMap<String> map = new ObjectLongMap<>(2);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("a", 3);
+        assertEquals(3, map.get("a", -1));
+        try {
+            map.put("c", 4);
+            fail();
+        } catch (IllegalStateException expected) {
+            // 超出上限
+        }
+    }
+
+    @Test
+    public void matchesHashMap() {
+        ObjectLongMap<Key> map = new ObjectLongMap<>(16);
+        Map<Key, Long> model = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(40);
+            // 哈希值只取 4 个，大量碰撞
+            Key key = new Key("k" + id, id % 4);
+            if (random.nextBoolean() && (model.containsKey(key) || model.size() < 16)) {
+                model.put(key, (long) i);
+                map.put(key, i);
+            } else {
+                model.remove(key);
+                map.remove(key);
+            }
+            assertEquals(model.size(), map.size());
+            for (int probe = 0; probe < 40; probe++) {
+                Key k = new Key("k" + probe, probe % 4);
+                Long expected = model.get(k);
+                assertEquals(expected == null ? -1 : expected, map.get(k, -1));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.follow.repository;
+
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 共享查询的分发和按订阅计数连接 / 断开
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class SharedQueryTest {
+
+    @Test
+    public void subscribersShareOneUpstream() {
+        MutableLiveData<Integer> upstream = new MutableLiveData<>();
+        int[] opens = {0};
+        SharedQuery<Integer> query = new SharedQuery<>(() -> {
+            opens[0]++;
+            return upstream;
+        });
+        assertFalse(query.isConnected());
+
+        List<Integer> first = new ArrayList<>();
+        List<Integer> second = new ArrayList<>();
+        Observer<Integer> a = first::add;
+        Observer<Integer> b = second::add;
+        query.observeForever(a);
+        query.observeForever(b);
+        assertEquals(1, opens[0]);
+        assertTrue(query.isConnected());
+        assertTrue(upstream.hasActiveObservers());
+
+        // 一次结果分发给所有订阅者
+        upstream.setValue(7);
+        assertEquals(List.of(7), first);
+        assertEquals(List.of(7), second);
+
+        // 还有订阅者时保持连接
+        query.removeObserver(a);
+        assertTrue(upstream.hasActiveObservers());
+
+        // 最后一个订阅者离开后断开，底层查询不再活跃
+        query.removeObserver(b);
+        assertFalse(query.isConnected());
+        assertFalse(upstream.hasObservers());
+        upstream.setValue(8);
+        assertEquals(List.of(7), second);
+
+        // 再次订阅时复用底层查询
+        query.observeForever(b);
+        assertEquals(1, opens[0]);
+        assertEquals(List.of(7, 8), second);
+        query.removeObserver(b);
+    }
+}
@@ -0,0 +1,203 @@
+package com.demo.follow.sync;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import com.demo.follow.db.AppDatabase;
+import com.demo.follow.db.FollowDao;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+import com.demo.follow.db.SyncDao;
+import com.demo.follow.repository.FollowChange;
+import com.demo.follow.repository.FollowChangeLog;
+import com.demo.follow.repository.FollowSyncStore;
+import com.demo.follow.util.AppExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 同步引擎对接进程内的模拟服务端：分页增量拉取、按字段解决冲突、失败重试、同一页中的重复行
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowSyncEngineTest {
+
+    private AppDatabase db;
+    private FollowDao dao;
+    private SyncDao syncDao;
+    private FollowSyncStore store;
+    private LocalSyncServer server;
+    private FollowSyncEngine engine;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = AppDatabase.configure(Room.inMemoryDatabaseBuilder(context, AppDatabase.class))
+                .allowMainThreadQueries()
+                .build();
+        dao = db.followDao();
+        syncDao = db.syncDao();
+        store = FollowSyncStore.create(db);
+        server = new LocalSyncServer();
+        // 重试间隔缩短到 1 毫秒
+        engine = new FollowSyncEngine(store, server, AppExecutors.getInstance(), 1);
+    }
+
+    @After
+    public void tearDown() {
+        store.setOutboxListener(null);
+        db.close();
+    }
+
+    @Test
+    public void pullsAllPagesThenOnlyTheDelta() throws Exception {
+        int rows = FollowSyncEngine.PULL_LIMIT + 10;
+        for (int i = 1; i <= rows; i++) {
+            server.put(user("dy" + i, "昵称" + i), 1);
+        }
+
+        engine.syncOnce();
+        assertEquals(rows, dao.loadAllFollowRows().size());
+        long cursor = store.cursor();
+        assertTrue(cursor > 0);
+
+        // 第二次只拉取服务端之后改动的行
+        FollowUser changed = user("dy3", "新昵称");
+        server.put(changed, 2);
+        engine.syncOnce();
+        assertEquals(1, server.lastPullSize);
+        assertEquals("新昵称", dao.getUserByDouyinId("dy3").nick);
+        assertTrue(store.cursor() > cursor);
+    }
+
+    @Test
+    public void localPendingFieldsSurvivePullAndConflictsResolvePerField() throws Exception {
+        server.put(user("dy1", "小明"), 10);
+        engine.syncOnce();
+
+        // 本地：特别关注（比服务端新）和备注（比服务端旧）都有待上传的修改
+        dao.setRemarkByDouyinId("dy1", "本地备注");
+        syncDao.upsertOutbox(Arrays.asList(
+                FollowOutbox.of("dy1", FollowOutbox.FIELD_SPECIAL, "1", 100),
+                FollowOutbox.of("dy1", FollowOutbox.FIELD_REMARK, "本地备注", 20)));
+        dao.toggleSpecialByDouyinId("dy1");
+        // 服务端：其他设备在本地修改之后改了备注，在之前改了昵称
+        server.setField("dy1", FollowOutbox.FIELD_REMARK, "服务端备注", 50);
+        FollowUser renamed = server.get("dy1");
+        renamed.nick = "大明";
+
+        // 拉取时本地有待上传修改的字段保持本地值，资料字段以服务端为准
+        store.applyRemote(Collections.singletonList(renamed), store.cursor());
+        FollowUser local = dao.getUserByDouyinId("dy1");
+        assertEquals("大明", local.nick);
+        assertTrue(local.isSpecial);
+        assertEquals("本地备注", local.remark);
+
+        // 上传：特别关注被接受，备注被拒绝并采用服务端的值
+        engine.syncOnce();
+        assertEquals(0, syncDao.countOutbox());
+        assertTrue(server.get("dy1").isSpecial);
+        assertEquals("服务端备注", server.get("dy1").remark);
+        local = dao.getUserByDouyinId("dy1");
+        assertTrue(local.isSpecial);
+        assertEquals("服务端备注", local.remark);
+    }
+
+    @Test
+    public void retriesServerErrorsAndStillPullsWhenPushFails() throws Exception {
+        server.put(user("dy1", "小明"), 1);
+        server.failNext(FollowSyncEngine.MAX_ATTEMPTS - 1, 503);
+        engine.syncOnce();
+        assertNotNull(dao.getUserByDouyinId("dy1"));
+
+        // 上传重试用尽：记一次尝试，拉取照常进行
+        syncDao.upsertOutbox(Collections.singletonList(
+                FollowOutbox.of("dy1", FollowOutbox.FIELD_STATUS, "0", 5)));
+        server.put(user("dy2", "小红"), 1);
+        server.failNext(FollowSyncEngine.MAX_ATTEMPTS, 503);
+        try {
+            engine.syncOnce();
+            fail("push should fail after " + FollowSyncEngine.MAX_ATTEMPTS + " attempts");
+        } catch (SyncTransport.StatusException e) {
+            assertEquals(503, e.code);
+        }
+        assertNotNull(dao.getUserByDouyinId("dy2"));
+        List<FollowOutbox> pending = store.pendingMutations(10);
+        assertEquals(1, pending.size());
+        assertEquals(1, pending.get(0).attempts);
+
+        // 下次同步时上传成功
+        engine.syncOnce();
+        assertEquals(0, syncDao.countOutbox());
+        assertEquals(0, server.get("dy1").status);
+    }
+
+    @Test
+    public void mutationRejectedEveryTimeIsDroppedWithoutBlockingSync() throws Exception {
+        server.put(user("dy1", "小明"), 1);
+        server.put(user("bad", "非法"), 1);
+        engine.syncOnce();
+
+        server.rejectMutationsFor("bad");
+        syncDao.upsertOutbox(Arrays.asList(
+                FollowOutbox.of("bad", FollowOutbox.FIELD_REMARK, "x", 5),
+                FollowOutbox.of("dy1", FollowOutbox.FIELD_SPECIAL, "1", 5)));
+        server.put(user("dy2", "小红"), 1);
+
+        // 整批被拒绝后逐条重发：合法的修改被接受，被拒绝的修改丢弃，拉取照常进行
+        engine.syncOnce();
+        assertEquals(0, syncDao.countOutbox());
+        assertTrue(server.get("dy1").isSpecial);
+        assertNotNull(dao.getUserByDouyinId("dy2"));
+
+        // 之后的同步不再发送被丢弃的修改
+        int before = server.requests;
+        engine.syncOnce();
+        assertEquals(before + 1, server.requests);
+    }
+
+    @Test
+    public void duplicateRowsInOnePageInsertOnce() throws Exception {
+        List<FollowChange> changes = new ArrayList<>();
+        FollowChangeLog.Listener listener = changes::add;
+        FollowChangeLog.getInstance().addListener(listener);
+        try {
+            store.applyRemote(Arrays.asList(user("dy1", "旧昵称"), user("dy1", "新昵称")), 1);
+            shadowOf(Looper.getMainLooper()).idle();
+        } finally {
+            FollowChangeLog.getInstance().removeListener(listener);
+        }
+
+        // 同一页中重复的抖音号只插入最后一个版本，没有 uid 为 -1 的幽灵行
+        assertEquals(1, dao.loadAllFollowRows().size());
+        FollowUser local = dao.getUserByDouyinId("dy1");
+        assertEquals("新昵称", local.nick);
+        assertEquals(1, changes.size());
+        assertEquals(local.uid, changes.get(0).uid);
+    }
+
+    private static FollowUser user(String douyinId, String nick) {
+        FollowUser user = new FollowUser();
+        user.douyinId = douyinId;
+        user.nick = nick;
+        user.followTime = 1000;
+        return user;
+    }
+}
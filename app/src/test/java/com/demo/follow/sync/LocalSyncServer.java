@@ -0,0 +1,205 @@
+package com.demo.follow.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内的模拟同步服务端，实现与正式服务端相同的协议（见 {@link SyncProtocol}，服务端一侧的编解码在 {@link SyncServerCodec}）
+ * 每次修改分配递增的版本号，增量拉取返回版本号大于游标的行；
+ * 上传的修改按字段比较修改时间，较新的写入，较旧的拒绝并返回服务端的值。
+ * 可以让接下来的若干个请求返回错误状态，模拟服务端故障
+ */
+final class LocalSyncServer implements SyncTransport {
+
+    private static final class Row {
+        final FollowUser user;
+        /** 各字段最后一次修改的时间 */
+        final Map<Integer, Long> changedAt = new HashMap<>();
+        long version;
+
+        Row(FollowUser user) {
+            this.user = user;
+        }
+    }
+
+    private final Map<String, Row> rows = new HashMap<>();
+    private long version;
+
+    private int failuresLeft;
+    private int failureCode;
+
+    /** 包含该抖音号的上传请求一律以 400 拒绝 */
+    @Nullable
+    private String rejectedDouyinId;
+
+    /** 收到的请求数（含失败的） */
+    int requests;
+    /** 最后一次拉取返回的行数 */
+    int lastPullSize;
+
+    // ==================== 服务端数据 ====================
+
+    /**
+     * 服务端新增或修改一个用户（资料和全部字段）
+     * @param changedAt 修改时间
+     */
+    synchronized void put(@NonNull FollowUser user, long changedAt) {
+        Row row = new Row(copy(user));
+        for (int field = FollowOutbox.FIELD_SPECIAL; field <= FollowOutbox.FIELD_STATUS; field++) {
+            row.changedAt.put(field, changedAt);
+        }
+        row.version = ++version;
+        rows.put(user.douyinId, row);
+    }
+
+    /**
+     * 服务端修改一个字段（例如在其他设备上）
+     */
+    synchronized void setField(@NonNull String douyinId, int field, @Nullable String value, long changedAt) {
+        Row row = rows.get(douyinId);
+        write(row.user, field, value);
+        row.changedAt.put(field, changedAt);
+        row.version = ++version;
+    }
+
+    @NonNull
+    synchronized FollowUser get(@NonNull String douyinId) {
+        return copy(rows.get(douyinId).user);
+    }
+
+    /**
+     * 接下来的 count 个请求返回 code
+     */
+    synchronized void failNext(int count, int code) {
+        failuresLeft = count;
+        failureCode = code;
+    }
+
+    /**
+     * 之后所有包含该抖音号的上传请求都返回 400（例如服务端认为这条修改不合法）
+     */
+    synchronized void rejectMutationsFor(@Nullable String douyinId) {
+        rejectedDouyinId = douyinId;
+    }
+
+    // ==================== 协议 ====================
+
+    @NonNull
+    @Override
+    public synchronized byte[] post(@NonNull String path, @NonNull byte[] body) throws IOException {
+        requests++;
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new StatusException(failureCode);
+        }
+        switch (path) {
+            case SyncProtocol.PATH_PULL:
+                return pull(body);
+            case SyncProtocol.PATH_PUSH:
+                return push(body);
+            default:
+                throw new StatusException(404);
+        }
+    }
+
+    private byte[] pull(byte[] body) throws IOException {
+        SyncServerCodec.PullRequest request = SyncServerCodec.decodePullRequest(body);
+        long cursor = request.cursor;
+        int limit = request.limit;
+        List<Row> newer = new ArrayList<>();
+        for (Row row : rows.values()) {
+            if (row.version > cursor) {
+                newer.add(row);
+            }
+        }
+        newer.sort(Comparator.comparingLong(row -> row.version));
+        List<FollowUser> page = new ArrayList<>();
+        long next = cursor;
+        for (int i = 0; i < newer.size() && i < limit; i++) {
+            page.add(copy(newer.get(i).user));
+            next = newer.get(i).version;
+        }
+        lastPullSize = page.size();
+        return SyncServerCodec.encodePullResponse(page, next, newer.size() > limit);
+    }
+
+    private byte[] push(byte[] body) throws IOException {
+        List<FollowOutbox> mutations = SyncServerCodec.decodePushRequest(body);
+        for (FollowOutbox mutation : mutations) {
+            if (mutation.douyinId.equals(rejectedDouyinId)) {
+                throw new StatusException(400);
+            }
+        }
+        List<SyncProtocol.PushResult> results = new ArrayList<>();
+        for (FollowOutbox mutation : mutations) {
+            Row row = rows.get(mutation.douyinId);
+            if (row == null) {
+                results.add(new SyncProtocol.PushResult(mutation.id, true, null));
+                continue;
+            }
+            Long serverTime = row.changedAt.get(mutation.field);
+            if (serverTime != null && serverTime > mutation.changedAt) {
+                results.add(new SyncProtocol.PushResult(mutation.id, false, read(row.user, mutation.field)));
+                continue;
+            }
+            write(row.user, mutation.field, mutation.value);
+            row.changedAt.put(mutation.field, mutation.changedAt);
+            row.version = ++version;
+            results.add(new SyncProtocol.PushResult(mutation.id, true, null));
+        }
+        return SyncServerCodec.encodePushResponse(results);
+    }
+
+    // ==================== 工具 ====================
+
+    private static void write(FollowUser user, int field, @Nullable String value) {
+        switch (field) {
+            case FollowOutbox.FIELD_SPECIAL:
+                user.isSpecial = "1".equals(value);
+                break;
+            case FollowOutbox.FIELD_REMARK:
+                user.remark = value;
+                break;
+            case FollowOutbox.FIELD_STATUS:
+                user.status = Integer.parseInt(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Nullable
+    private static String read(FollowUser user, int field) {
+        switch (field) {
+            case FollowOutbox.FIELD_SPECIAL:
+                return user.isSpecial ? "1" : "0";
+            case FollowOutbox.FIELD_REMARK:
+                return user.remark;
+            case FollowOutbox.FIELD_STATUS:
+                return String.valueOf(user.status);
+            default:
+                return null;
+        }
+    }
+
+    private static FollowUser copy(FollowUser source) {
+        FollowUser user = new FollowUser();
+        user.douyinId = source.douyinId;
+        user.nick = source.nick;
+        user.avatar = source.avatar;
+        user.isSpecial = source.isSpecial;
+        user.remark = source.remark;
+        user.followTime = source.followTime;
+        user.status = source.status;
+        return user;
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.follow.sync;
+
+import androidx.annotation.NonNull;
+import com.demo.follow.db.FollowOutbox;
+import com.demo.follow.db.FollowUser;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 同步协议的服务端一侧编解码（格式见 {@link SyncProtocol}），供 {@link LocalSyncServer} 使用
+ */
+final class SyncServerCodec {
+
+    private SyncServerCodec() {
+    }
+
+    /**
+     * 拉取请求
+     */
+    static final class PullRequest {
+        final long cursor;
+        final int limit;
+
+        PullRequest(long cursor, int limit) {
+            this.cursor = cursor;
+            this.limit = limit;
+        }
+    }
+
+    // ==================== 拉取 ====================
+
+    static PullRequest decodePullRequest(@NonNull byte[] body) throws IOException {
+        try {
+            JSONObject json = SyncProtocol.decode(body);
+            return new PullRequest(json.getLong("cursor"), json.getInt("limit"));
+        } catch (JSONException e) {
+            throw new IOException("Malformed pull request", e);
+        }
+    }
+
+    static byte[] encodePullResponse(@NonNull List<FollowUser> changes, long cursor, boolean hasMore)
+            throws IOException {
+        try {
+            JSONArray array = new JSONArray();
+            for (FollowUser user : changes) {
+                array.put(userToJson(user));
+            }
+            return SyncProtocol.encode(new JSONObject().put("changes", array).put("cursor", cursor)
+                    .put("hasMore", hasMore));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // ==================== 上传 ====================
+
+    static List<FollowOutbox> decodePushRequest(@NonNull byte[] body) throws IOException {
+        try {
+            JSONArray array = SyncProtocol.decode(body).getJSONArray("mutations");
+            List<FollowOutbox> mutations = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject json = array.getJSONObject(i);
+                FollowOutbox mutation = FollowOutbox.of(json.getString("douyinId"), json.getInt("field"),
+                        SyncProtocol.optString(json, "value"), json.getLong("changedAt"));
+                mutation.id = json.getLong("id");
+                mutations.add(mutation);
+            }
+            return mutations;
+        } catch (JSONException e) {
+            throw new IOException("Malformed push request", e);
+        }
+    }
+
+    static byte[] encodePushResponse(@NonNull List<SyncProtocol.PushResult> results) throws IOException {
+        try {
+            JSONArray array = new JSONArray();
+            for (SyncProtocol.PushResult result : results) {
+                array.put(new JSONObject()
+                        .put("id", result.id)
+                        .put("accepted", result.accepted)
+                        .put("value", result.value == null ? JSONObject.NULL : result.value));
+            }
+            return SyncProtocol.encode(new JSONObject().put("results", array));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static JSONObject userToJson(FollowUser user) throws JSONException {
+        return new JSONObject()
+                .put("douyinId", user.douyinId)
+                .put("nick", user.nick == null ? JSONObject.NULL : user.nick)
+                .put("avatar", user.avatar == null ? JSONObject.NULL : user.avatar)
+                .put("isSpecial", user.isSpecial)
+                .put("remark", user.remark == null ? JSONObject.NULL : user.remark)
+                .put("followTime", user.followTime)
+                .put("status", user.status);
+    }
+}
@@ -0,0 +1,93 @@
+package com.demo.follow.util;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.demo.follow.repository.FollowWriteQueue;
+import com.demo.follow.util.FollowMetrics.Metric;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * 热路径指标测试：计时区段、写回队列的排队 / SQL 拆分、导出格式
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class FollowMetricsTest {
+
+    private final FollowMetrics metrics = FollowMetrics.getInstance();
+
+    @Before
+    public void setUp() {
+        metrics.reset();
+    }
+
+    @Test
+    public void beginEnd_recordsElapsedMicros() throws InterruptedException {
+        long start = metrics.begin(Metric.ADAPTER_BIND);
+        Thread.sleep(5);
+        long elapsed = metrics.end(Metric.ADAPTER_BIND, start);
+        metrics.recordValue(Metric.LIST_EMISSION_SIZE, 120);
+
+        LatencyHistogram.Snapshot bind = metrics.snapshot(Metric.ADAPTER_BIND);
+        assertEquals(1, bind.count);
+        assertEquals(elapsed / 1000, bind.max);
+        assertTrue(bind.max >= 5_000);
+        assertEquals(120, metrics.snapshot(Metric.LIST_EMISSION_SIZE).max);
+        assertEquals(0, metrics.snapshot(Metric.ADAPTER_CREATE).count);
+    }
+
+    @Test
+    public void writeQueue_recordsWaitAndSqlPerOperation() throws InterruptedException {
+        Context context = ApplicationProvider.getApplicationContext();
+        FollowWriteQueue queue = FollowWriteQueue.get(context);
+        queue.toggleSpecial("Naruto0512");
+        queue.setRemark("Sakura0119", "小樱");
+        assertTrue(queue.awaitFlush(10, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, metrics.snapshot(Metric.TOGGLE_SPECIAL_WAIT).count);
+        assertEquals(1, metrics.snapshot(Metric.TOGGLE_SPECIAL_SQL).count);
+        assertEquals(1, metrics.snapshot(Metric.SET_REMARK_SQL).count);
+        assertEquals(0, metrics.snapshot(Metric.UNFOLLOW_SQL).count);
+        LatencyHistogram.Snapshot batch = metrics.snapshot(Metric.WRITE_BATCH_SQL);
+        assertEquals(1, batch.count);
+        // 同一批的操作共享事务时间
+        assertEquals(batch.max, metrics.snapshot(Metric.TOGGLE_SPECIAL_SQL).max);
+        assertEquals(2, metrics.snapshot(Metric.WRITE_BATCH_SIZE).max);
+
+        // 还原
+        queue.toggleSpecial("Naruto0512");
+        assertTrue(queue.awaitFlush(10, TimeUnit.SECONDS));
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    @Test
+    public void dump_listsRecordedMetricsOnly() {
+        metrics.recordNanos(Metric.LIST_DIFF, 2_500_000);
+        StringWriter out = new StringWriter();
+        metrics.dump(new PrintWriter(out));
+
+        String dump = out.toString();
+        assertTrue(dump, dump.startsWith("FollowMetrics"));
+        assertTrue(dump, dump.contains("list.diff"));
+        assertTrue(dump, dump.contains("2500"));
+        assertFalse(dump, dump.contains("adapter.bind "));
+        assertTrue(dump, dump.contains("follow-write"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.follow.util;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 直方图分桶、分位数和无分配记录的测试
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_areContiguousAndWithinOneSixteenth() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue("bucket must not decrease at " + value, bucket >= previous);
+            assertTrue(bucket <= previous + 1);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(highest >= value);
+            assertTrue("relative error at " + value, highest - value <= Math.max(0, value / 16));
+            previous = bucket;
+        }
+        assertEquals(LatencyHistogram.bucketOf(Long.MAX_VALUE), LatencyHistogram.bucketOf(1L << 50));
+    }
+
+    @Test
+    public void percentiles_reportBucketUpperBoundCappedAtMax() {
+        LatencyHistogram histogram = new LatencyHistogram("test", "us");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(101, snapshot.count);
+        assertEquals(5050, snapshot.sum);
+        assertEquals(100, snapshot.max);
+        assertEquals(0, snapshot.percentile(0));
+        assertEquals(51, snapshot.percentile(50), 2);
+        assertEquals(99, snapshot.percentile(99), 4);
+        assertEquals(100, snapshot.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count);
+        assertEquals(0, histogram.snapshot().percentile(99));
+    }
+
+    @Test
+    public void record_doesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        LatencyHistogram histogram = new LatencyHistogram("test", "us");
+        // 预热，让 JIT 编译完记录路径
+        for (int i = 0; i < 200_000; i++) {
+            histogram.record(i);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 1_000_000; i++) {
+            histogram.record(i * 31L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
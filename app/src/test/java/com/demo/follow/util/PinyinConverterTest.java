@@ -0,0 +1,49 @@
+package com.demo.follow.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 拼音转换测试
+ */
+public class PinyinConverterTest {
+
+    @Test
+    public void convert_chineseName_givesFullPinyinAndInitials() {
+        PinyinConverter.Pinyin pinyin = PinyinConverter.convert("王志松");
+        assertEquals("wangzhisong", pinyin.full);
+        assertEquals("wzs", pinyin.initials);
+    }
+
+    @Test
+    public void convert_mixedText_keepsLatinWordsAndSkipsSeparators() {
+        PinyinConverter.Pinyin pinyin = PinyinConverter.convert("鸣人 Naruto_07!");
+        assertEquals("mingrennaruto07", pinyin.full);
+        assertEquals("mrn0", pinyin.initials);
+    }
+
+    @Test
+    public void convert_null_givesEmptyStrings() {
+        PinyinConverter.Pinyin pinyin = PinyinConverter.convert(null);
+        assertEquals("", pinyin.full);
+        assertEquals("", pinyin.initials);
+    }
+
+    @Test
+    public void normalizeQuery_acceptsOnlyLettersDigitsAndSpaces() {
+        assertEquals("wzs", PinyinConverter.normalizeQuery(" W Z s "));
+        assertNull(PinyinConverter.normalizeQuery("鸣人"));
+        assertNull(PinyinConverter.normalizeQuery("   "));
+        assertNull(PinyinConverter.normalizeQuery(null));
+    }
+
+    @Test
+    public void upperBound_coversExactlyThePrefixRange() {
+        String upper = PinyinConverter.upperBound("wz");
+        assertEquals("w{", upper);
+        assertTrue("wzs".compareTo("wz") >= 0 && "wzs".compareTo(upper) < 0);
+        assertTrue("wzzzz".compareTo(upper) < 0);
+        assertFalse("x".compareTo(upper) < 0);
+    }
+}
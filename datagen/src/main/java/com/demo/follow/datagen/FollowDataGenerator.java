@@ -0,0 +1,231 @@
+package com.demo.follow.datagen;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * 合成关注数据生成器
+ * 按 follow 表（FollowUser）的列生成任意行数的数据，分布参照线上关注列表：
+ * 少量特别关注、少量有备注、一部分已取消关注但尚未清理的行；
+ * 昵称以中文为主，夹杂英文、数字和 emoji，长度集中在 2~6 个字符并带有长尾；
+ * 关注时间按先后顺序递增，间隔有疏有密（集中关注一批 / 很久才关注一个）。
+ * 相同的种子和行数总是生成相同的数据，测试和基准测试的结果在不同提交之间可以比较
+ */
+public final class FollowDataGenerator {
+
+    /**
+     * 默认随机种子
+     */
+    public static final long DEFAULT_SEED = 20240501L;
+
+    /**
+     * 特别关注比例
+     */
+    public static final double SPECIAL_RATE = 0.03;
+
+    /**
+     * 设置了备注的比例
+     */
+    public static final double REMARK_RATE = 0.15;
+
+    /**
+     * 已取消关注（status = 0，等待清理）的比例
+     */
+    public static final double UNFOLLOWED_RATE = 0.05;
+
+    /**
+     * 关注时间范围：从 2019-01-01 开始的 5 年内，行数越多间隔越密
+     */
+    public static final long FIRST_FOLLOW_TIME = 1_546_272_000_000L;
+    public static final long FOLLOW_TIME_SPAN = 5L * 365 * 24 * 3600 * 1000;
+
+    /**
+     * 昵称长度（字符数）的分布：下标为长度，值为累计权重（百分比）
+     * 2~6 个字符约占 75%，超过 12 个字符的长昵称约占 3%，最长 20 个字符（抖音昵称上限）
+     */
+    private static final int[] NICK_LENGTH_CDF = {
+            0, 3, 18, 40, 58, 70, 79, 85, 90, 92, 94, 96, 97,
+            97, 98, 98, 98, 99, 99, 99, 100
+    };
+
+    /**
+     * 预置的头像文件（assets/avatars）
+     */
+    private static final String[] AVATARS = {
+            "Deidara.jpg", "Gaara.jpg", "Hashirama.jpg", "Itachi.jpg", "Kakashi.jpg",
+            "Kankuro.jpg", "Kurama.jpg", "Madara.jpg", "Naruto.jpg", "Obito.jpg",
+            "Pain.jpg", "Rin.jpg", "Sakura.jpg", "Sasuke.jpg", "Tobirama.jpg"
+    };
+
+    private static final String HANZI = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何林罗高"
+            + "小大一子明天心月星雨晴云风花叶山海阳光美丽佳欣怡婷雅静"
+            + "宇轩浩然博文俊杰思远梦琪诗涵梓萱晨曦可乐甜橙柠檬奶茶"
+            + "快乐开心日记生活旅行美食摄影音乐舞蹈游戏剪辑宝宝妈妈";
+    private static final String[] SYLLABLES = {
+            "a", "an", "bo", "chen", "da", "er", "fei", "go", "hao", "jia",
+            "ke", "li", "lu", "mi", "na", "ou", "qi", "ran", "shi", "tian",
+            "wen", "xi", "yu", "zhi", "love", "cool", "star", "moon", "sun", "kiki"
+    };
+    private static final String[] EMOJI = {"🌙", "✨", "🍀", "🐱", "🔥", "🌸", "🎵", "💫"};
+    private static final String[] REMARKS = {
+            "同事", "前同事", "大学同学", "高中同学", "室友", "表哥", "表妹", "老板",
+            "房东", "健身教练", "楼下超市", "设计师", "摄影师", "客户", "邻居", "驾校教练"
+    };
+
+    private final long seed;
+
+    public FollowDataGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public FollowDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 生成的一行，对应 follow 表除 uid 以外的列
+     * 按顺序插入空表时 uid 依次为 1, 2, 3...，与 {@link #index} 相同
+     */
+    public static final class Row {
+        /** 序号（从 1 开始） */
+        public final int index;
+        public final String douyinId;
+        public final String nick;
+        public final String avatar;
+        public final boolean isSpecial;
+        /** 未设置时为 null */
+        public final String remark;
+        public final long followTime;
+        /** 1 = 已关注，0 = 已取消 */
+        public final int status;
+
+        Row(int index, String douyinId, String nick, String avatar, boolean isSpecial,
+            String remark, long followTime, int status) {
+            this.index = index;
+            this.douyinId = douyinId;
+            this.nick = nick;
+            this.avatar = avatar;
+            this.isSpecial = isSpecial;
+            this.remark = remark;
+            this.followTime = followTime;
+            this.status = status;
+        }
+    }
+
+    /**
+     * 第 index 行的抖音号（唯一，不需要生成数据就能算出）
+     * @param index 序号（从 1 开始）
+     * @return 抖音号
+     */
+    public static String douyinId(int index) {
+        return "u" + Integer.toString(index, 36) + "_" + Integer.toString(index % 97, 36);
+    }
+
+    /**
+     * 按顺序生成 count 行（惰性生成，不会一次把所有行放进内存）
+     * @param count 行数
+     * @return 可以重复遍历的行序列，每次遍历生成相同的数据
+     */
+    public Iterable<Row> rows(int count) {
+        return () -> new RowIterator(new Random(seed), count);
+    }
+
+    private static final class RowIterator implements Iterator<Row> {
+        private final Random random;
+        private final int count;
+        private final double meanGap;
+        private int index;
+        private double time = FIRST_FOLLOW_TIME;
+
+        RowIterator(Random random, int count) {
+            this.random = random;
+            this.count = count;
+            this.meanGap = (double) FOLLOW_TIME_SPAN / Math.max(1, count);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < count;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index++;
+            // 70% 的关注集中发生（间隔为平均值的十分之一），其余间隔较长，平均间隔仍为 meanGap
+            double gap = random.nextDouble() < 0.7 ? meanGap * 0.1 : meanGap * 3.1;
+            time += -Math.log(1 - random.nextDouble()) * gap;
+            return new Row(index, douyinId(index), nick(random),
+                    AVATARS[random.nextInt(AVATARS.length)],
+                    random.nextDouble() < SPECIAL_RATE,
+                    random.nextDouble() < REMARK_RATE ? remark(random) : null,
+                    (long) time,
+                    random.nextDouble() < UNFOLLOWED_RATE ? 0 : 1);
+        }
+    }
+
+    /**
+     * 昵称：55% 纯中文，25% 英文数字，15% 中英混合，5% 带 emoji
+     */
+    private static String nick(Random random) {
+        int length = nickLength(random);
+        int style = random.nextInt(100);
+        StringBuilder nick = new StringBuilder();
+        if (style < 55) {
+            appendHanzi(nick, random, length);
+        } else if (style < 80) {
+            appendLatin(nick, random, length);
+        } else if (style < 95) {
+            int hanzi = Math.max(1, length / 2);
+            appendHanzi(nick, random, hanzi);
+            appendLatin(nick, random, Math.max(1, length - hanzi));
+        } else {
+            appendHanzi(nick, random, Math.max(1, length - 1));
+            nick.append(EMOJI[random.nextInt(EMOJI.length)]);
+        }
+        return nick.toString();
+    }
+
+    private static int nickLength(Random random) {
+        int roll = random.nextInt(100);
+        for (int length = 1; length < NICK_LENGTH_CDF.length; length++) {
+            if (roll < NICK_LENGTH_CDF[length]) {
+                return length;
+            }
+        }
+        return NICK_LENGTH_CDF.length - 1;
+    }
+
+    private static void appendHanzi(StringBuilder out, Random random, int length) {
+        for (int i = 0; i < length; i++) {
+            out.append(HANZI.charAt(random.nextInt(HANZI.length())));
+        }
+    }
+
+    private static void appendLatin(StringBuilder out, Random random, int length) {
+        int start = out.length();
+        while (out.length() - start < length) {
+            String syllable = SYLLABLES[random.nextInt(SYLLABLES.length)];
+            if (out.length() == start && random.nextBoolean()) {
+                syllable = Character.toUpperCase(syllable.charAt(0)) + syllable.substring(1);
+            }
+            out.append(syllable);
+        }
+        out.setLength(start + length);
+        // 约三分之一的英文昵称以数字结尾（生日、年份）
+        if (length > 3 && random.nextInt(3) == 0) {
+            out.setCharAt(out.length() - 1, (char) ('0' + random.nextInt(10)));
+        }
+    }
+
+    /**
+     * 备注：关系称呼，一半带上姓氏（"王同事"、"李老板"）
+     */
+    private static String remark(Random random) {
+        String remark = REMARKS[random.nextInt(REMARKS.length)];
+        return random.nextBoolean() ? HANZI.charAt(random.nextInt(20)) + remark : remark;
+    }
+}
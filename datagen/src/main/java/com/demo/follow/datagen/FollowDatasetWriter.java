@@ -0,0 +1,133 @@
+package com.demo.follow.datagen;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * 把生成的数据写成预置数据库文件
+ * 文件格式与 assets/follow_v1.db 相同：只有 follow 表，user_version 为 0，
+ * 应用通过 createFromAsset 拷贝后由 Room 建立其余的表、索引和触发器，与正式的预置数据库走同一条路径
+ */
+public final class FollowDatasetWriter {
+
+    /**
+     * 数据集在 assets 中的目录
+     */
+    public static final String ASSET_DIR = "datasets";
+
+    /**
+     * 与 follow_v1.db 相同的建表语句
+     */
+    private static final String CREATE_TABLE = "CREATE TABLE \"follow\" (\n"
+            + "    uid INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,\n"
+            + "    douyinId TEXT NOT NULL,\n"
+            + "    nick TEXT,\n"
+            + "    avatar TEXT,\n"
+            + "    isSpecial INTEGER NOT NULL DEFAULT 0,\n"
+            + "    remark TEXT,\n"
+            + "    followTime INTEGER NOT NULL DEFAULT 0,\n"
+            + "    status INTEGER NOT NULL DEFAULT 1,\n"
+            + "    UNIQUE(douyinId)\n"
+            + ")";
+
+    private static final int BATCH = 5000;
+
+    private FollowDatasetWriter() {
+    }
+
+    /**
+     * 数据集文件名
+     * @param rows 行数
+     * @return 例如 follow_10000.db
+     */
+    public static String fileName(int rows) {
+        return "follow_" + rows + ".db";
+    }
+
+    /**
+     * 数据集在 assets 中的路径（createFromAsset 的参数）
+     * @param rows 行数
+     * @return 例如 datasets/follow_10000.db
+     */
+    public static String assetPath(int rows) {
+        return ASSET_DIR + "/" + fileName(rows);
+    }
+
+    /**
+     * 生成一个数据库文件（已存在时覆盖）
+     * @param file 输出文件
+     * @param generator 生成器
+     * @param rows 行数
+     */
+    public static void write(File file, FollowDataGenerator generator, int rows)
+            throws IOException, SQLException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Cannot overwrite " + file);
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA page_size = 4096");
+                statement.execute("PRAGMA journal_mode = DELETE");
+                statement.execute(CREATE_TABLE);
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO follow"
+                    + " (douyinId, nick, avatar, isSpecial, remark, followTime, status)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                int pending = 0;
+                for (FollowDataGenerator.Row row : generator.rows(rows)) {
+                    insert.setString(1, row.douyinId);
+                    insert.setString(2, row.nick);
+                    insert.setString(3, row.avatar);
+                    insert.setInt(4, row.isSpecial ? 1 : 0);
+                    if (row.remark != null) {
+                        insert.setString(5, row.remark);
+                    } else {
+                        insert.setNull(5, Types.VARCHAR);
+                    }
+                    insert.setLong(6, row.followTime);
+                    insert.setInt(7, row.status);
+                    insert.addBatch();
+                    if (++pending == BATCH) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * 命令行入口（app 的 generateFollowDatasets 任务调用）
+     * 参数：输出目录 行数...，例如 build/generated/followDatasets/datasets 1000 10000 100000
+     * 随机种子默认为 {@link FollowDataGenerator#DEFAULT_SEED}，可以用 -Dseed=... 指定
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: FollowDatasetWriter <outputDir> <rows>...");
+            System.exit(2);
+        }
+        File dir = new File(args[0]);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        FollowDataGenerator generator = new FollowDataGenerator(
+                Long.getLong("seed", FollowDataGenerator.DEFAULT_SEED));
+        for (int i = 1; i < args.length; i++) {
+            int rows = Integer.parseInt(args[i]);
+            File file = new File(dir, fileName(rows));
+            long start = System.nanoTime();
+            write(file, generator, rows);
+            System.out.printf("%s: %d rows, %d KB, %d ms%n", file.getName(), rows,
+                    file.length() / 1024, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
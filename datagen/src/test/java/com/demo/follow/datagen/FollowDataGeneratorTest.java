@@ -0,0 +1,71 @@
+package com.demo.follow.datagen;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class FollowDataGeneratorTest {
+
+    private static final int ROWS = 50_000;
+
+    @Test
+    public void sameSeed_generatesSameRows() {
+        Iterator<FollowDataGenerator.Row> first = new FollowDataGenerator(7).rows(1000).iterator();
+        Iterator<FollowDataGenerator.Row> second = new FollowDataGenerator(7).rows(1000).iterator();
+        while (first.hasNext()) {
+            FollowDataGenerator.Row a = first.next();
+            FollowDataGenerator.Row b = second.next();
+            assertEquals(a.douyinId, b.douyinId);
+            assertEquals(a.nick, b.nick);
+            assertEquals(a.remark, b.remark);
+            assertEquals(a.followTime, b.followTime);
+            assertEquals(a.status, b.status);
+        }
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    public void rows_matchConfiguredDistributions() {
+        int special = 0;
+        int remark = 0;
+        int unfollowed = 0;
+        int shortNick = 0;
+        int longNick = 0;
+        long lastTime = 0;
+        Set<String> ids = new HashSet<>();
+        for (FollowDataGenerator.Row row : new FollowDataGenerator().rows(ROWS)) {
+            assertEquals(FollowDataGenerator.douyinId(row.index), row.douyinId);
+            assertTrue("douyinId must be unique", ids.add(row.douyinId));
+            assertTrue("followTime must not decrease", row.followTime >= lastTime);
+            lastTime = row.followTime;
+
+            int length = row.nick.codePointCount(0, row.nick.length());
+            assertTrue(row.nick, length >= 1 && length <= 20);
+            if (length >= 2 && length <= 6) {
+                shortNick++;
+            } else if (length > 12) {
+                longNick++;
+            }
+            special += row.isSpecial ? 1 : 0;
+            remark += row.remark != null ? 1 : 0;
+            unfollowed += row.status == 0 ? 1 : 0;
+        }
+
+        assertEquals(ROWS, ids.size());
+        assertRate(FollowDataGenerator.SPECIAL_RATE, special);
+        assertRate(FollowDataGenerator.REMARK_RATE, remark);
+        assertRate(FollowDataGenerator.UNFOLLOWED_RATE, unfollowed);
+        assertTrue("most nicknames are 2-6 characters", shortNick > ROWS * 0.7);
+        assertTrue("long tail of long nicknames", longNick > 0 && longNick < ROWS * 0.06);
+        assertTrue(lastTime <= FollowDataGenerator.FIRST_FOLLOW_TIME + FollowDataGenerator.FOLLOW_TIME_SPAN * 1.1);
+    }
+
+    private static void assertRate(double expected, int count) {
+        double actual = (double) count / ROWS;
+        assertEquals(expected, actual, expected * 0.15);
+    }
+}
@@ -0,0 +1,45 @@
+package com.demo.follow.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * 采集基线配置文件：冷启动到关注列表首行，再滑动列表（行绑定、分页加载、头像加载）
+ * 需要 API 33 以上或已 root 的设备；输出复制到 app 的方法见 app/build.gradle 的 updateBaselineProfile
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final int MAX_ITERATIONS = 15;
+    private static final int STABLE_ITERATIONS = 3;
+
+    @Rule
+    public final BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(FollowApp.PACKAGE, MAX_ITERATIONS, STABLE_ITERATIONS, null,
+                true, false, line -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    UiDevice device = scope.getDevice();
+                    UiObject2 list = FollowApp.openFollowList(device);
+                    list.setGestureMargin(device.getDisplayWidth() / 5);
+                    list.fling(Direction.DOWN);
+                    list.fling(Direction.DOWN);
+                    list.fling(Direction.UP);
+                    device.waitForIdle();
+                    return Unit.INSTANCE;
+                });
+    }
+}
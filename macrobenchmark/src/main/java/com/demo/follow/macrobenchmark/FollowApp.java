@@ -0,0 +1,55 @@
+package com.demo.follow.macrobenchmark;
+
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * 被测应用的包名、控件和通用操作
+ */
+final class FollowApp {
+
+    static final String PACKAGE = "com.demo.follow";
+
+    /**
+     * MainActivity 的初始标签页参数（MainActivity.EXTRA_TAB）和“关注”标签页的位置
+     */
+    static final String EXTRA_TAB = "tab";
+    static final int TAB_FOLLOW = 1;
+
+    /**
+     * 等待界面元素出现的超时（毫秒）
+     */
+    static final long TIMEOUT_MS = 10_000;
+
+    /**
+     * 与 FollowMetrics / DatabaseWarmup 中的 systrace 区段名一致
+     */
+    static final String TRACE_BIND = "adapter.bind";
+    static final String TRACE_CREATE = "adapter.create";
+    static final String TRACE_DB_OPEN = "db.open";
+    static final String TRACE_DB_PREWARM = "db.prewarm";
+
+    private FollowApp() {
+    }
+
+    /**
+     * 切换到“关注”标签页，等待列表出现第一行
+     * @param device 设备
+     * @return 列表控件
+     */
+    static UiObject2 openFollowList(UiDevice device) {
+        UiObject2 tabs = device.wait(Until.findObject(By.res(PACKAGE, "tab_layout")), TIMEOUT_MS);
+        if (tabs == null) {
+            throw new AssertionError("tab_layout not found");
+        }
+        // 列表中未关注行的按钮文本也是“关注”，只在标签栏内查找
+        tabs.findObject(By.text("关注")).click();
+        UiObject2 list = device.wait(Until.findObject(By.res(PACKAGE, "recycler")), TIMEOUT_MS);
+        if (list == null || !list.wait(Until.hasObject(By.res(PACKAGE, "tv_name")), TIMEOUT_MS)) {
+            throw new AssertionError("follow list did not show any row");
+        }
+        return list;
+    }
+}
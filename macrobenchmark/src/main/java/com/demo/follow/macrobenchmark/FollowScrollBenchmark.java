@@ -0,0 +1,74 @@
+package com.demo.follow.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * 关注列表滑动的帧时间和卡顿
+ * benchmark 包预置了 10000 行的合成数据（分页列表），每轮从顶部向下快速滑动 FLINGS 次再滑回顶部。
+ * 报告：
+ * - frameDurationCpuMs / frameOverrunMs 的 P50 / P90 / P95 / P99（FrameTimingMetric）
+ * - 卡顿帧数和占比（{@link JankCountMetric}，按系统帧时间线判定，需要 API 31 以上）
+ * - onCreateViewHolder / onBindViewHolder 的次数、平均和总耗时（应用中的 systrace 区段）
+ */
+@RunWith(AndroidJUnit4.class)
+public class FollowScrollBenchmark {
+
+    private static final int ITERATIONS = 10;
+    private static final int FLINGS = 5;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollFollowList() {
+        List<Metric> metrics = Arrays.asList(
+                new FrameTimingMetric(),
+                new JankCountMetric(),
+                new TraceSectionMetric(FollowApp.TRACE_BIND, TraceSectionMetric.Mode.Count.INSTANCE,
+                        "bind", true),
+                new TraceSectionMetric(FollowApp.TRACE_BIND, TraceSectionMetric.Mode.Average.INSTANCE,
+                        "bind", true),
+                new TraceSectionMetric(FollowApp.TRACE_BIND, TraceSectionMetric.Mode.Sum.INSTANCE,
+                        "bind", true),
+                new TraceSectionMetric(FollowApp.TRACE_CREATE, TraceSectionMetric.Mode.Count.INSTANCE,
+                        "create", true));
+        rule.measureRepeated(FollowApp.PACKAGE, metrics, CompilationMode.DEFAULT, StartupMode.WARM,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    FollowApp.openFollowList(scope.getDevice());
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 list = FollowApp.openFollowList(device);
+                    // 避开系统手势区域
+                    list.setGestureMargin(device.getDisplayWidth() / 5);
+                    for (int i = 0; i < FLINGS; i++) {
+                        list.fling(Direction.DOWN);
+                    }
+                    list.fling(Direction.UP);
+                    device.waitForIdle();
+                    return Unit.INSTANCE;
+                });
+    }
+}
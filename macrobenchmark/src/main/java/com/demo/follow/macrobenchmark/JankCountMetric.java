@@ -0,0 +1,46 @@
+package com.demo.follow.macrobenchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.TraceMetric;
+import androidx.benchmark.perfetto.PerfettoTraceProcessor;
+import androidx.benchmark.perfetto.Row;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 卡顿帧计数
+ * FrameTimingMetric 只给出帧时间的分位数，这里按系统帧时间线（actual_frame_timeline_slice，API 31+）
+ * 统计被测进程的总帧数、卡顿帧数（jank_type 不为 None）以及其中由应用自身超时造成的帧数
+ */
+final class JankCountMetric extends TraceMetric {
+
+    @NonNull
+    @Override
+    public List<Measurement> getResult(@NonNull CaptureInfo captureInfo,
+                                       @NonNull PerfettoTraceProcessor.Session traceSession) {
+        String sql = "SELECT COUNT(*) AS frames,"
+                + " SUM(CASE WHEN f.jank_type != 'None' THEN 1 ELSE 0 END) AS janky,"
+                + " SUM(CASE WHEN f.jank_type GLOB '*App Deadline Missed*' THEN 1 ELSE 0 END) AS appJanky"
+                + " FROM actual_frame_timeline_slice f JOIN process p USING (upid)"
+                + " WHERE p.name = '" + captureInfo.getTargetPackageName() + "'";
+        List<Measurement> measurements = new ArrayList<>();
+        Iterator<Row> rows = traceSession.query(sql).iterator();
+        if (!rows.hasNext()) {
+            return measurements;
+        }
+        Row row = rows.next();
+        double frames = number(row.get("frames"));
+        double janky = number(row.get("janky"));
+        measurements.add(new Measurement("frameCount", frames));
+        measurements.add(new Measurement("jankFrameCount", janky));
+        measurements.add(new Measurement("appJankFrameCount", number(row.get("appJanky"))));
+        measurements.add(new Measurement("jankPercent", frames == 0 ? 0 : janky * 100 / frames));
+        return measurements;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.follow.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * MainActivity 冷启动到关注列表首行展示
+ * timeToInitialDisplayMs 为首帧，timeToFullDisplayMs 为列表首次插入数据后的 reportFullyDrawn（见 FollowFragment）；
+ * 同时统计启动期间数据库打开和预热的耗时（DatabaseWarmup 的 systrace 区段）。
+ * coldStartupFirstInstall 每轮冷启动前清空应用数据，首次打开数据库包含从预置文件拷贝和迁移。
+ * 每个场景分别在两种编译状态下运行，对比基线配置文件的效果：
+ * none 为不做任何预编译（相当于没有基线配置文件的首次安装），
+ * baselineProfile 为只按打包的基线配置文件预编译（相当于应用商店安装或 profileinstaller 生效后）
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> modes() {
+        return Arrays.asList(
+                new Object[]{"none", new CompilationMode.None()},
+                new Object[]{"baselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require, 0)});
+    }
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStartupFirstInstall() {
+        measure(true);
+    }
+
+    @Test
+    public void coldStartup() {
+        measure(false);
+    }
+
+    private void measure(boolean clearData) {
+        List<Metric> metrics = Arrays.asList(
+                new StartupTimingMetric(),
+                new TraceSectionMetric(FollowApp.TRACE_DB_OPEN, TraceSectionMetric.Mode.First.INSTANCE,
+                        FollowApp.TRACE_DB_OPEN, true),
+                new TraceSectionMetric(FollowApp.TRACE_DB_PREWARM, TraceSectionMetric.Mode.First.INSTANCE,
+                        FollowApp.TRACE_DB_PREWARM, true));
+        rule.measureRepeated(FollowApp.PACKAGE, metrics, compilationMode, StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    if (clearData) {
+                        clearAppData(scope.getDevice());
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    // 标签页按需加载，直接打开“关注”标签页，测量到关注列表首行
+                    scope.startActivityAndWait(intent -> {
+                        intent.putExtra(FollowApp.EXTRA_TAB, FollowApp.TAB_FOLLOW);
+                        return Unit.INSTANCE;
+                    });
+                    // 等到列表有数据，保证 reportFullyDrawn 落在 trace 内
+                    scope.getDevice().wait(Until.hasObject(By.res(FollowApp.PACKAGE, "tv_name")),
+                            FollowApp.TIMEOUT_MS);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    /**
+     * 清空应用数据（Kotlin 的 lambda 中不能抛出受检异常，这里转成非受检异常）
+     */
+    private static void clearAppData(UiDevice device) {
+        try {
+            device.executeShellCommand("pm clear " + FollowApp.PACKAGE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}